@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.jackson;
+
+import java.io.Serializable;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.util.StripedLruCache;
+
+/**
+ * {@link RefParser} remembering up to maxSize recently parsed refs. Refs are immutable, so repeated strings (map keys
+ * in graph JSON, mostly) can share one instance.
+ * <p>
+ * Refs are kept in a {@link StripedLruCache}, so concurrent deserializations rarely contend. Hit and miss counts are
+ * kept for sizing.
+ */
+public final class CachingRefParser<T extends ProjectRef>
+        implements RefParser<T>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final RefParser<T> delegate;
+
+    private final int maxSize;
+
+    private final transient StripedLruCache<T> cache;
+
+    public CachingRefParser( final RefParser<T> delegate, final int maxSize )
+    {
+        this.cache = new StripedLruCache<T>( maxSize );
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public T parse( final String value )
+    {
+        final T ref = cache.get( value );
+        if ( ref != null )
+        {
+            return ref;
+        }
+
+        return cache.putIfAbsent( value, delegate.parse( value ) );
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public int size()
+    {
+        return cache.size();
+    }
+
+    public long getHitCount()
+    {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount()
+    {
+        return cache.getMissCount();
+    }
+
+    /**
+     * @return hits / lookups, or 0 if there have been no lookups yet
+     */
+    public double getHitRatio()
+    {
+        return cache.getHitRatio();
+    }
+
+    private Object readResolve()
+    {
+        return new CachingRefParser<T>( delegate, maxSize );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CachingRefParser [delegate=" + delegate + ", maxSize=" + maxSize + ", hits=" + cache.getHitCount()
+                + ", misses=" + cache.getMissCount() + "]";
+    }
+}
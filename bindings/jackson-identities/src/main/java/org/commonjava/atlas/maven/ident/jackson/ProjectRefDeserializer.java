@@ -31,18 +31,23 @@ public class ProjectRefDeserializer<T extends ProjectRef>
 {
     private static final long serialVersionUID = 1L;
 
-    private final Class<T> refCls;
+    private final RefParser<T> parser;
 
     public ProjectRefDeserializer( final Class<T> refCls )
+    {
+        this( refCls, SerializerIdentityUtils.parserFor( refCls ) );
+    }
+
+    public ProjectRefDeserializer( final Class<T> refCls, final RefParser<T> parser )
     {
         super( refCls );
-        this.refCls = refCls;
+        this.parser = parser;
     }
 
     @Override
     public T deserialize( final JsonParser jp, final DeserializationContext ctxt )
             throws IOException, JsonProcessingException
     {
-        return SerializerIdentityUtils.parse( jp.getText(), refCls );
+        return parser.parse( jp.getText() );
     }
 }
@@ -30,17 +30,22 @@ public class ProjectRefKeyDeserializer<T extends ProjectRef>
 {
     private static final long serialVersionUID = 1L;
 
-    private final Class<T> refCls;
+    private final RefParser<T> parser;
 
     public ProjectRefKeyDeserializer( final Class<T> type )
     {
-        this.refCls = type;
+        this( SerializerIdentityUtils.parserFor( type ) );
+    }
+
+    public ProjectRefKeyDeserializer( final RefParser<T> parser )
+    {
+        this.parser = parser;
     }
 
     @Override
     public Object deserializeKey( String key, DeserializationContext ctxt )
             throws IOException, JsonProcessingException
     {
-        return SerializerIdentityUtils.parse( key, refCls );
+        return parser.parse( key );
     }
 }
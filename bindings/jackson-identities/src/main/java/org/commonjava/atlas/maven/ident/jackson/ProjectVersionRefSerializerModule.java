@@ -15,9 +15,11 @@
  */
 package org.commonjava.atlas.maven.ident.jackson;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
@@ -51,9 +53,23 @@ public class ProjectVersionRefSerializerModule
 
     public static final ProjectVersionRefSerializerModule INSTANCE = new ProjectVersionRefSerializerModule();
 
+    private final int keyCacheSize;
+
+    private final List<CachingRefParser<?>> keyCaches = new ArrayList<CachingRefParser<?>>();
+
     public ProjectVersionRefSerializerModule()
+    {
+        this( 0 );
+    }
+
+    /**
+     * @param keyCacheSize number of parsed map keys to remember per ref type; 0 disables the cache. The caches live
+     * as long as the module, so they are shared by every mapper and deserialization using it.
+     */
+    public ProjectVersionRefSerializerModule( final int keyCacheSize )
     {
         super( "ProjectRef (with variants) Serializer" );
+        this.keyCacheSize = keyCacheSize;
 
         for ( Class<? extends ProjectRef> cls: REF_CLASSES )
         {
@@ -69,8 +85,43 @@ public class ProjectVersionRefSerializerModule
         addSerializer( cls, new ProjectRefSerializer<T>( cls, false ) );
         addKeySerializer( cls, new ProjectRefSerializer<T>( cls, true ) );
 
-        addDeserializer( cls, new ProjectRefDeserializer<T>( cls ) );
-        addKeyDeserializer( cls, new ProjectRefKeyDeserializer<T>( cls ) );
+        final RefParser<T> parser = SerializerIdentityUtils.parserFor( cls );
+        addDeserializer( cls, new ProjectRefDeserializer<T>( cls, parser ) );
+
+        if ( keyCacheSize > 0 )
+        {
+            final CachingRefParser<T> cache = new CachingRefParser<T>( parser, keyCacheSize );
+            keyCaches.add( cache );
+            addKeyDeserializer( cls, new ProjectRefKeyDeserializer<T>( cache ) );
+        }
+        else
+        {
+            addKeyDeserializer( cls, new ProjectRefKeyDeserializer<T>( parser ) );
+        }
+    }
+
+    /**
+     * @return the map-key caches, one per ref type; empty if caching is disabled
+     */
+    public List<CachingRefParser<?>> getKeyCaches()
+    {
+        return Collections.unmodifiableList( keyCaches );
+    }
+
+    /**
+     * @return hit ratio over all map-key caches, or 0 if there have been no lookups (or caching is disabled)
+     */
+    public double getKeyCacheHitRatio()
+    {
+        long hits = 0;
+        long total = 0;
+        for ( final CachingRefParser<?> cache : keyCaches )
+        {
+            hits += cache.getHitCount();
+            total += cache.getHitCount() + cache.getMissCount();
+        }
+
+        return total == 0 ? 0 : (double) hits / total;
     }
 
     @Override
@@ -18,15 +18,9 @@ package org.commonjava.atlas.maven.ident.jackson;
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
-import org.commonjava.atlas.maven.ident.ref.SimpleVersionlessArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.VersionlessArtifactRef;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 
 /**
  * Created by jdcasey on 8/26/15.
@@ -35,48 +29,51 @@ public final class SerializerIdentityUtils
 {
     private SerializerIdentityUtils(){}
 
-    public static <T extends ProjectRef> T parse( final String value, final Class<T> type )
-            throws IOException
+    /**
+     * Resolve the parser for a ref type. Do this once, when building a (de)serializer, rather than per value.
+     *
+     * @throws IllegalArgumentException if there is no concrete ref class for the type
+     */
+    public static <T extends ProjectRef> RefParser<T> parserFor( final Class<T> type )
     {
-        Class<?> realType = null;
         if ( ArtifactRef.class.isAssignableFrom( type ) )
         {
-            realType = SimpleArtifactRef.class;
+            return new TypedRefParser<T>( type, TypedRefParser.Kind.ARTIFACT );
         }
         else if ( VersionlessArtifactRef.class.isAssignableFrom( type ) )
         {
-            realType = SimpleVersionlessArtifactRef.class;
+            return new TypedRefParser<T>( type, TypedRefParser.Kind.VERSIONLESS_ARTIFACT );
         }
         else if ( ProjectVersionRef.class.isAssignableFrom( type ) )
         {
-            realType = SimpleProjectVersionRef.class;
+            return new TypedRefParser<T>( type, TypedRefParser.Kind.PROJECT_VERSION );
         }
         else if ( ProjectRef.class.isAssignableFrom( type ) )
         {
-            realType = SimpleProjectRef.class;
-        }
-        else
-        {
-            throw new IOException( "Cannot find acceptable deserialization target class to parse: " + type.getSimpleName() );
+            return new TypedRefParser<T>( type, TypedRefParser.Kind.PROJECT );
         }
 
+        throw new IllegalArgumentException( "Cannot find acceptable deserialization target class to parse: "
+                                                    + type.getSimpleName() );
+    }
+
+    /**
+     * Convenience for one-off parsing. Deserializers should hold on to a {@link #parserFor(Class)} result instead.
+     */
+    public static <T extends ProjectRef> T parse( final String value, final Class<T> type )
+            throws IOException
+    {
+        final RefParser<T> parser;
         try
         {
-            final Method parseMethod = realType.getMethod( "parse", String.class );
-            return type.cast( parseMethod.invoke( null, value ) );
-        }
-        catch ( final NoSuchMethodException e )
-        {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
+            parser = parserFor( type );
         }
-        catch ( final IllegalAccessException e )
+        catch ( final IllegalArgumentException e )
         {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
-        }
-        catch ( final InvocationTargetException e )
-        {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
+            throw new IOException( e.getMessage() );
         }
+
+        return parser.parse( value );
     }
 
 }
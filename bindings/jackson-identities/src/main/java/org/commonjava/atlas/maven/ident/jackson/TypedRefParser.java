@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.jackson;
+
+import java.io.Serializable;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleVersionlessArtifactRef;
+
+/**
+ * {@link RefParser} calling the parse() method of the concrete ref class chosen for the target type.
+ */
+final class TypedRefParser<T extends ProjectRef>
+        implements RefParser<T>, Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    enum Kind
+    {
+        ARTIFACT, VERSIONLESS_ARTIFACT, PROJECT_VERSION, PROJECT
+    }
+
+    private final Class<T> type;
+
+    private final Kind kind;
+
+    TypedRefParser( final Class<T> type, final Kind kind )
+    {
+        this.type = type;
+        this.kind = kind;
+    }
+
+    @Override
+    public T parse( final String value )
+    {
+        final ProjectRef ref;
+        switch ( kind )
+        {
+            case ARTIFACT:
+                ref = SimpleArtifactRef.parse( value );
+                break;
+            case VERSIONLESS_ARTIFACT:
+                ref = SimpleVersionlessArtifactRef.parse( value );
+                break;
+            case PROJECT_VERSION:
+                ref = SimpleProjectVersionRef.parse( value );
+                break;
+            default:
+                ref = SimpleProjectRef.parse( value );
+        }
+
+        return type.cast( ref );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TypedRefParser [" + type.getSimpleName() + "]";
+    }
+}
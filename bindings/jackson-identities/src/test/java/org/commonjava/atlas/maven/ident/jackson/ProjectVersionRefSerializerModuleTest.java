@@ -16,12 +16,15 @@
 package org.commonjava.atlas.maven.ident.jackson;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.junit.Before;
 import org.junit.Test;
@@ -72,4 +75,54 @@ public class ProjectVersionRefSerializerModuleTest
         assertThat( result.get( pr ), equalTo( value ) );
     }
 
+    @Test
+    public void cachedMapKeysAreShared()
+        throws Exception
+    {
+        final ProjectVersionRefSerializerModule module = new ProjectVersionRefSerializerModule( 16 );
+        final ObjectMapper cachingMapper = new ObjectMapper();
+        cachingMapper.registerModule( module );
+
+        final String json = "{\"org.foo:bar:1.0\":\"one\"}";
+        final TypeReference<Map<ProjectVersionRef, String>> type = new TypeReference<Map<ProjectVersionRef, String>>()
+        {
+        };
+
+        final ProjectVersionRef first = cachingMapper.readValue( json, type ).keySet().iterator().next();
+        final ProjectVersionRef second = cachingMapper.readValue( json, type ).keySet().iterator().next();
+
+        assertThat( second, sameInstance( first ) );
+        assertThat( module.getKeyCacheHitRatio(), equalTo( 0.5 ) );
+    }
+
+    @Test
+    public void keyCacheIsBoundedAndCountsLookups()
+    {
+        final CachingRefParser<ProjectVersionRef> cache =
+                new CachingRefParser<ProjectVersionRef>( SerializerIdentityUtils.parserFor( ProjectVersionRef.class ),
+                                                         40 );
+
+        for ( int round = 0; round < 2; round++ )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                cache.parse( "org.foo:bar-" + i + ":1.0" );
+            }
+        }
+
+        assertThat( cache.size() <= cache.getMaxSize(), equalTo( true ) );
+        assertThat( cache.getHitCount() + cache.getMissCount(), equalTo( 200L ) );
+
+        final ProjectVersionRef ref = cache.parse( "org.foo:bar-99:1.0" );
+        assertThat( cache.parse( "org.foo:bar-99:1.0" ), sameInstance( ref ) );
+    }
+
+    @Test
+    public void parserResolvesConcreteRefType()
+    {
+        final ArtifactRef ref = SerializerIdentityUtils.parserFor( ArtifactRef.class ).parse( "org.foo:bar:zip:1.0" );
+
+        assertThat( ref.getType(), equalTo( "zip" ) );
+    }
+
 }
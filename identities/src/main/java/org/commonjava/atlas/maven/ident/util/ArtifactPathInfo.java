@@ -32,6 +32,8 @@ public class ArtifactPathInfo implements PathInfo
         "\\/?(([^\\/]+\\/)*[^\\/]+)\\/([^\\/]+)\\/(([^\\/]+)(-SNAPSHOT)?)\\/(\\3-((\\4)|(\\5-"
             + SnapshotUtils.RAW_REMOTE_SNAPSHOT_PART_PATTERN + "))(-([^.]+))?(\\.(.+)))";
 
+    private static final Pattern ARTIFACT_PATH_PATTERN = Pattern.compile( ARTIFACT_PATH_REGEX );
+
     private static final int GROUP_ID_GROUP = 1;
 
     private static final int ARTIFACT_ID_GROUP = 3;
@@ -57,8 +59,7 @@ public class ArtifactPathInfo implements PathInfo
             return null;
         }
 
-        final Matcher matcher = Pattern.compile( ARTIFACT_PATH_REGEX )
-                                       .matcher( path.replace( '\\', '/' ) );
+        final Matcher matcher = ARTIFACT_PATH_PATTERN.matcher( path.replace( '\\', '/' ) );
         if ( !matcher.matches() )
         {
             return null;
@@ -105,6 +106,14 @@ public class ArtifactPathInfo implements PathInfo
 
     private final boolean isSnapshot;
 
+    private final SidecarType sidecar;
+
+    private volatile ProjectVersionRef projectId;
+
+    private volatile ArtifactRef artifact;
+
+    private volatile ArtifactPathInfo primary;
+
     public ArtifactPathInfo( final String groupId, final String artifactId, final String version, final String file,
                              final String fullPath )
     {
@@ -122,6 +131,25 @@ public class ArtifactPathInfo implements PathInfo
         this.file = file;
         this.fullPath = fullPath;
         isSnapshot = SnapshotUtils.isSnapshotVersion( version );
+        sidecar = type == null ? null : SidecarType.fromPath( type );
+    }
+
+    /**
+     * Primary-artifact view of a sidecar, sharing what the sidecar already parsed.
+     */
+    private ArtifactPathInfo( final ArtifactPathInfo sidecarInfo )
+    {
+        final SidecarType s = sidecarInfo.sidecar;
+        this.groupId = sidecarInfo.groupId;
+        this.artifactId = sidecarInfo.artifactId;
+        this.version = sidecarInfo.version;
+        this.classifier = sidecarInfo.classifier;
+        this.type = s.stripFrom( sidecarInfo.type );
+        this.file = sidecarInfo.file == null ? null : s.stripFrom( sidecarInfo.file );
+        this.fullPath = sidecarInfo.fullPath == null ? null : s.stripFrom( sidecarInfo.fullPath );
+        this.isSnapshot = sidecarInfo.isSnapshot;
+        this.sidecar = null;
+        this.projectId = sidecarInfo.projectId;
     }
 
     public boolean isSnapshot()
@@ -157,11 +185,56 @@ public class ArtifactPathInfo implements PathInfo
         return classifier;
     }
 
+    /**
+     * @return the file's type, including any sidecar extension (e.g. "jar.sha1")
+     */
     public String getType()
     {
         return type;
     }
 
+    /**
+     * @return the type of the artifact this file belongs to: {@link #getType()} without any sidecar extension
+     */
+    public String getPrimaryType()
+    {
+        return sidecar == null ? type : sidecar.stripFrom( type );
+    }
+
+    /**
+     * @return the checksum or signature type, or null if this is an artifact rather than a sidecar of one
+     */
+    public SidecarType getSidecar()
+    {
+        return sidecar;
+    }
+
+    public boolean isSidecar()
+    {
+        return sidecar != null;
+    }
+
+    /**
+     * @return the artifact this sidecar belongs to (e.g. foo-1.0.jar for foo-1.0.jar.sha1), or this if it is not a
+     * sidecar. Derived from the fields already parsed; the path is not parsed again.
+     */
+    public ArtifactPathInfo getPrimary()
+    {
+        if ( sidecar == null )
+        {
+            return this;
+        }
+
+        ArtifactPathInfo p = primary;
+        if ( p == null )
+        {
+            p = new ArtifactPathInfo( this );
+            primary = p;
+        }
+
+        return p;
+    }
+
     @Override
     public String getFile()
     {
@@ -256,14 +329,35 @@ public class ArtifactPathInfo implements PathInfo
         return true;
     }
 
+    /**
+     * @return the project ref, created on first call and reused afterwards
+     */
     public ProjectVersionRef getProjectId()
     {
-        return new SimpleProjectVersionRef( getGroupId(), getArtifactId(), getVersion() );
+        ProjectVersionRef ref = projectId;
+        if ( ref == null )
+        {
+            ref = new SimpleProjectVersionRef( getGroupId(), getArtifactId(), getVersion() );
+            projectId = ref;
+        }
+
+        return ref;
     }
 
+    /**
+     * @return the artifact ref (with {@link #getType()}, so a sidecar's type includes its extension), created on first
+     * call and reused afterwards
+     */
     public ArtifactRef getArtifact()
     {
-        return new SimpleArtifactRef( getGroupId(), getArtifactId(), getVersion(), getType(), getClassifier() );
+        ArtifactRef ref = artifact;
+        if ( ref == null )
+        {
+            ref = new SimpleArtifactRef( getProjectId(), getType(), getClassifier() );
+            artifact = ref;
+        }
+
+        return ref;
     }
 
 }
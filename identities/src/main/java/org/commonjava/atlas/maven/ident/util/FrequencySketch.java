@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+/**
+ * Approximate access counts for keys, in a fixed amount of memory (a count-min sketch of small counters). Counters are
+ * halved once enough accesses have been recorded, so the estimate follows recent popularity. Not thread-safe.
+ */
+final class FrequencySketch
+{
+    private static final int DEPTH = 4;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int[] SEEDS = { 0x97cb3127, 0xb6a1c2e5, 0x8ebc6af1, 0xc2b2ae35 };
+
+    private final byte[] counters;
+
+    private final int mask;
+
+    private final int sampleSize;
+
+    private int additions;
+
+    /**
+     * @param capacity number of entries whose frequencies should be told apart, typically the cache size
+     */
+    FrequencySketch( final int capacity )
+    {
+        // wide enough that one-off keys rarely share all their counters with a popular one
+        int width = 64;
+        while ( width < capacity * 4 && width < 1 << 24 )
+        {
+            width <<= 1;
+        }
+
+        counters = new byte[width];
+        mask = width - 1;
+        sampleSize = Math.max( 10 * capacity, width );
+    }
+
+    void increment( final int hash )
+    {
+        boolean added = false;
+        for ( int i = 0; i < DEPTH; i++ )
+        {
+            final int index = index( hash, i );
+            if ( counters[index] < MAX_COUNT )
+            {
+                counters[index]++;
+                added = true;
+            }
+        }
+
+        if ( added && ++additions >= sampleSize )
+        {
+            reset();
+        }
+    }
+
+    int frequency( final int hash )
+    {
+        int min = MAX_COUNT;
+        for ( int i = 0; i < DEPTH; i++ )
+        {
+            min = Math.min( min, counters[index( hash, i )] );
+        }
+
+        return min;
+    }
+
+    private int index( final int hash, final int i )
+    {
+        int h = ( hash ^ SEEDS[i] ) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private void reset()
+    {
+        for ( int i = 0; i < counters.length; i++ )
+        {
+            counters[i] = (byte) ( counters[i] >>> 1 );
+        }
+
+        additions /= 2;
+    }
+}
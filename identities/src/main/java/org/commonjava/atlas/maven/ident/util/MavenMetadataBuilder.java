@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+import org.commonjava.atlas.maven.ident.version.VersionSpecComparisons;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the artifact-level maven-metadata.xml (groupId/artifactId/maven-metadata.xml) from version directory names.
+ *
+ * Each version is parsed once, when added, and inserted into place with a binary search, so adding a version to an
+ * existing list does not re-parse or re-sort the others. Latest and release are read off the sorted list, and
+ * {@link #writeTo(Writer)} streams the document without building a DOM.
+ *
+ * Not thread-safe.
+ */
+public final class MavenMetadataBuilder
+{
+    private final Comparator<VersionSpec> comparator = VersionSpecComparisons.comparator();
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final List<SingleVersion> versions = new ArrayList<SingleVersion>();
+
+    private final List<String> rawVersions = new ArrayList<String>();
+
+    private final Set<String> seen = new HashSet<String>();
+
+    private Date lastUpdated;
+
+    public MavenMetadataBuilder( final String groupId, final String artifactId )
+    {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+    }
+
+    /**
+     * Merge one version directory name into the sorted list. Versions that compare equal to one already present
+     * (1.0 and 1.0.0, say) are kept after it, in the order they were added.
+     *
+     * @return false if this exact version was already present
+     */
+    public boolean addVersion( final String version )
+            throws InvalidVersionSpecificationException
+    {
+        if ( seen.contains( version ) )
+        {
+            return false;
+        }
+
+        final SingleVersion parsed = VersionUtils.createSingleVersion( version );
+
+        int idx = Collections.binarySearch( versions, parsed, comparator );
+        if ( idx < 0 )
+        {
+            idx = -idx - 1;
+        }
+        else
+        {
+            while ( idx < versions.size() && comparator.compare( versions.get( idx ), parsed ) == 0 )
+            {
+                idx++;
+            }
+        }
+
+        versions.add( idx, parsed );
+        rawVersions.add( idx, version );
+        seen.add( version );
+
+        return true;
+    }
+
+    /**
+     * @return the number of versions that were not already present
+     */
+    public int addVersions( final Collection<String> versions )
+            throws InvalidVersionSpecificationException
+    {
+        int added = 0;
+        for ( final String version : versions )
+        {
+            if ( addVersion( version ) )
+            {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    public MavenMetadataBuilder setLastUpdated( final Date lastUpdated )
+    {
+        this.lastUpdated = lastUpdated;
+        return this;
+    }
+
+    public String getGroupId()
+    {
+        return groupId;
+    }
+
+    public String getArtifactId()
+    {
+        return artifactId;
+    }
+
+    /**
+     * @return the versions as they were added, lowest first
+     */
+    public List<String> getVersions()
+    {
+        return Collections.unmodifiableList( rawVersions );
+    }
+
+    /**
+     * @return the highest version, snapshots included, or null if there are none
+     */
+    public String getLatest()
+    {
+        return rawVersions.isEmpty() ? null : rawVersions.get( rawVersions.size() - 1 );
+    }
+
+    /**
+     * @return the highest version that is not a snapshot, or null if there are none
+     */
+    public String getRelease()
+    {
+        for ( int i = rawVersions.size() - 1; i >= 0; i-- )
+        {
+            final String version = rawVersions.get( i );
+            if ( !SnapshotUtils.isSnapshotVersion( version ) )
+            {
+                return version;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Write the metadata document, leaving the writer open. lastUpdated defaults to the current time.
+     */
+    public void writeTo( final Writer writer )
+            throws IOException
+    {
+        final Date updated = lastUpdated == null ? SnapshotUtils.getCurrentTimestamp() : lastUpdated;
+
+        final MetadataXmlWriter xml = new MetadataXmlWriter( writer );
+        xml.start( "metadata" )
+           .element( "groupId", groupId )
+           .element( "artifactId", artifactId )
+           .start( "versioning" )
+           .element( "latest", getLatest() )
+           .element( "release", getRelease() );
+
+        if ( !rawVersions.isEmpty() )
+        {
+            xml.start( "versions" );
+            for ( final String version : rawVersions )
+            {
+                xml.element( "version", version );
+            }
+            xml.end();
+        }
+
+        xml.element( "lastUpdated", SnapshotUtils.generateUpdateTimestamp( updated ) )
+           .end()
+           .end()
+           .finish();
+    }
+}
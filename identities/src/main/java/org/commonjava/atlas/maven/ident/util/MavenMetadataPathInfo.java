@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+/**
+ * A maven-metadata.xml path (or one of its checksums or signature), parsed without regular expressions. Local
+ * repository variants such as maven-metadata-central.xml are accepted.
+ * <p>
+ * Metadata in a snapshot version directory (e.g. org/foo/bar/1.0-SNAPSHOT/maven-metadata.xml) lists the snapshot's
+ * builds, and has a version. Otherwise the directory is taken to be org/foo/bar, holding the artifact's versions; the
+ * group-level metadata of plugin groups cannot be told apart from the path alone, and reads as artifact-level.
+ */
+public class MavenMetadataPathInfo
+        implements PathInfo
+{
+    public static final String FILENAME = "maven-metadata.xml";
+
+    private static final String PREFIX = "maven-metadata";
+
+    private static final String EXT_XML = ".xml";
+
+    public static MavenMetadataPathInfo parse( final String path )
+    {
+        if ( path == null || path.length() < 1 )
+        {
+            return null;
+        }
+
+        final String p = path.replace( '\\', '/' );
+        final SidecarType sidecar = SidecarType.fromPath( p );
+        final String primary = sidecar == null ? p : sidecar.stripFrom( p );
+
+        final int fileStart = primary.lastIndexOf( '/' ) + 1;
+        if ( !primary.startsWith( PREFIX, fileStart ) || !primary.endsWith( EXT_XML )
+                || primary.length() - fileStart < PREFIX.length() + EXT_XML.length() )
+        {
+            return null;
+        }
+
+        final int dirStart = p.startsWith( "/" ) ? 1 : 0;
+        if ( fileStart - 1 <= dirStart )
+        {
+            return null;
+        }
+
+        final String dir = p.substring( dirStart, fileStart - 1 );
+        final int lastSlash = dir.lastIndexOf( '/' );
+        final String last = dir.substring( lastSlash + 1 );
+
+        String groupId = null;
+        String artifactId = last;
+        String version = null;
+        if ( last.endsWith( SnapshotUtils.LOCAL_SNAPSHOT_VERSION_PART ) )
+        {
+            final int artifactSlash = lastSlash < 0 ? -1 : dir.lastIndexOf( '/', lastSlash - 1 );
+            if ( artifactSlash < 0 )
+            {
+                return null;
+            }
+
+            version = last;
+            artifactId = dir.substring( artifactSlash + 1, lastSlash );
+            groupId = dir.substring( 0, artifactSlash ).replace( '/', '.' );
+        }
+        else if ( lastSlash > 0 )
+        {
+            groupId = dir.substring( 0, lastSlash ).replace( '/', '.' );
+        }
+
+        return new MavenMetadataPathInfo( groupId, artifactId, version, sidecar, p.substring( fileStart ), path );
+    }
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final String version;
+
+    private final SidecarType sidecar;
+
+    private final String file;
+
+    private final String fullPath;
+
+    public MavenMetadataPathInfo( final String groupId, final String artifactId, final String version,
+                                  final SidecarType sidecar, final String file, final String fullPath )
+    {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.sidecar = sidecar;
+        this.file = file;
+        this.fullPath = fullPath;
+    }
+
+    /**
+     * @return the group, or null for metadata directly under a single top-level directory
+     */
+    public String getGroupId()
+    {
+        return groupId;
+    }
+
+    public String getArtifactId()
+    {
+        return artifactId;
+    }
+
+    /**
+     * @return the snapshot version, or null for artifact-level metadata
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+
+    public boolean isSnapshotMetadata()
+    {
+        return version != null;
+    }
+
+    /**
+     * @return the checksum or signature type, or null if this is the metadata file itself
+     */
+    public SidecarType getSidecar()
+    {
+        return sidecar;
+    }
+
+    @Override
+    public String getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public String getFullPath()
+    {
+        return fullPath;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "MavenMetadataPathInfo [groupId=%s, artifactId=%s, version=%s, file=%s]", groupId,
+                              artifactId, version, file );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + ( ( artifactId == null ) ? 0 : artifactId.hashCode() );
+        result = prime * result + ( ( file == null ) ? 0 : file.hashCode() );
+        result = prime * result + ( ( groupId == null ) ? 0 : groupId.hashCode() );
+        result = prime * result + ( ( version == null ) ? 0 : version.hashCode() );
+        return result;
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( obj == null || getClass() != obj.getClass() )
+        {
+            return false;
+        }
+
+        final MavenMetadataPathInfo other = (MavenMetadataPathInfo) obj;
+        return eq( groupId, other.groupId ) && eq( artifactId, other.artifactId ) && eq( version, other.version )
+                && eq( file, other.file );
+    }
+
+    private static boolean eq( final String a, final String b )
+    {
+        return a == null ? b == null : a.equals( b );
+    }
+}
@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Indenting wrapper around {@link XMLStreamWriter} shared by the metadata builders, so maven-metadata.xml is written
+ * straight to the output rather than through a DOM.
+ */
+final class MetadataXmlWriter
+{
+    private static final String INDENT = "  ";
+
+    private final Writer writer;
+
+    private final XMLStreamWriter xml;
+
+    private int depth;
+
+    MetadataXmlWriter( final Writer writer )
+            throws IOException
+    {
+        this.writer = writer;
+        try
+        {
+            this.xml = XMLOutputFactory.newInstance()
+                                       .createXMLStreamWriter( writer );
+            xml.writeStartDocument( "UTF-8", "1.0" );
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to start metadata document: " + e.getMessage(), e );
+        }
+    }
+
+    MetadataXmlWriter start( final String name )
+            throws IOException
+    {
+        try
+        {
+            indent();
+            xml.writeStartElement( name );
+            depth++;
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to write <" + name + ">: " + e.getMessage(), e );
+        }
+
+        return this;
+    }
+
+    MetadataXmlWriter attribute( final String name, final String value )
+            throws IOException
+    {
+        try
+        {
+            xml.writeAttribute( name, value );
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to write attribute " + name + ": " + e.getMessage(), e );
+        }
+
+        return this;
+    }
+
+    /**
+     * Write a text-only element, skipping it if the value is null.
+     */
+    MetadataXmlWriter element( final String name, final String value )
+            throws IOException
+    {
+        if ( value == null )
+        {
+            return this;
+        }
+
+        try
+        {
+            indent();
+            xml.writeStartElement( name );
+            xml.writeCharacters( value );
+            xml.writeEndElement();
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to write <" + name + ">: " + e.getMessage(), e );
+        }
+
+        return this;
+    }
+
+    MetadataXmlWriter end()
+            throws IOException
+    {
+        try
+        {
+            depth--;
+            indent();
+            xml.writeEndElement();
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to close element: " + e.getMessage(), e );
+        }
+
+        return this;
+    }
+
+    /**
+     * Close any open elements and flush, leaving the underlying writer open.
+     */
+    void finish()
+            throws IOException
+    {
+        try
+        {
+            xml.writeEndDocument();
+            xml.flush();
+            xml.close();
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to finish metadata document: " + e.getMessage(), e );
+        }
+
+        writer.write( '\n' );
+        writer.flush();
+    }
+
+    private void indent()
+            throws XMLStreamException
+    {
+        xml.writeCharacters( "\n" );
+        for ( int i = 0; i < depth; i++ )
+        {
+            xml.writeCharacters( INDENT );
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+/**
+ * Remembers the parse results of up to maxSize request paths, so hot paths (popular POMs and their checksums) are
+ * parsed once and share one path info, along with the refs it memoizes. Paths that do not parse are remembered too.
+ * <p>
+ * Results are kept in a {@link StripedLruCache} with frequency admission: when a segment is full, a new path only
+ * replaces the least-recently-used one if it has been requested more often recently, so a burst of one-off paths
+ * cannot flush the popular ones. Hit and miss counts are kept for sizing.
+ */
+public final class PathInfoCache<T extends PathInfo>
+{
+    /**
+     * Parses one kind of path; must return null for paths it does not recognize.
+     */
+    public interface Parser<T extends PathInfo>
+    {
+        T parse( String path );
+    }
+
+    private static final Object NOT_PARSED = new Object();
+
+    private final Parser<T> parser;
+
+    private final StripedLruCache<Object> cache;
+
+    public PathInfoCache( final Parser<T> parser, final int maxSize )
+    {
+        this.parser = parser;
+        this.cache = new StripedLruCache<Object>( maxSize, true );
+    }
+
+    public static PathInfoCache<ArtifactPathInfo> forArtifacts( final int maxSize )
+    {
+        return new PathInfoCache<ArtifactPathInfo>( new Parser<ArtifactPathInfo>()
+        {
+            @Override
+            public ArtifactPathInfo parse( final String path )
+            {
+                return ArtifactPathInfo.parse( path );
+            }
+        }, maxSize );
+    }
+
+    /**
+     * @return the parsed path, or null if the parser does not recognize it
+     */
+    @SuppressWarnings( "unchecked" )
+    public T parse( final String path )
+    {
+        if ( path == null )
+        {
+            return null;
+        }
+
+        Object cached = cache.get( path );
+        if ( cached == null )
+        {
+            final T parsed = parser.parse( path );
+            cached = cache.putIfAbsent( path, parsed == null ? NOT_PARSED : parsed );
+        }
+
+        return cached == NOT_PARSED ? null : (T) cached;
+    }
+
+    public int getMaxSize()
+    {
+        return cache.getMaxSize();
+    }
+
+    public int size()
+    {
+        return cache.size();
+    }
+
+    public long getHitCount()
+    {
+        return cache.getHitCount();
+    }
+
+    public long getMissCount()
+    {
+        return cache.getMissCount();
+    }
+
+    /**
+     * @return how many parsed paths were not cached, because they were requested less often than the entry they would
+     * have replaced
+     */
+    public long getRejectionCount()
+    {
+        return cache.getRejectionCount();
+    }
+
+    /**
+     * @return hits / lookups, or 0 if there have been no lookups yet
+     */
+    public double getHitRatio()
+    {
+        return cache.getHitRatio();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PathInfoCache [maxSize=" + cache.getMaxSize() + ", hits=" + cache.getHitCount() + ", misses="
+                + cache.getMissCount() + ", rejections=" + cache.getRejectionCount() + "]";
+    }
+}
@@ -0,0 +1,378 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Walks a local Maven repository directory and yields an {@link ArtifactPathInfo} for each artifact file (checksums and
+ * signatures included) in it, in no particular order.
+ * <p>
+ * Directories are listed in parallel. Since a file's groupId, artifactId and version are given by the directories it
+ * sits in, only its name is checked (without regular expressions) to find the classifier and type; the results are
+ * the same as {@link ArtifactPathInfo#parse(String)} would give for the file's path relative to the root, which is
+ * what {@link ArtifactPathInfo#getFullPath()} holds.
+ * <p>
+ * Results pass through a buffer of bufferSize entries: scanning threads wait while the consumer catches up. Directories
+ * waiting to be listed are queued up to a fixed number per thread; past that, the thread that found a directory lists
+ * it itself, depth-first. Memory use therefore depends on the depth of the repository and the size of its largest
+ * directory, not on its overall size. The scan starts on the first call to {@link #hasNext()}; close
+ * the scanner to stop it early.
+ */
+public final class RepositoryScanner
+        implements Iterator<ArtifactPathInfo>, Iterable<ArtifactPathInfo>, Closeable
+{
+    private static final Object END = new Object();
+
+    private static final int QUEUED_DIRECTORIES_PER_THREAD = 16;
+
+    private final File root;
+
+    private final int threads;
+
+    private final BlockingQueue<Object> results;
+
+    private final AtomicInteger pendingDirectories = new AtomicInteger();
+
+    private final AtomicLong directoryCount = new AtomicLong();
+
+    private final AtomicLong fileCount = new AtomicLong();
+
+    private final AtomicReference<IOException> failure = new AtomicReference<IOException>();
+
+    private ThreadPoolExecutor executor;
+
+    private ArtifactPathInfo next;
+
+    private boolean done;
+
+    public RepositoryScanner( final File root )
+    {
+        this( root, Runtime.getRuntime().availableProcessors(), 1024 );
+    }
+
+    /**
+     * @param threads number of directories listed at the same time
+     * @param bufferSize number of results held until the consumer takes them
+     */
+    public RepositoryScanner( final File root, final int threads, final int bufferSize )
+    {
+        if ( threads < 1 || bufferSize < 1 )
+        {
+            throw new IllegalArgumentException( "Thread count and buffer size must be positive" );
+        }
+
+        this.root = root;
+        this.threads = threads;
+        this.results = new ArrayBlockingQueue<Object>( bufferSize );
+    }
+
+    /**
+     * Derive the path info of a file from the directories it is in, the way {@link ArtifactPathInfo#parse(String)}
+     * would for groupPath/artifactId/versionDir/fileName.
+     *
+     * @param groupPath the group's directory path, '/'-separated
+     * @return the path info, or null if fileName is not a file of that artifact and version
+     */
+    public static ArtifactPathInfo parseFile( final String groupPath, final String artifactId, final String versionDir,
+                                              final String fileName )
+    {
+        if ( groupPath.length() == 0 || !fileName.startsWith( artifactId ) || fileName.length() <= artifactId.length()
+                || fileName.charAt( artifactId.length() ) != '-' )
+        {
+            return null;
+        }
+
+        final String fullPath = groupPath + '/' + artifactId + '/' + versionDir + '/' + fileName;
+        final String groupId = groupPath.replace( '/', '.' );
+        final int versionStart = artifactId.length() + 1;
+
+        // the file is named after the version directory...
+        if ( fileName.startsWith( versionDir, versionStart ) )
+        {
+            final ArtifactPathInfo info =
+                    fromRemainder( groupId, artifactId, versionDir, fileName, versionStart + versionDir.length(),
+                                   fullPath );
+            if ( info != null )
+            {
+                return info;
+            }
+        }
+
+        // ...or after a timestamped build of a snapshot: base-yyyyMMdd.HHmmss-N
+        final String base = versionDir.endsWith( SnapshotUtils.LOCAL_SNAPSHOT_VERSION_PART ) ? versionDir.substring(
+                0, versionDir.length() - SnapshotUtils.LOCAL_SNAPSHOT_VERSION_PART.length() ) : versionDir;
+
+        final int tstampStart = versionStart + base.length() + 1;
+        final int buildStart = tstampStart + 16;
+        if ( buildStart >= fileName.length() || !fileName.startsWith( base, versionStart )
+                || fileName.charAt( tstampStart - 1 ) != '-' )
+        {
+            return null;
+        }
+
+        int versionEnd = buildStart;
+        while ( versionEnd < fileName.length() && Character.isDigit( fileName.charAt( versionEnd ) ) )
+        {
+            versionEnd++;
+        }
+
+        final String version = fileName.substring( versionStart, versionEnd );
+        if ( versionEnd == buildStart || !SnapshotUtils.isRemoteSnapshotVersion( version ) )
+        {
+            return null;
+        }
+
+        return fromRemainder( groupId, artifactId, version, fileName, versionEnd, fullPath );
+    }
+
+    /**
+     * Classifier and type from what follows the version: ("-" classifier)? "." type, where the classifier runs up to
+     * the first '.'.
+     */
+    private static ArtifactPathInfo fromRemainder( final String groupId, final String artifactId,
+                                                   final String version, final String fileName, final int from,
+                                                   final String fullPath )
+    {
+        String classifier = null;
+        int typeStart = from;
+        if ( from < fileName.length() && fileName.charAt( from ) == '-' )
+        {
+            final int dot = fileName.indexOf( '.', from + 1 );
+            if ( dot < 0 || dot == from + 1 )
+            {
+                return null;
+            }
+
+            classifier = fileName.substring( from + 1, dot );
+            typeStart = dot;
+        }
+
+        if ( typeStart + 1 >= fileName.length() || fileName.charAt( typeStart ) != '.' )
+        {
+            return null;
+        }
+
+        return new ArtifactPathInfo( groupId, artifactId, version, classifier, fileName.substring( typeStart + 1 ),
+                                     fileName, fullPath );
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( next == null && !done )
+        {
+            start();
+
+            final Object result;
+            try
+            {
+                result = results.take();
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while scanning " + root, e );
+            }
+
+            if ( result == END )
+            {
+                done = true;
+                shutdown();
+
+                final IOException e = failure.get();
+                if ( e != null )
+                {
+                    throw new IllegalStateException( "Failed to scan " + root + ": " + e.getMessage(), e );
+                }
+            }
+            else
+            {
+                next = (ArtifactPathInfo) result;
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public ArtifactPathInfo next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        final ArtifactPathInfo result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException( "Read-only." );
+    }
+
+    @Override
+    public Iterator<ArtifactPathInfo> iterator()
+    {
+        return this;
+    }
+
+    /**
+     * @return directories listed so far
+     */
+    public long getDirectoryCount()
+    {
+        return directoryCount.get();
+    }
+
+    /**
+     * @return files seen so far, whether or not they are artifacts
+     */
+    public long getFileCount()
+    {
+        return fileCount.get();
+    }
+
+    /**
+     * Stop scanning; further calls to {@link #hasNext()} return false.
+     */
+    @Override
+    public void close()
+    {
+        done = true;
+        next = null;
+        shutdown();
+    }
+
+    private synchronized void start()
+    {
+        if ( executor != null )
+        {
+            return;
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        // with the queue full, the scanning thread lists the directory itself. The root is submitted from the
+        // consumer's thread, but to an empty queue, so the consumer never ends up scanning.
+        executor = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS,
+                                           new ArrayBlockingQueue<Runnable>( threads * QUEUED_DIRECTORIES_PER_THREAD ),
+                                           new ThreadFactory()
+                                           {
+                                               @Override
+                                               public Thread newThread( final Runnable r )
+                                               {
+                                                   final Thread t = new Thread( r, "repository-scanner-"
+                                                           + threadCount.incrementAndGet() );
+                                                   t.setDaemon( true );
+                                                   return t;
+                                               }
+                                           }, new ThreadPoolExecutor.CallerRunsPolicy() );
+
+        submit( root, "" );
+    }
+
+    private synchronized void shutdown()
+    {
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit( final File dir, final String relativePath )
+    {
+        pendingDirectories.incrementAndGet();
+
+        // once closed, the executor discards new directories
+        executor.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    scan( dir, relativePath );
+                }
+                catch ( final InterruptedException e )
+                {
+                    // closed
+                }
+            }
+        } );
+    }
+
+    private void scan( final File dir, final String relativePath )
+            throws InterruptedException
+    {
+        final File[] children = dir.listFiles();
+        directoryCount.incrementAndGet();
+
+        if ( children == null )
+        {
+            failure.compareAndSet( null, new IOException( "Cannot list directory: " + dir ) );
+            results.put( END );
+            return;
+        }
+
+        // the version directory is the last path segment, the artifact directory the one before, the group the rest.
+        final int versionSlash = relativePath.lastIndexOf( '/' );
+        final int artifactSlash = versionSlash < 0 ? -1 : relativePath.lastIndexOf( '/', versionSlash - 1 );
+
+        for ( final File child : children )
+        {
+            final String name = child.getName();
+            if ( child.isDirectory() )
+            {
+                submit( child, relativePath.length() == 0 ? name : relativePath + '/' + name );
+            }
+            else
+            {
+                fileCount.incrementAndGet();
+                if ( artifactSlash > 0 )
+                {
+                    final ArtifactPathInfo info =
+                            parseFile( relativePath.substring( 0, artifactSlash ),
+                                       relativePath.substring( artifactSlash + 1, versionSlash ),
+                                       relativePath.substring( versionSlash + 1 ), name );
+                    if ( info != null )
+                    {
+                        results.put( info );
+                    }
+                }
+            }
+        }
+
+        if ( pendingDirectories.decrementAndGet() == 0 )
+        {
+            results.put( END );
+        }
+    }
+}
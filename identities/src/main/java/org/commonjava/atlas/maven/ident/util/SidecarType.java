@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+/**
+ * Files stored next to an artifact or metadata file, named after it plus an extension: checksums and PGP signatures.
+ */
+public enum SidecarType
+{
+    MD5( "md5" ),
+    SHA1( "sha1" ),
+    SHA256( "sha256" ),
+    SHA512( "sha512" ),
+    ASC( "asc" );
+
+    private final String extension;
+
+    private final String suffix;
+
+    SidecarType( final String extension )
+    {
+        this.extension = extension;
+        this.suffix = "." + extension;
+    }
+
+    public String getExtension()
+    {
+        return extension;
+    }
+
+    public boolean isChecksum()
+    {
+        return this != ASC;
+    }
+
+    public boolean isSignature()
+    {
+        return this == ASC;
+    }
+
+    /**
+     * @return the path (or file name) of the file this sidecar belongs to
+     */
+    public String stripFrom( final String path )
+    {
+        return path.substring( 0, path.length() - suffix.length() );
+    }
+
+    /**
+     * @return the sidecar type named by the path's extension, or null if it is not a sidecar
+     */
+    public static SidecarType fromPath( final String path )
+    {
+        for ( final SidecarType type : values() )
+        {
+            if ( path.endsWith( type.suffix ) && path.length() > type.suffix.length() )
+            {
+                return type;
+            }
+        }
+
+        return null;
+    }
+}
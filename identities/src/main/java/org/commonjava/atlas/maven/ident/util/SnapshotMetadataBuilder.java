@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the version-level maven-metadata.xml of a snapshot (groupId/artifactId/1.0-SNAPSHOT/maven-metadata.xml) from
+ * the names of its timestamped files.
+ *
+ * File names are split by {@link RepositoryScanner#parseFile(String, String, String, String)}, and builds are compared
+ * on the raw yyyyMMdd.HHmmss and build-number text, so neither a regex nor a date format is involved. Only the newest
+ * build of each classifier and extension is kept.
+ *
+ * Not thread-safe.
+ */
+public final class SnapshotMetadataBuilder
+{
+    private static final int TSTAMP_LENGTH = SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT.length();
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final String version;
+
+    private final String groupPath;
+
+    private final Map<String, SnapshotVersion> snapshotVersions = new TreeMap<String, SnapshotVersion>();
+
+    private SnapshotVersion latest;
+
+    private Date lastUpdated;
+
+    /**
+     * @param version the base version, as named by its directory: 1.0-SNAPSHOT
+     */
+    public SnapshotMetadataBuilder( final String groupId, final String artifactId, final String version )
+    {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.groupPath = groupId.replace( '.', '/' );
+    }
+
+    /**
+     * Merge one file name from the version directory.
+     *
+     * @return false if the file is not a timestamped build of this artifact (checksums and signatures included), or
+     * is not newer than the build already recorded for its classifier and extension
+     */
+    public boolean addFile( final String fileName )
+    {
+        final ArtifactPathInfo info = RepositoryScanner.parseFile( groupPath, artifactId, version, fileName );
+        if ( info == null || info.isSidecar() || !SnapshotUtils.isRemoteSnapshotVersion( info.getVersion() ) )
+        {
+            return false;
+        }
+
+        final SnapshotVersion snapshot = new SnapshotVersion( info.getClassifier(), info.getType(), info.getVersion() );
+        final String key = snapshot.classifier == null ? ":" + snapshot.extension
+                : snapshot.classifier + ":" + snapshot.extension;
+
+        final SnapshotVersion existing = snapshotVersions.get( key );
+        if ( existing != null && existing.compareBuild( snapshot ) >= 0 )
+        {
+            return false;
+        }
+
+        snapshotVersions.put( key, snapshot );
+        if ( latest == null || latest.compareBuild( snapshot ) < 0 )
+        {
+            latest = snapshot;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the number of files that changed the metadata
+     */
+    public int addFiles( final Collection<String> fileNames )
+    {
+        int added = 0;
+        for ( final String fileName : fileNames )
+        {
+            if ( addFile( fileName ) )
+            {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    public SnapshotMetadataBuilder setLastUpdated( final Date lastUpdated )
+    {
+        this.lastUpdated = lastUpdated;
+        return this;
+    }
+
+    public String getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * @return the timestamp of the newest build, as yyyyMMdd.HHmmss, or null if there are none
+     */
+    public String getTimestamp()
+    {
+        return latest == null ? null : latest.getTimestamp();
+    }
+
+    /**
+     * @return the build number of the newest build, or 0 if there are none
+     */
+    public int getBuildNumber()
+    {
+        return latest == null ? 0 : latest.getBuildNumber();
+    }
+
+    /**
+     * @return the newest build of each classifier and extension, ordered by classifier then extension
+     */
+    public List<SnapshotVersion> getSnapshotVersions()
+    {
+        return new ArrayList<SnapshotVersion>( snapshotVersions.values() );
+    }
+
+    /**
+     * Write the metadata document, leaving the writer open. lastUpdated defaults to the current time.
+     */
+    public void writeTo( final Writer writer )
+            throws IOException
+    {
+        final Date updated = lastUpdated == null ? SnapshotUtils.getCurrentTimestamp() : lastUpdated;
+
+        final MetadataXmlWriter xml = new MetadataXmlWriter( writer );
+        xml.start( "metadata" )
+           .attribute( "modelVersion", "1.1.0" )
+           .element( "groupId", groupId )
+           .element( "artifactId", artifactId )
+           .element( "version", version )
+           .start( "versioning" );
+
+        if ( latest != null )
+        {
+            xml.start( "snapshot" )
+               .element( "timestamp", getTimestamp() )
+               .element( "buildNumber", Integer.toString( getBuildNumber() ) )
+               .end();
+        }
+
+        xml.element( "lastUpdated", SnapshotUtils.generateUpdateTimestamp( updated ) );
+
+        if ( !snapshotVersions.isEmpty() )
+        {
+            xml.start( "snapshotVersions" );
+            for ( final SnapshotVersion snapshot : snapshotVersions.values() )
+            {
+                xml.start( "snapshotVersion" )
+                   .element( "classifier", snapshot.getClassifier() )
+                   .element( "extension", snapshot.getExtension() )
+                   .element( "value", snapshot.getValue() )
+                   .element( "updated", snapshot.getUpdated() )
+                   .end();
+            }
+            xml.end();
+        }
+
+        xml.end()
+           .end()
+           .finish();
+    }
+
+    /**
+     * One snapshotVersion entry: the newest timestamped version of a classifier and extension.
+     */
+    public static final class SnapshotVersion
+    {
+        private final String classifier;
+
+        private final String extension;
+
+        private final String value;
+
+        private final int tstampStart;
+
+        private final int buildNumber;
+
+        SnapshotVersion( final String classifier, final String extension, final String value )
+        {
+            this.classifier = classifier;
+            this.extension = extension;
+            this.value = value;
+
+            final int dash = value.lastIndexOf( '-' );
+            this.tstampStart = dash - TSTAMP_LENGTH;
+            this.buildNumber = Integer.parseInt( value.substring( dash + 1 ) );
+        }
+
+        public String getClassifier()
+        {
+            return classifier;
+        }
+
+        public String getExtension()
+        {
+            return extension;
+        }
+
+        /**
+         * @return the timestamped version: 1.0-20240102.030405-6
+         */
+        public String getValue()
+        {
+            return value;
+        }
+
+        public String getTimestamp()
+        {
+            return value.substring( tstampStart, tstampStart + TSTAMP_LENGTH );
+        }
+
+        public int getBuildNumber()
+        {
+            return buildNumber;
+        }
+
+        /**
+         * @return the timestamp in lastUpdated form, without the '.': 20240102030405
+         */
+        public String getUpdated()
+        {
+            final int dot = tstampStart + 8;
+            return value.substring( tstampStart, dot ) + value.substring( dot + 1, tstampStart + TSTAMP_LENGTH );
+        }
+
+        // fixed-width digits, so the text orders the same way the dates do
+        int compareBuild( final SnapshotVersion other )
+        {
+            final int result = getTimestamp().compareTo( other.getTimestamp() );
+            if ( result != 0 )
+            {
+                return result;
+            }
+
+            return buildNumber < other.buildNumber ? -1 : buildNumber == other.buildNumber ? 0 : 1;
+        }
+
+        @Override
+        public String toString()
+        {
+            return ( classifier == null ? "" : classifier + ":" ) + extension + " -> " + value;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * The timestamped builds of one snapshot version, kept as (epoch-second, build-number) pairs in parallel sorted
+ * arrays.
+ *
+ * Builds are parsed by hand rather than with {@link SnapshotUtils#parseRemoteSnapshotVersionPart(String)}, and are
+ * only turned back into strings or {@link SnapshotPart}s when asked for. Adding a build is a binary search; the arrays
+ * are shifted only when it is older than the newest one, which a fresh deployment is not. Timestamps are read and
+ * written in the JVM's default time zone, as {@link SnapshotUtils} does, so {@link SnapshotPart}s from both agree.
+ *
+ * Not thread-safe.
+ */
+public final class SnapshotTimeline
+{
+    private static final int TSTAMP_LENGTH = SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT.length();
+
+    private final String baseVersion;
+
+    // the calendar SimpleDateFormat would use, minus the pattern parsing
+    private final Calendar calendar = Calendar.getInstance();
+
+    private long[] timestamps;
+
+    private int[] buildNumbers;
+
+    private int size;
+
+    /**
+     * @param version the snapshot version, with or without its -SNAPSHOT suffix: 1.0-SNAPSHOT or 1.0
+     */
+    public SnapshotTimeline( final String version )
+    {
+        this.baseVersion = version.endsWith( SnapshotUtils.LOCAL_SNAPSHOT_VERSION_PART ) ? version.substring(
+                0, version.length() - SnapshotUtils.LOCAL_SNAPSHOT_VERSION_PART.length() ) : version;
+        this.timestamps = new long[8];
+        this.buildNumbers = new int[8];
+    }
+
+    /**
+     * Add a build given as a timestamped version (1.0-20240102.030405-6) or just its snapshot part
+     * (20240102.030405-6).
+     *
+     * @return false if the build was already present
+     * @throws IllegalArgumentException if the literal is not a build of this version
+     */
+    public boolean add( final String literal )
+    {
+        final int dash = literal.lastIndexOf( '-' );
+        final int tstampStart = dash - TSTAMP_LENGTH;
+        if ( dash < 0 || tstampStart < 0 || dash == literal.length() - 1 || !( tstampStart == 0 || (
+                tstampStart == baseVersion.length() + 1 && literal.startsWith( baseVersion )
+                        && literal.charAt( baseVersion.length() ) == '-' ) ) )
+        {
+            throw new IllegalArgumentException( "'" + literal + "' is not a remote snapshot of " + baseVersion
+                                                        + " (of the format: " + SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT
+                                                        + "-NN)" );
+        }
+
+        return add( parseTimestamp( literal, tstampStart ), parseBuildNumber( literal, dash + 1 ) );
+    }
+
+    /**
+     * @return false if the build was already present
+     */
+    public boolean add( final long epochSeconds, final int buildNumber )
+    {
+        int idx;
+        if ( size == 0 || compare( size - 1, epochSeconds, buildNumber ) < 0 )
+        {
+            idx = size;
+        }
+        else
+        {
+            idx = search( epochSeconds, buildNumber );
+            if ( idx >= 0 )
+            {
+                return false;
+            }
+            idx = -idx - 1;
+        }
+
+        if ( size == timestamps.length )
+        {
+            timestamps = Arrays.copyOf( timestamps, size * 2 );
+            buildNumbers = Arrays.copyOf( buildNumbers, size * 2 );
+        }
+
+        if ( idx < size )
+        {
+            System.arraycopy( timestamps, idx, timestamps, idx + 1, size - idx );
+            System.arraycopy( buildNumbers, idx, buildNumbers, idx + 1, size - idx );
+        }
+
+        timestamps[idx] = epochSeconds;
+        buildNumbers[idx] = buildNumber;
+        size++;
+
+        return true;
+    }
+
+    public boolean contains( final long epochSeconds, final int buildNumber )
+    {
+        return search( epochSeconds, buildNumber ) >= 0;
+    }
+
+    public String getBaseVersion()
+    {
+        return baseVersion;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * @return the index of the newest build, or -1 if there are none
+     */
+    public int latest()
+    {
+        return size - 1;
+    }
+
+    /**
+     * @return the index of the newest build made at or before the given time, or -1 if there is none
+     */
+    public int atOrBefore( final long epochSeconds )
+    {
+        int low = 0;
+        int high = size - 1;
+        while ( low <= high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            if ( timestamps[mid] <= epochSeconds )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return high;
+    }
+
+    public int atOrBefore( final Date date )
+    {
+        return atOrBefore( date.getTime() / 1000 );
+    }
+
+    /**
+     * @return the build number the next deployment should use: one more than the newest build's
+     */
+    public int getNextBuildNumber()
+    {
+        return size == 0 ? 1 : buildNumbers[size - 1] + 1;
+    }
+
+    public long getEpochSeconds( final int index )
+    {
+        checkIndex( index );
+        return timestamps[index];
+    }
+
+    public int getBuildNumber( final int index )
+    {
+        checkIndex( index );
+        return buildNumbers[index];
+    }
+
+    /**
+     * @return the build's timestamp as yyyyMMdd.HHmmss
+     */
+    public String getTimestamp( final int index )
+    {
+        checkIndex( index );
+        return formatTimestamp( timestamps[index] );
+    }
+
+    /**
+     * @return the build's snapshot part: 20240102.030405-6
+     */
+    public String getSnapshotLiteral( final int index )
+    {
+        return getTimestamp( index ) + "-" + buildNumbers[index];
+    }
+
+    /**
+     * @return the build's full version: 1.0-20240102.030405-6
+     */
+    public String getVersion( final int index )
+    {
+        return baseVersion + "-" + getSnapshotLiteral( index );
+    }
+
+    public SnapshotPart getSnapshotPart( final int index )
+    {
+        return new SnapshotPart( new Date( getEpochSeconds( index ) * 1000 ), buildNumbers[index],
+                                 getSnapshotLiteral( index ) );
+    }
+
+    /**
+     * @return the newest build's full version, or null if there are none
+     */
+    public String getLatestVersion()
+    {
+        return size == 0 ? null : getVersion( size - 1 );
+    }
+
+    /**
+     * @return the full version of the newest build made at or before the given time, or null if there is none
+     */
+    public String getVersionAtOrBefore( final Date date )
+    {
+        final int index = atOrBefore( date );
+        return index < 0 ? null : getVersion( index );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SnapshotTimeline [" + baseVersion + ", " + size + " builds, latest: " + getLatestVersion() + "]";
+    }
+
+    private void checkIndex( final int index )
+    {
+        if ( index < 0 || index >= size )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", size: " + size );
+        }
+    }
+
+    private int compare( final int index, final long epochSeconds, final int buildNumber )
+    {
+        if ( timestamps[index] != epochSeconds )
+        {
+            return timestamps[index] < epochSeconds ? -1 : 1;
+        }
+
+        return buildNumbers[index] < buildNumber ? -1 : buildNumbers[index] == buildNumber ? 0 : 1;
+    }
+
+    // same contract as Arrays.binarySearch
+    private int search( final long epochSeconds, final int buildNumber )
+    {
+        int low = 0;
+        int high = size - 1;
+        while ( low <= high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            final int cmp = compare( mid, epochSeconds, buildNumber );
+            if ( cmp < 0 )
+            {
+                low = mid + 1;
+            }
+            else if ( cmp > 0 )
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                return mid;
+            }
+        }
+
+        return -( low + 1 );
+    }
+
+    private long parseTimestamp( final String literal, final int from )
+    {
+        if ( literal.charAt( from + 8 ) != '.' )
+        {
+            throw new IllegalArgumentException( "'" + literal + "' has an invalid snapshot timestamp" );
+        }
+
+        final int year = digits( literal, from, 4 );
+        final int month = digits( literal, from + 4, 2 );
+        final int day = digits( literal, from + 6, 2 );
+        final int hour = digits( literal, from + 9, 2 );
+        final int minute = digits( literal, from + 11, 2 );
+        final int second = digits( literal, from + 13, 2 );
+
+        if ( year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0
+                || minute > 59 || second < 0 || second > 59 )
+        {
+            throw new IllegalArgumentException( "'" + literal + "' has an invalid snapshot timestamp" );
+        }
+
+        calendar.clear();
+        calendar.set( year, month - 1, day, hour, minute, second );
+        return calendar.getTimeInMillis() / 1000;
+    }
+
+    private static int parseBuildNumber( final String literal, final int from )
+    {
+        final int build = digits( literal, from, literal.length() - from );
+        if ( build < 0 || literal.length() - from > 9 )
+        {
+            throw new IllegalArgumentException( "'" + literal + "' has an invalid build number" );
+        }
+
+        return build;
+    }
+
+    /**
+     * @return the decimal value of the characters, or -1 if any is not a digit
+     */
+    private static int digits( final String literal, final int from, final int length )
+    {
+        int value = 0;
+        for ( int i = from; i < from + length; i++ )
+        {
+            final char c = literal.charAt( i );
+            if ( c < '0' || c > '9' )
+            {
+                return -1;
+            }
+            value = value * 10 + ( c - '0' );
+        }
+
+        return value;
+    }
+
+    private String formatTimestamp( final long epochSeconds )
+    {
+        calendar.setTimeInMillis( epochSeconds * 1000 );
+
+        final char[] buf = new char[TSTAMP_LENGTH];
+        pad( buf, 0, calendar.get( Calendar.YEAR ), 4 );
+        pad( buf, 4, calendar.get( Calendar.MONTH ) + 1, 2 );
+        pad( buf, 6, calendar.get( Calendar.DAY_OF_MONTH ), 2 );
+        buf[8] = '.';
+        pad( buf, 9, calendar.get( Calendar.HOUR_OF_DAY ), 2 );
+        pad( buf, 11, calendar.get( Calendar.MINUTE ), 2 );
+        pad( buf, 13, calendar.get( Calendar.SECOND ), 2 );
+
+        return new String( buf );
+    }
+
+    private static void pad( final char[] buf, final int offset, final long value, final int width )
+    {
+        long v = value;
+        for ( int i = offset + width - 1; i >= offset; i-- )
+        {
+            buf[i] = (char) ( '0' + v % 10 );
+            v /= 10;
+        }
+    }
+}
@@ -63,12 +63,73 @@ public class SnapshotUtils
 
     public static boolean isRemoteSnapshotVersion( final String literal )
     {
-        return literal.matches( REMOTE_SNAPSHOT_PART_PATTERN );
+        return matchesRemoteSnapshotPart( literal );
     }
 
     public static boolean isRemoteSnapshotVersionPart( final String literal )
     {
-        return literal.matches( REMOTE_SNAPSHOT_PART_PATTERN );
+        return matchesRemoteSnapshotPart( literal );
+    }
+
+    /**
+     * Same test as matching {@link #REMOTE_SNAPSHOT_PART_PATTERN}, without a regex, since it runs for every parsed
+     * artifact path: the literal must end with "yyyyMMdd.HHmmss-N", optionally preceded by a non-empty prefix and '-'.
+     */
+    private static boolean matchesRemoteSnapshotPart( final String literal )
+    {
+        final int length = literal.length();
+
+        int buildStart = length;
+        while ( buildStart > 0 && isDigit( literal.charAt( buildStart - 1 ) ) )
+        {
+            buildStart--;
+        }
+
+        // 15 timestamp characters and a '-' before the build number
+        final int tstampStart = buildStart - 16;
+        if ( buildStart == length || tstampStart < 0 || literal.charAt( buildStart - 1 ) != '-' )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < 15; i++ )
+        {
+            final char c = literal.charAt( tstampStart + i );
+            if ( i == 8 ? isLineTerminator( c ) : !isDigit( c ) )
+            {
+                return false;
+            }
+        }
+
+        if ( tstampStart == 0 )
+        {
+            return true;
+        }
+        else if ( tstampStart < 2 || literal.charAt( tstampStart - 1 ) != '-' )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < tstampStart - 1; i++ )
+        {
+            if ( isLineTerminator( literal.charAt( i ) ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDigit( final char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    // characters '.' does not match in a regex
+    private static boolean isLineTerminator( final char c )
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
     public static SnapshotPart parseRemoteSnapshotVersionPart( final String literal )
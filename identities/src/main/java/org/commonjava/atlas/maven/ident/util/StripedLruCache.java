@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, thread-safe map from strings to shared instances, for caches of immutable parse results.
+ * <p>
+ * The entries are split into lock-striped LRU segments, so concurrent callers rarely contend. Each segment evicts on
+ * its own, which makes eviction order approximately, rather than strictly, least-recently-used. Hit and miss counts
+ * are kept for sizing.
+ * <p>
+ * With frequency admission, each segment also keeps approximate access counts: when it is full, a new key only
+ * replaces the least-recently-used one if it has been looked up more often recently, so a burst of one-off keys
+ * cannot flush the popular ones.
+ */
+public final class StripedLruCache<V>
+{
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxSize;
+
+    private final Segment<V>[] segments;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    public StripedLruCache( final int maxSize )
+    {
+        this( maxSize, false );
+    }
+
+    /**
+     * @param frequencyAdmission whether a full segment should keep its eldest entry over a less popular new one
+     */
+    @SuppressWarnings( "unchecked" )
+    public StripedLruCache( final int maxSize, final boolean frequencyAdmission )
+    {
+        if ( maxSize < 1 )
+        {
+            throw new IllegalArgumentException( "Cache size must be positive: " + maxSize );
+        }
+
+        this.maxSize = maxSize;
+
+        final int count = Math.min( MAX_SEGMENTS, maxSize );
+        segments = new Segment[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            // spread the remainder over the first segments, so the capacities add up to maxSize.
+            final int capacity = maxSize / count + ( i < maxSize % count ? 1 : 0 );
+            segments[i] = new Segment<V>( capacity, frequencyAdmission ? new FrequencySketch( capacity ) : null );
+        }
+    }
+
+    /**
+     * Look up a key, counting a hit or a miss.
+     *
+     * @return the cached value, or null
+     */
+    public V get( final String key )
+    {
+        final Segment<V> segment = segmentFor( key );
+
+        final V value;
+        synchronized ( segment )
+        {
+            if ( segment.sketch != null )
+            {
+                segment.sketch.increment( spread( key.hashCode() ) );
+            }
+            value = segment.get( key );
+        }
+
+        if ( value != null )
+        {
+            hits.incrementAndGet();
+        }
+        else
+        {
+            misses.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    /**
+     * Cache a value computed after a miss.
+     *
+     * @return the value cached for key: the one given, or the one another thread cached meanwhile. With frequency
+     * admission, the value given may not have been cached.
+     */
+    public V putIfAbsent( final String key, final V value )
+    {
+        final Segment<V> segment = segmentFor( key );
+        synchronized ( segment )
+        {
+            // another thread may have cached the same key meanwhile; keep one instance.
+            final V raced = segment.get( key );
+            if ( raced != null )
+            {
+                return raced;
+            }
+
+            if ( segment.sketch != null && segment.size() >= segment.capacity )
+            {
+                final Iterator<String> eldest = segment.keySet().iterator();
+                final String victim = eldest.next();
+                if ( segment.sketch.frequency( spread( key.hashCode() ) )
+                        <= segment.sketch.frequency( spread( victim.hashCode() ) ) )
+                {
+                    rejections.incrementAndGet();
+                    return value;
+                }
+
+                eldest.remove();
+            }
+
+            segment.put( key, value );
+        }
+
+        return value;
+    }
+
+    /**
+     * Remove all entries and reset the counts.
+     */
+    public void clear()
+    {
+        for ( final Segment<V> segment : segments )
+        {
+            synchronized ( segment )
+            {
+                segment.clear();
+            }
+        }
+
+        hits.set( 0 );
+        misses.set( 0 );
+        rejections.set( 0 );
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for ( final Segment<V> segment : segments )
+        {
+            synchronized ( segment )
+            {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    /**
+     * @return how many values were not cached, because their keys were looked up less often than the entry they would
+     * have replaced
+     */
+    public long getRejectionCount()
+    {
+        return rejections.get();
+    }
+
+    /**
+     * @return hits / lookups, or 0 if there have been no lookups yet
+     */
+    public double getHitRatio()
+    {
+        final long h = hits.get();
+        final long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private static int spread( final int hash )
+    {
+        return hash ^ ( hash >>> 16 );
+    }
+
+    private Segment<V> segmentFor( final String key )
+    {
+        return segments[( key.hashCode() & 0x7fffffff ) % segments.length];
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StripedLruCache [maxSize=" + maxSize + ", hits=" + hits + ", misses=" + misses + ", rejections="
+                + rejections + "]";
+    }
+
+    private static final class Segment<V>
+            extends LinkedHashMap<String, V>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private final FrequencySketch sketch;
+
+        Segment( final int capacity, final FrequencySketch sketch )
+        {
+            super( 16, 0.75f, true );
+            this.capacity = capacity;
+            this.sketch = sketch;
+        }
+
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, V> eldest )
+        {
+            return size() > capacity;
+        }
+    }
+}
@@ -16,6 +16,8 @@
 package org.commonjava.atlas.maven.ident.util;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.commonjava.atlas.maven.ident.util.ArtifactPathInfo;
@@ -49,4 +51,56 @@ public class ArtifactPathInfoTest
                                     .isSnapshot(), equalTo( false ) );
     }
 
+    @Test
+    public void checksumSidecarExposesPrimaryArtifact()
+    {
+        final String path = "/org/foo/bar/1.0/bar-1.0-sources.jar.sha1";
+        final ArtifactPathInfo info = ArtifactPathInfo.parse( path );
+
+        assertThat( info.getType(), equalTo( "jar.sha1" ) );
+        assertThat( info.getPrimaryType(), equalTo( "jar" ) );
+        assertThat( info.getSidecar(), equalTo( SidecarType.SHA1 ) );
+        assertThat( info.isSidecar(), equalTo( true ) );
+
+        final ArtifactPathInfo primary = info.getPrimary();
+        assertThat( primary, equalTo( ArtifactPathInfo.parse( "/org/foo/bar/1.0/bar-1.0-sources.jar" ) ) );
+        assertThat( primary.getFullPath(), equalTo( "/org/foo/bar/1.0/bar-1.0-sources.jar" ) );
+        assertThat( primary.getClassifier(), equalTo( "sources" ) );
+        assertThat( primary.getType(), equalTo( "jar" ) );
+        assertThat( primary.getSidecar(), nullValue() );
+        assertThat( primary.getArtifact(), equalTo( ArtifactPathInfo.parse( "/org/foo/bar/1.0/bar-1.0-sources.jar" )
+                                                                    .getArtifact() ) );
+        assertThat( info.getPrimary(), sameInstance( primary ) );
+    }
+
+    @Test
+    public void signatureSidecar()
+    {
+        final ArtifactPathInfo info = ArtifactPathInfo.parse( "/org/foo/bar/1.0/bar-1.0.pom.asc" );
+
+        assertThat( info.getSidecar(), equalTo( SidecarType.ASC ) );
+        assertThat( info.getSidecar().isSignature(), equalTo( true ) );
+        assertThat( info.getPrimary().getFile(), equalTo( "bar-1.0.pom" ) );
+    }
+
+    @Test
+    public void artifactIsItsOwnPrimary()
+    {
+        final ArtifactPathInfo info = ArtifactPathInfo.parse( "/org/foo/bar/1.0/bar-1.0.pom" );
+
+        assertThat( info.isSidecar(), equalTo( false ) );
+        assertThat( info.getPrimaryType(), equalTo( "pom" ) );
+        assertThat( info.getPrimary(), sameInstance( info ) );
+    }
+
+    @Test
+    public void derivedRefsAreReused()
+    {
+        final ArtifactPathInfo info = ArtifactPathInfo.parse( "/org/foo/bar/1.0/bar-1.0.jar" );
+
+        assertThat( info.getProjectId(), sameInstance( info.getProjectId() ) );
+        assertThat( info.getArtifact(), sameInstance( info.getArtifact() ) );
+        assertThat( info.getArtifact().getVersionString(), equalTo( "1.0" ) );
+    }
+
 }
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
+import org.junit.Test;
+
+public class MavenMetadataBuilderTest
+{
+
+    @Test
+    public void versionsAreSortedAsTheyAreAdded()
+        throws Exception
+    {
+        final MavenMetadataBuilder builder = new MavenMetadataBuilder( "org.foo", "bar" );
+        builder.addVersions( Arrays.asList( "1.10", "1.0", "1.9", "1.0-alpha-1" ) );
+
+        assertThat( builder.getVersions(), equalTo( Arrays.asList( "1.0-alpha-1", "1.0", "1.9", "1.10" ) ) );
+        assertThat( builder.getLatest(), equalTo( "1.10" ) );
+        assertThat( builder.getRelease(), equalTo( "1.10" ) );
+
+        assertThat( builder.addVersion( "1.2" ), equalTo( true ) );
+        assertThat( builder.getVersions(), equalTo( Arrays.asList( "1.0-alpha-1", "1.0", "1.2", "1.9", "1.10" ) ) );
+    }
+
+    @Test
+    public void duplicateVersionIsNotAddedTwice()
+        throws Exception
+    {
+        final MavenMetadataBuilder builder = new MavenMetadataBuilder( "org.foo", "bar" );
+
+        assertThat( builder.addVersion( "1.0" ), equalTo( true ) );
+        assertThat( builder.addVersion( "1.0" ), equalTo( false ) );
+        assertThat( builder.addVersion( "1.0.0" ), equalTo( true ) );
+        assertThat( builder.getVersions(), equalTo( Arrays.asList( "1.0", "1.0.0" ) ) );
+    }
+
+    @Test
+    public void releaseSkipsSnapshots()
+        throws Exception
+    {
+        final MavenMetadataBuilder builder = new MavenMetadataBuilder( "org.foo", "bar" );
+        builder.addVersion( "1.0" );
+        builder.addVersion( "2.0-SNAPSHOT" );
+
+        assertThat( builder.getLatest(), equalTo( "2.0-SNAPSHOT" ) );
+        assertThat( builder.getRelease(), equalTo( "1.0" ) );
+    }
+
+    @Test
+    public void emptyBuilderHasNoLatestOrRelease()
+    {
+        final MavenMetadataBuilder builder = new MavenMetadataBuilder( "org.foo", "bar" );
+
+        assertThat( builder.getLatest(), nullValue() );
+        assertThat( builder.getRelease(), nullValue() );
+    }
+
+    @Test( expected = InvalidVersionSpecificationException.class )
+    public void invalidVersionIsRejected()
+        throws Exception
+    {
+        new MavenMetadataBuilder( "org.foo", "bar" ).addVersion( "" );
+    }
+
+    @Test
+    public void writeMetadata()
+        throws Exception
+    {
+        final Date updated = new Date( 1700000000000L );
+        final MavenMetadataBuilder builder = new MavenMetadataBuilder( "org.foo", "bar" ).setLastUpdated( updated );
+        builder.addVersions( Arrays.asList( "1.1", "1.0" ) );
+
+        final StringWriter writer = new StringWriter();
+        builder.writeTo( writer );
+        final String xml = writer.toString();
+        System.out.println( xml );
+
+        assertThat( xml.contains( "<groupId>org.foo</groupId>" ), equalTo( true ) );
+        assertThat( xml.contains( "<artifactId>bar</artifactId>" ), equalTo( true ) );
+        assertThat( xml.contains( "<latest>1.1</latest>" ), equalTo( true ) );
+        assertThat( xml.contains( "<release>1.1</release>" ), equalTo( true ) );
+        assertThat( xml.contains( "<version>1.0</version>\n      <version>1.1</version>" ), equalTo( true ) );
+        assertThat( xml.contains( "<lastUpdated>" + SnapshotUtils.generateUpdateTimestamp( updated )
+                                          + "</lastUpdated>" ), equalTo( true ) );
+        assertThat( xml.trim().endsWith( "</metadata>" ), equalTo( true ) );
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class MavenMetadataPathInfoTest
+{
+
+    @Test
+    public void artifactMetadata()
+    {
+        final MavenMetadataPathInfo info = MavenMetadataPathInfo.parse( "/org/commonjava/atlas/maven-metadata.xml" );
+
+        assertThat( info.getGroupId(), equalTo( "org.commonjava" ) );
+        assertThat( info.getArtifactId(), equalTo( "atlas" ) );
+        assertThat( info.getVersion(), nullValue() );
+        assertThat( info.getSidecar(), nullValue() );
+        assertThat( info.getFile(), equalTo( "maven-metadata.xml" ) );
+    }
+
+    @Test
+    public void snapshotMetadataChecksum()
+    {
+        final MavenMetadataPathInfo info =
+            MavenMetadataPathInfo.parse( "org\\commonjava\\atlas\\1.0-SNAPSHOT\\maven-metadata.xml.sha1" );
+
+        assertThat( info.getGroupId(), equalTo( "org.commonjava" ) );
+        assertThat( info.getArtifactId(), equalTo( "atlas" ) );
+        assertThat( info.getVersion(), equalTo( "1.0-SNAPSHOT" ) );
+        assertThat( info.isSnapshotMetadata(), equalTo( true ) );
+        assertThat( info.getSidecar(), equalTo( SidecarType.SHA1 ) );
+        assertThat( info.getFile(), equalTo( "maven-metadata.xml.sha1" ) );
+    }
+
+    @Test
+    public void localRepositoryMetadata()
+    {
+        final MavenMetadataPathInfo info = MavenMetadataPathInfo.parse( "/junit/maven-metadata-central.xml" );
+
+        assertThat( info.getGroupId(), nullValue() );
+        assertThat( info.getArtifactId(), equalTo( "junit" ) );
+    }
+
+    @Test
+    public void otherFilesAreRejected()
+    {
+        assertThat( MavenMetadataPathInfo.parse( "/maven-metadata.xml" ), nullValue() );
+        assertThat( MavenMetadataPathInfo.parse( "/org/foo/bar/1.0/bar-1.0.pom" ), nullValue() );
+        assertThat( MavenMetadataPathInfo.parse( "/org/foo/bar/maven-metadata.json" ), nullValue() );
+    }
+
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PathInfoCacheTest
+{
+    @Test
+    public void repeatedPathsShareInfoAndRefs()
+    {
+        final PathInfoCache<ArtifactPathInfo> cache = PathInfoCache.forArtifacts( 100 );
+        final String path = "/org/foo/bar/1.0/bar-1.0.pom";
+
+        final ArtifactPathInfo first = cache.parse( path );
+        final ArtifactPathInfo second = cache.parse( path );
+
+        assertThat( second, sameInstance( first ) );
+        assertThat( second.getArtifact(), sameInstance( first.getArtifact() ) );
+        assertThat( cache.getHitCount(), equalTo( 1L ) );
+        assertThat( cache.getMissCount(), equalTo( 1L ) );
+        assertThat( cache.getHitRatio(), equalTo( 0.5 ) );
+    }
+
+    @Test
+    public void unparseablePathsAreCached()
+    {
+        final PathInfoCache<ArtifactPathInfo> cache = PathInfoCache.forArtifacts( 100 );
+
+        assertThat( cache.parse( "/org/foo/maven-metadata.xml" ), nullValue() );
+        assertThat( cache.parse( "/org/foo/maven-metadata.xml" ), nullValue() );
+        assertThat( cache.getHitCount(), equalTo( 1L ) );
+        assertThat( cache.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void hotPathsSurviveAScanOfOneOffPaths()
+    {
+        final PathInfoCache<ArtifactPathInfo> cache = PathInfoCache.forArtifacts( 64 );
+
+        final String[] hot = new String[8];
+        for ( int i = 0; i < hot.length; i++ )
+        {
+            hot[i] = "/org/popular/lib-" + i + "/1.0/lib-" + i + "-1.0.pom.sha1";
+        }
+
+        for ( int r = 0; r < 10; r++ )
+        {
+            for ( final String path : hot )
+            {
+                cache.parse( path );
+            }
+        }
+
+        // five times the cache size: enough to flush a plain LRU cache
+        for ( int i = 0; i < 5 * cache.getMaxSize(); i++ )
+        {
+            cache.parse( "/org/crawler/artifact-" + i + "/1.0/artifact-" + i + "-1.0.jar" );
+        }
+
+        final long hitsBefore = cache.getHitCount();
+        for ( final String path : hot )
+        {
+            cache.parse( path );
+        }
+
+        assertThat( cache.getHitCount() - hitsBefore, equalTo( (long) hot.length ) );
+        assertThat( cache.size() <= cache.getMaxSize(), equalTo( true ) );
+        assertThat( cache.getRejectionCount() > 0, equalTo( true ) );
+    }
+}
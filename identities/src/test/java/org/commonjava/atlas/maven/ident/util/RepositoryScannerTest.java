@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepositoryScannerTest
+{
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    /**
+     * @return the relative paths of all files created
+     */
+    private List<String> generateRepository( final File root, final int groups, final int artifacts )
+        throws IOException
+    {
+        final List<String> paths = new ArrayList<String>();
+        for ( int g = 0; g < groups; g++ )
+        {
+            final String group = "org/synthetic/group" + g;
+            for ( int a = 0; a < artifacts; a++ )
+            {
+                final String artifact = "artifact-" + a;
+                paths.add( group + "/" + artifact + "/maven-metadata.xml" );
+
+                for ( final String version : new String[] { "1.0", "1.1", "2.0-SNAPSHOT" } )
+                {
+                    final String dir = group + "/" + artifact + "/" + version + "/";
+                    final String file = version.endsWith( "-SNAPSHOT" ) ? artifact + "-2.0-20120307.200227-" + ( a + 1 )
+                                    : artifact + "-" + version;
+
+                    paths.add( dir + file + ".pom" );
+                    paths.add( dir + file + ".pom.sha1" );
+                    paths.add( dir + file + ".jar" );
+                    paths.add( dir + file + ".jar.md5" );
+                    paths.add( dir + file + "-sources.jar" );
+                    paths.add( dir + file + "-sources.jar.asc" );
+                    paths.add( dir + "_remote.repositories" );
+                    paths.add( dir + "other-" + version + ".jar" );
+                }
+            }
+        }
+
+        for ( final String path : paths )
+        {
+            final File f = new File( root, path );
+            f.getParentFile().mkdirs();
+            f.createNewFile();
+        }
+
+        return paths;
+    }
+
+    @Test
+    public void matchesParsingEachPath()
+        throws Exception
+    {
+        final File root = temp.newFolder( "repo" );
+        final List<String> paths = generateRepository( root, 4, 5 );
+
+        final Set<String> expected = new HashSet<String>();
+        for ( final String path : paths )
+        {
+            final ArtifactPathInfo info = ArtifactPathInfo.parse( path );
+            if ( info != null )
+            {
+                expected.add( describe( info ) );
+            }
+        }
+
+        final Set<String> scanned = new HashSet<String>();
+        final RepositoryScanner scanner = new RepositoryScanner( root, 4, 8 );
+        for ( final ArtifactPathInfo info : scanner )
+        {
+            assertThat( info, equalTo( ArtifactPathInfo.parse( info.getFullPath() ) ) );
+            scanned.add( describe( info ) );
+        }
+
+        assertThat( scanned, equalTo( expected ) );
+        assertThat( scanner.getFileCount(), equalTo( (long) paths.size() ) );
+    }
+
+    @Test
+    public void wideRepositoryOverflowsDirectoryQueue()
+        throws Exception
+    {
+        final File root = temp.newFolder( "repo" );
+        final List<String> paths = generateRepository( root, 1, 100 );
+
+        int expected = 0;
+        for ( final String path : paths )
+        {
+            if ( ArtifactPathInfo.parse( path ) != null )
+            {
+                expected++;
+            }
+        }
+
+        // one thread queues at most 16 directories; the other 84 artifact directories are listed in place
+        int scanned = 0;
+        final RepositoryScanner scanner = new RepositoryScanner( root, 1, 4 );
+        for ( final ArtifactPathInfo info : scanner )
+        {
+            scanned++;
+        }
+
+        assertThat( scanned, equalTo( expected ) );
+        assertThat( scanner.getFileCount(), equalTo( (long) paths.size() ) );
+    }
+
+    private static String describe( final ArtifactPathInfo info )
+    {
+        return info.getFullPath() + " " + info.getGroupId() + ":" + info.getArtifactId() + ":" + info.getVersion()
+            + ":" + info.getClassifier() + ":" + info.getType() + " snapshot=" + info.isSnapshot();
+    }
+
+    @Test
+    public void parseFileFromDirectories()
+    {
+        final ArtifactPathInfo info =
+            RepositoryScanner.parseFile( "org/foo", "bar", "1.0-SNAPSHOT", "bar-1.0-20120307.200227-12-tests.jar" );
+
+        assertThat( info.getGroupId(), equalTo( "org.foo" ) );
+        assertThat( info.getVersion(), equalTo( "1.0-20120307.200227-12" ) );
+        assertThat( info.getClassifier(), equalTo( "tests" ) );
+        assertThat( info.getType(), equalTo( "jar" ) );
+        assertThat( info.isSnapshot(), equalTo( true ) );
+
+        assertThat( RepositoryScanner.parseFile( "org/foo", "bar", "1.0", "bar-1.0" ), nullValue() );
+        assertThat( RepositoryScanner.parseFile( "org/foo", "bar", "1.0", "bar-1.0-.jar" ), nullValue() );
+        assertThat( RepositoryScanner.parseFile( "org/foo", "bar", "1.0", "baz-1.0.jar" ), nullValue() );
+        assertThat( RepositoryScanner.parseFile( "", "bar", "1.0", "bar-1.0.jar" ), nullValue() );
+    }
+
+    @Test
+    public void closeStopsScan()
+        throws Exception
+    {
+        final File root = temp.newFolder( "repo" );
+        generateRepository( root, 4, 5 );
+
+        final RepositoryScanner scanner = new RepositoryScanner( root, 2, 1 );
+        assertThat( scanner.hasNext(), equalTo( true ) );
+        scanner.next();
+        scanner.close();
+
+        assertThat( scanner.hasNext(), equalTo( false ) );
+    }
+
+    @Test
+    public void fasterThanParsingEachPath()
+        throws Exception
+    {
+        final File root = temp.newFolder( "repo" );
+        generateRepository( root, 20, 10 );
+
+        long start = System.nanoTime();
+        int parsed = 0;
+        final List<File> dirs = new ArrayList<File>();
+        dirs.add( root );
+        while ( !dirs.isEmpty() )
+        {
+            final File dir = dirs.remove( dirs.size() - 1 );
+            for ( final File f : dir.listFiles() )
+            {
+                if ( f.isDirectory() )
+                {
+                    dirs.add( f );
+                }
+                else if ( ArtifactPathInfo.parse( f.getPath().substring( root.getPath().length() ) ) != null )
+                {
+                    parsed++;
+                }
+            }
+        }
+        final long walk = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int scanned = 0;
+        for ( final ArtifactPathInfo info : new RepositoryScanner( root ) )
+        {
+            scanned++;
+        }
+        final long scan = System.nanoTime() - start;
+
+        System.out.printf( "walk + parse: %d ms, scanner: %d ms (%d files)%n", walk / 1000000, scan / 1000000,
+                           scanned );
+        assertThat( scanned, equalTo( parsed ) );
+    }
+
+}
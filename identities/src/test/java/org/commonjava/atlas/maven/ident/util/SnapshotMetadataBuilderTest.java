@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.commonjava.atlas.maven.ident.util.SnapshotMetadataBuilder.SnapshotVersion;
+import org.junit.Test;
+
+public class SnapshotMetadataBuilderTest
+{
+
+    @Test
+    public void keepsNewestBuildPerClassifierAndExtension()
+    {
+        final SnapshotMetadataBuilder builder = new SnapshotMetadataBuilder( "org.foo", "bar", "1.0-SNAPSHOT" );
+        final int added = builder.addFiles( Arrays.asList( "bar-1.0-20240101.120000-1.jar",
+                                                           "bar-1.0-20240101.120000-1.pom",
+                                                           "bar-1.0-20240102.083000-2.jar",
+                                                           "bar-1.0-20240102.083000-2.jar.sha1",
+                                                           "bar-1.0-20240101.120000-1-sources.jar",
+                                                           "maven-metadata.xml" ) );
+
+        assertThat( added, equalTo( 4 ) );
+        assertThat( builder.getTimestamp(), equalTo( "20240102.083000" ) );
+        assertThat( builder.getBuildNumber(), equalTo( 2 ) );
+
+        final List<SnapshotVersion> versions = builder.getSnapshotVersions();
+        assertThat( versions.size(), equalTo( 3 ) );
+
+        assertThat( versions.get( 0 ).getClassifier(), nullValue() );
+        assertThat( versions.get( 0 ).getExtension(), equalTo( "jar" ) );
+        assertThat( versions.get( 0 ).getValue(), equalTo( "1.0-20240102.083000-2" ) );
+        assertThat( versions.get( 0 ).getUpdated(), equalTo( "20240102083000" ) );
+
+        assertThat( versions.get( 1 ).getExtension(), equalTo( "pom" ) );
+        assertThat( versions.get( 1 ).getValue(), equalTo( "1.0-20240101.120000-1" ) );
+
+        assertThat( versions.get( 2 ).getClassifier(), equalTo( "sources" ) );
+        assertThat( versions.get( 2 ).getValue(), equalTo( "1.0-20240101.120000-1" ) );
+    }
+
+    @Test
+    public void olderBuildDoesNotReplaceNewer()
+    {
+        final SnapshotMetadataBuilder builder = new SnapshotMetadataBuilder( "org.foo", "bar", "1.0-SNAPSHOT" );
+
+        assertThat( builder.addFile( "bar-1.0-20240101.120000-10.jar" ), equalTo( true ) );
+        assertThat( builder.addFile( "bar-1.0-20240101.120000-9.jar" ), equalTo( false ) );
+        assertThat( builder.addFile( "bar-1.0-20240101.120000-10.jar" ), equalTo( false ) );
+        assertThat( builder.getBuildNumber(), equalTo( 10 ) );
+    }
+
+    @Test
+    public void localSnapshotFilesAreIgnored()
+    {
+        final SnapshotMetadataBuilder builder = new SnapshotMetadataBuilder( "org.foo", "bar", "1.0-SNAPSHOT" );
+
+        assertThat( builder.addFile( "bar-1.0-SNAPSHOT.jar" ), equalTo( false ) );
+        assertThat( builder.getTimestamp(), nullValue() );
+    }
+
+    @Test
+    public void writeMetadata()
+        throws Exception
+    {
+        final Date updated = new Date( 1700000000000L );
+        final SnapshotMetadataBuilder builder =
+            new SnapshotMetadataBuilder( "org.foo", "bar", "1.0-SNAPSHOT" ).setLastUpdated( updated );
+        builder.addFile( "bar-1.0-20240102.083000-2.jar" );
+        builder.addFile( "bar-1.0-20240102.083000-2-tests.jar" );
+
+        final StringWriter writer = new StringWriter();
+        builder.writeTo( writer );
+        final String xml = writer.toString();
+        System.out.println( xml );
+
+        assertThat( xml.contains( "modelVersion=\"1.1.0\"" ), equalTo( true ) );
+        assertThat( xml.contains( "<version>1.0-SNAPSHOT</version>" ), equalTo( true ) );
+        assertThat( xml.contains( "<timestamp>20240102.083000</timestamp>" ), equalTo( true ) );
+        assertThat( xml.contains( "<buildNumber>2</buildNumber>" ), equalTo( true ) );
+        assertThat( xml.contains( "<lastUpdated>" + SnapshotUtils.generateUpdateTimestamp( updated )
+                                          + "</lastUpdated>" ), equalTo( true ) );
+        assertThat( xml.contains( "<classifier>tests</classifier>" ), equalTo( true ) );
+        assertThat( xml.contains( "<value>1.0-20240102.083000-2</value>" ), equalTo( true ) );
+        assertThat( xml.contains( "<updated>20240102083000</updated>" ), equalTo( true ) );
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+import org.junit.Test;
+
+public class SnapshotTimelineTest
+{
+
+    @Test
+    public void buildsAreKeptInOrder()
+    {
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+        timeline.add( "1.0-20240102.083000-2" );
+        timeline.add( "20240101.120000-1" );
+        timeline.add( "1.0-20240102.083000-3" );
+
+        assertThat( timeline.size(), equalTo( 3 ) );
+        assertThat( timeline.getVersion( 0 ), equalTo( "1.0-20240101.120000-1" ) );
+        assertThat( timeline.getVersion( 1 ), equalTo( "1.0-20240102.083000-2" ) );
+        assertThat( timeline.getLatestVersion(), equalTo( "1.0-20240102.083000-3" ) );
+        assertThat( timeline.getNextBuildNumber(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void duplicateBuildIsNotAddedTwice()
+    {
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0" );
+
+        assertThat( timeline.add( "1.0-20240101.120000-1" ), equalTo( true ) );
+        assertThat( timeline.add( "20240101.120000-1" ), equalTo( false ) );
+        assertThat( timeline.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void atOrBefore()
+        throws Exception
+    {
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+        timeline.add( "20240101.120000-1" );
+        timeline.add( "20240103.120000-2" );
+
+        assertThat( timeline.getVersionAtOrBefore( local( "20231231.000000" ) ), nullValue() );
+        assertThat( timeline.getVersionAtOrBefore( local( "20240101.120000" ) ), equalTo( "1.0-20240101.120000-1" ) );
+        assertThat( timeline.getVersionAtOrBefore( local( "20240102.000000" ) ), equalTo( "1.0-20240101.120000-1" ) );
+        assertThat( timeline.getVersionAtOrBefore( local( "20250101.000000" ) ), equalTo( "1.0-20240103.120000-2" ) );
+    }
+
+    @Test
+    public void snapshotPartMatchesParsedTimestamp()
+        throws Exception
+    {
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+        timeline.add( "1.0-20240229.235959-7" );
+
+        final SnapshotPart part = timeline.getSnapshotPart( 0 );
+        assertThat( part.getLiteral(), equalTo( "20240229.235959-7" ) );
+        assertThat( part.getBuildNumber(), equalTo( 7 ) );
+        assertThat( part, equalTo( SnapshotUtils.parseRemoteSnapshotVersionPart( "20240229.235959-7" ) ) );
+    }
+
+    @Test
+    public void snapshotPartsMatchParsedPartsOutsideUtc()
+        throws Exception
+    {
+        final TimeZone original = TimeZone.getDefault();
+        TimeZone.setDefault( TimeZone.getTimeZone( "America/New_York" ) );
+        try
+        {
+            // either side of the spring and autumn DST changes, in order
+            final String[] literals = { "20240310.013000-1", "20240310.033000-2", "20240701.120000-3",
+                "20241103.013000-4", "20241231.235959-5" };
+
+            final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+            for ( final String literal : literals )
+            {
+                timeline.add( literal );
+            }
+
+            for ( int i = 0; i < literals.length; i++ )
+            {
+                final SnapshotPart parsed = SnapshotUtils.parseRemoteSnapshotVersionPart( literals[i] );
+                final SnapshotPart part = timeline.getSnapshotPart( i );
+
+                assertThat( literals[i], part.getTimestamp(), equalTo( parsed.getTimestamp() ) );
+                assertThat( literals[i], part.compareTo( parsed ), equalTo( 0 ) );
+                assertThat( timeline.getSnapshotLiteral( i ), equalTo( literals[i] ) );
+            }
+        }
+        finally
+        {
+            TimeZone.setDefault( original );
+        }
+    }
+
+    @Test
+    public void randomTimestampsRoundTrip()
+        throws Exception
+    {
+        final SimpleDateFormat format = new SimpleDateFormat( SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT );
+        final Random random = new Random( 42 );
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+        final List<Long> seconds = new ArrayList<Long>();
+
+        for ( int i = 0; i < 1000; i++ )
+        {
+            final String tstamp = format.format( new Date( ( ( random.nextLong() >>> 1 ) % 4102444800L ) * 1000 ) );
+            final long s = SnapshotUtils.parseSnapshotTimestamp( tstamp ).getTime() / 1000;
+
+            if ( timeline.add( tstamp + "-1" ) )
+            {
+                seconds.add( s );
+            }
+        }
+
+        Collections.sort( seconds );
+        assertThat( timeline.size(), equalTo( seconds.size() ) );
+        for ( int i = 0; i < seconds.size(); i++ )
+        {
+            assertThat( timeline.getEpochSeconds( i ), equalTo( seconds.get( i ) ) );
+            assertThat( timeline.getTimestamp( i ), equalTo( format.format( new Date( seconds.get( i ) * 1000 ) ) ) );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void otherVersionIsRejected()
+    {
+        new SnapshotTimeline( "1.0-SNAPSHOT" ).add( "1.1-20240101.120000-1" );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void invalidTimestampIsRejected()
+    {
+        new SnapshotTimeline( "1.0-SNAPSHOT" ).add( "1.0-20241301.120000-1" );
+    }
+
+    @Test
+    public void mergeTiming()
+    {
+        final int count = 5000;
+        final List<String> literals = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            literals.add( SnapshotUtils.generateSnapshotSuffix( new Date( 1700000000000L + i * 60000L ), i + 1 ) );
+        }
+
+        // what a merge without the timeline does: parse every existing build again and sort
+        long start = System.nanoTime();
+        final List<SnapshotPart> parts = new ArrayList<SnapshotPart>( count );
+        for ( final String literal : literals )
+        {
+            parts.add( SnapshotUtils.parseRemoteSnapshotVersionPart( literal ) );
+        }
+        Collections.sort( parts );
+        final long parsed = System.nanoTime() - start;
+
+        final SnapshotTimeline timeline = new SnapshotTimeline( "1.0-SNAPSHOT" );
+        start = System.nanoTime();
+        for ( final String literal : literals )
+        {
+            timeline.add( literal );
+        }
+        final long merged = System.nanoTime() - start;
+
+        System.out.printf( "%d builds: parse and sort %dms, timeline %dms%n", count, parsed / 1000000,
+                           merged / 1000000 );
+        assertThat( timeline.size(), equalTo( count ) );
+        assertThat( timeline.getSnapshotLiteral( count - 1 ), equalTo( literals.get( count - 1 ) ) );
+    }
+
+    private static Date local( final String tstamp )
+        throws Exception
+    {
+        return SnapshotUtils.parseSnapshotTimestamp( tstamp );
+    }
+
+}
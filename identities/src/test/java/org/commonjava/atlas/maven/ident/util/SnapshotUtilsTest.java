@@ -75,4 +75,19 @@ public class SnapshotUtilsTest
         assertThat( result, equalTo( d ) );
     }
 
+    @Test
+    public void remoteSnapshotCheckMatchesPattern()
+    {
+        final String[] literals =
+            { "1.0-20120307.200227-1", "20120307.200227-12", "-20120307.200227-1", "1.0-20120307-200227-1",
+                "1.0-20120307.200227-", "1.0-2012030.200227-1", "1.0-20120307.200227", "1.0-SNAPSHOT", "1.0",
+                "1.0_20120307.200227-1", "a-b-20120307x200227-3", "1.0-20120307\n200227-1", "", "-1" };
+
+        for ( final String literal : literals )
+        {
+            assertThat( literal, SnapshotUtils.isRemoteSnapshotVersion( literal ),
+                        equalTo( literal.matches( SnapshotUtils.REMOTE_SNAPSHOT_PART_PATTERN ) ) );
+        }
+    }
+
 }
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class StripedLruCacheTest
+{
+
+    @Test
+    public void putIfAbsentKeepsFirstInstance()
+    {
+        final StripedLruCache<String> cache = new StripedLruCache<String>( 10 );
+        final String first = new String( "value" );
+
+        assertThat( cache.get( "key" ), nullValue() );
+        assertThat( cache.putIfAbsent( "key", first ), sameInstance( first ) );
+        assertThat( cache.putIfAbsent( "key", new String( "value" ) ), sameInstance( first ) );
+        assertThat( cache.get( "key" ), sameInstance( first ) );
+
+        assertThat( cache.getHitCount(), equalTo( 1L ) );
+        assertThat( cache.getMissCount(), equalTo( 1L ) );
+        assertThat( cache.getHitRatio(), equalTo( 0.5 ) );
+    }
+
+    @Test
+    public void sizeIsBounded()
+    {
+        final StripedLruCache<Integer> cache = new StripedLruCache<Integer>( 37 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            cache.putIfAbsent( "key-" + i, i );
+        }
+
+        assertThat( cache.size() <= cache.getMaxSize(), equalTo( true ) );
+        assertThat( cache.size() > 0, equalTo( true ) );
+    }
+
+    @Test
+    public void clearResetsEntriesAndCounts()
+    {
+        final StripedLruCache<Integer> cache = new StripedLruCache<Integer>( 4 );
+        cache.putIfAbsent( "a", 1 );
+        cache.get( "a" );
+        cache.clear();
+
+        assertThat( cache.size(), equalTo( 0 ) );
+        assertThat( cache.getHitCount(), equalTo( 0L ) );
+        assertThat( cache.get( "a" ), nullValue() );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void sizeMustBePositive()
+    {
+        new StripedLruCache<String>( 0 );
+    }
+
+}
@@ -55,7 +55,7 @@ public class NpmPackageRef extends NpmProjectRef
     NpmPackageRef( final String name, final Version version, final String versionString )
     {
         super( name );
-        this.version = version;
+        this.version = NpmVersionUtils.intern( version );
         this.versionString = versionString;
     }
 
@@ -149,7 +149,12 @@ public class NpmPackageRef extends NpmProjectRef
         NpmPackageRef other = (NpmPackageRef) o;
         try
         {
-            if ( getVersion() == null )
+            // versions are shared through NpmVersionUtils, so equal ones are usually the same instance.
+            if ( getVersion() == other.getVersion() )
+            {
+                return true;
+            }
+            else if ( getVersion() == null )
             {
                 if ( other.getVersion() != null )
                 {
@@ -17,9 +17,7 @@ package org.commonjava.atlas.npm.ident.util;
 
 import com.github.zafarkhaja.semver.Version;
 import org.commonjava.atlas.maven.ident.util.PathInfo;
-
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
 
 import static org.commonjava.atlas.npm.ident.util.NpmVersionUtils.valueOf;
 
@@ -30,41 +28,90 @@ public class NpmPackagePathInfo implements PathInfo
 {
     private static final String EXT_TGZ = ".tgz";
 
-    private static final String PACKAGE_PATH_REGEX = "/(.+)/-/(.+)\\" + EXT_TGZ;
+    private static final String TARBALL_SEPARATOR = "/-/";
+
+    /**
+     * Parse a tarball path in a single pass, without regular expressions. Scoped packages are supported: the tarball
+     * name may repeat either the full package name or only its unscoped part. The version is parsed on first access
+     * to {@link #getVersion()}.
+     *
+     * @return the path info, or null if the path is not a package tarball path
+     */
+    // e.g., /keycloak-connect/-/keycloak-connect-3.4.1.tgz, /@babel/core/-/core-7.0.0.tgz,
+    // /@babel/core/-/@babel/core-7.0.0.tgz
+    public static NpmPackagePathInfo parse( final String path )
+    {
+        final String p = path.replace( '\\', '/' );
+        if ( !p.startsWith( "/" ) || !p.endsWith( EXT_TGZ ) )
+        {
+            return null;
+        }
 
-    private static final int PACKAGE_NAME_GROUP = 1;
+        final int sep = p.lastIndexOf( TARBALL_SEPARATOR );
+        final int tarballStart = sep + TARBALL_SEPARATOR.length();
+        final int tarballEnd = p.length() - EXT_TGZ.length();
+        if ( sep < 2 || tarballStart >= tarballEnd )
+        {
+            return null;
+        }
 
-    private static final int PACKAGE_NAME_AND_VERSION_GROUP = 2;
+        final String name = p.substring( 1, sep );
+        int versionStart = versionStart( p, tarballStart, tarballEnd, name );
+        if ( versionStart < 0 )
+        {
+            versionStart = versionStart( p, tarballStart, tarballEnd, name.substring( name.lastIndexOf( '/' ) + 1 ) );
+        }
 
-    // e.g., /keycloak-connect/-/keycloak-connect-3.4.1.tgz
-    public static NpmPackagePathInfo parse( final String path )
-    {
-        final Matcher matcher = Pattern.compile( PACKAGE_PATH_REGEX ).matcher( path.replace( '\\', '/' ) );
-        if ( !matcher.matches() )
+        if ( versionStart < 0 || p.indexOf( '/', versionStart ) >= 0 )
         {
             return null;
         }
 
-        final String name = matcher.group( PACKAGE_NAME_GROUP );
-        final String nameAndVersion = matcher.group( PACKAGE_NAME_AND_VERSION_GROUP );
+        return new NpmPackagePathInfo( name, p.substring( versionStart, tarballEnd ), p.substring( tarballStart ),
+                                       path );
+    }
 
-        final String version = nameAndVersion.substring( name.length() + 1 );
+    /**
+     * @return the index just past {@code <prefix>-} when the tarball name starts with it and a version follows, or -1
+     */
+    private static int versionStart( final String p, final int tarballStart, final int tarballEnd,
+                                     final String prefix )
+    {
+        final int versionStart = tarballStart + prefix.length() + 1;
+        if ( versionStart >= tarballEnd || !p.startsWith( prefix, tarballStart )
+                || p.charAt( versionStart - 1 ) != '-' )
+        {
+            return -1;
+        }
 
-        return new NpmPackagePathInfo( name, valueOf( version ), nameAndVersion + EXT_TGZ, path );
+        return versionStart;
     }
 
-    private String name;
+    private final String name;
+
+    private final String versionString;
+
+    private volatile Version version;
 
-    private Version version;
+    private volatile NpmPackageRef packageRef;
 
-    private String file;
+    private final String file;
 
-    private String fullPath;
+    private final String fullPath;
 
     public NpmPackagePathInfo( String name, Version version, String file, String fullPath )
     {
         this.name = name;
         this.version = version;
+        this.versionString = version == null ? null : version.toString();
+        this.file = file;
+        this.fullPath = fullPath;
+    }
+
+    private NpmPackagePathInfo( String name, String versionString, String file, String fullPath )
+    {
+        this.name = name;
+        this.versionString = versionString;
         this.file = file;
         this.fullPath = fullPath;
     }
@@ -86,8 +133,41 @@ public class NpmPackagePathInfo implements PathInfo
         return name;
     }
 
+    /**
+     * @return the version, parsed from the path on first call
+     */
     public Version getVersion()
     {
-        return version;
+        Version v = version;
+        if ( v == null && versionString != null )
+        {
+            v = valueOf( versionString );
+            version = v;
+        }
+
+        return v;
+    }
+
+    /**
+     * @return the version as it appears in the path, without parsing it
+     */
+    public String getVersionString()
+    {
+        return versionString;
+    }
+
+    /**
+     * @return the package ref, created on first call and reused afterwards
+     */
+    public NpmPackageRef getPackageRef()
+    {
+        NpmPackageRef ref = packageRef;
+        if ( ref == null )
+        {
+            ref = version != null ? new NpmPackageRef( name, version ) : new NpmPackageRef( name, versionString );
+            packageRef = ref;
+        }
+
+        return ref;
     }
 }
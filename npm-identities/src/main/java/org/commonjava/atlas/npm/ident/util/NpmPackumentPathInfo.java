@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.maven.ident.util.PathInfo;
+
+/**
+ * The path of a package's metadata document (packument): "/name" or "/@scope/name" as the registry serves it (the
+ * scope separator may be encoded as %2f), or the same followed by "/package.json", as stored in a repository.
+ */
+public class NpmPackumentPathInfo
+        implements PathInfo
+{
+    public static final String PACKAGE_JSON = "package.json";
+
+    private static final String ENCODED_SLASH = "%2f";
+
+    public static NpmPackumentPathInfo parse( final String path )
+    {
+        if ( path == null || path.length() < 2 )
+        {
+            return null;
+        }
+
+        String name = path.replace( '\\', '/' );
+        name = name.substring( name.startsWith( "/" ) ? 1 : 0 );
+
+        String file = null;
+        if ( name.endsWith( "/" + PACKAGE_JSON ) )
+        {
+            name = name.substring( 0, name.length() - PACKAGE_JSON.length() - 1 );
+            file = PACKAGE_JSON;
+        }
+        else if ( name.endsWith( "/" ) )
+        {
+            name = name.substring( 0, name.length() - 1 );
+        }
+
+        if ( name.startsWith( "@" ) )
+        {
+            final int encoded = name.toLowerCase().indexOf( ENCODED_SLASH );
+            if ( encoded > 0 && name.indexOf( '/' ) < 0 )
+            {
+                name = name.substring( 0, encoded ) + "/" + name.substring( encoded + ENCODED_SLASH.length() );
+            }
+
+            final int slash = name.indexOf( '/' );
+            if ( slash < 2 || slash == name.length() - 1 || name.indexOf( '/', slash + 1 ) >= 0 )
+            {
+                return null;
+            }
+        }
+        else if ( name.length() == 0 || name.indexOf( '/' ) >= 0 || name.startsWith( "." ) )
+        {
+            return null;
+        }
+
+        return new NpmPackumentPathInfo( name, file == null ? name.substring( name.indexOf( '/' ) + 1 ) : file, path );
+    }
+
+    private final String name;
+
+    private final String file;
+
+    private final String fullPath;
+
+    public NpmPackumentPathInfo( final String name, final String file, final String fullPath )
+    {
+        this.name = name;
+        this.file = file;
+        this.fullPath = fullPath;
+    }
+
+    /**
+     * @return the package name, including its scope (e.g. "@babel/core")
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public String getFile()
+    {
+        return file;
+    }
+
+    @Override
+    public String getFullPath()
+    {
+        return fullPath;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "NpmPackumentPathInfo [name=" + name + ", file=" + file + "]";
+    }
+}
@@ -0,0 +1,244 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the versions out of an npm packument (the registry's package metadata document) with Jackson's streaming
+ * parser, without building a tree of it. Only the name, version, dist.tarball, dist.integrity, dist.shasum and
+ * (optionally) dependencies of each version are kept; everything else (readmes, "time", maintainers...) is skipped.
+ * <p>
+ * The listener can stop reading early, e.g. once a version satisfying a range has been found. The input stream is
+ * closed when reading ends.
+ */
+public final class NpmPackumentReader
+{
+    private static final String NAME = "name";
+
+    private static final String VERSIONS = "versions";
+
+    private static final String DIST = "dist";
+
+    private static final String TARBALL = "tarball";
+
+    private static final String INTEGRITY = "integrity";
+
+    private static final String SHASUM = "shasum";
+
+    private static final String DEPENDENCIES = "dependencies";
+
+    private final JsonFactory factory;
+
+    private final boolean readDependencies;
+
+    public NpmPackumentReader()
+    {
+        this( new JsonFactory(), true );
+    }
+
+    /**
+     * @param readDependencies false to skip each version's dependencies, when only refs and tarballs are needed
+     */
+    public NpmPackumentReader( final JsonFactory factory, final boolean readDependencies )
+    {
+        this.factory = factory;
+        this.readDependencies = readDependencies;
+    }
+
+    /**
+     * @return the number of versions passed to the listener
+     */
+    public int read( final InputStream in, final NpmPackumentListener listener )
+            throws IOException
+    {
+        final JsonParser jp = factory.createParser( in );
+        try
+        {
+            if ( jp.nextToken() != JsonToken.START_OBJECT )
+            {
+                throw new JsonParseException( "Expected a packument object", jp.getCurrentLocation() );
+            }
+
+            String name = null;
+            int count = 0;
+            while ( jp.nextToken() == JsonToken.FIELD_NAME )
+            {
+                final String field = jp.getCurrentName();
+                final JsonToken token = jp.nextToken();
+
+                if ( NAME.equals( field ) && token == JsonToken.VALUE_STRING )
+                {
+                    name = jp.getText();
+                }
+                else if ( VERSIONS.equals( field ) && token == JsonToken.START_OBJECT )
+                {
+                    while ( jp.nextToken() == JsonToken.FIELD_NAME )
+                    {
+                        final String version = jp.getCurrentName();
+                        if ( jp.nextToken() != JsonToken.START_OBJECT )
+                        {
+                            throw new JsonParseException( "Expected an object for version: " + version,
+                                                          jp.getCurrentLocation() );
+                        }
+
+                        count++;
+                        if ( !listener.version( readVersion( jp, name, version ) ) )
+                        {
+                            return count;
+                        }
+                    }
+                }
+                else
+                {
+                    jp.skipChildren();
+                }
+            }
+
+            return count;
+        }
+        finally
+        {
+            jp.close();
+        }
+    }
+
+    /**
+     * @return every version in the packument, in packument order
+     */
+    public List<NpmPackumentVersion> readAll( final InputStream in )
+            throws IOException
+    {
+        final List<NpmPackumentVersion> versions = new ArrayList<NpmPackumentVersion>();
+        read( in, new NpmPackumentListener()
+        {
+            @Override
+            public boolean version( final NpmPackumentVersion version )
+            {
+                versions.add( version );
+                return true;
+            }
+        } );
+
+        return versions;
+    }
+
+    /**
+     * Read until the first version satisfying range, in packument order (usually publishing order, not highest
+     * first). Use {@link #readAll(InputStream)} and {@link NpmVersionIndex} to find the highest one.
+     *
+     * @return the first satisfying version, or null if there is none
+     */
+    public NpmPackumentVersion readFirstSatisfying( final InputStream in, final NpmVersionRange range )
+            throws IOException
+    {
+        final NpmPackumentVersion[] found = new NpmPackumentVersion[1];
+        read( in, new NpmPackumentListener()
+        {
+            @Override
+            public boolean version( final NpmPackumentVersion version )
+            {
+                if ( range.satisfiedBy( version.getRef().getVersionString() ) )
+                {
+                    found[0] = version;
+                    return false;
+                }
+
+                return true;
+            }
+        } );
+
+        return found[0];
+    }
+
+    private NpmPackumentVersion readVersion( final JsonParser jp, final String packageName, final String version )
+            throws IOException
+    {
+        String name = packageName;
+        String tarball = null;
+        String integrity = null;
+        String shasum = null;
+        Map<String, String> dependencies = null;
+
+        while ( jp.nextToken() == JsonToken.FIELD_NAME )
+        {
+            final String field = jp.getCurrentName();
+            final JsonToken token = jp.nextToken();
+
+            if ( NAME.equals( field ) && token == JsonToken.VALUE_STRING )
+            {
+                name = jp.getText();
+            }
+            else if ( DIST.equals( field ) && token == JsonToken.START_OBJECT )
+            {
+                while ( jp.nextToken() == JsonToken.FIELD_NAME )
+                {
+                    final String distField = jp.getCurrentName();
+                    if ( jp.nextToken() != JsonToken.VALUE_STRING )
+                    {
+                        jp.skipChildren();
+                    }
+                    else if ( TARBALL.equals( distField ) )
+                    {
+                        tarball = jp.getText();
+                    }
+                    else if ( INTEGRITY.equals( distField ) )
+                    {
+                        integrity = jp.getText();
+                    }
+                    else if ( SHASUM.equals( distField ) )
+                    {
+                        shasum = jp.getText();
+                    }
+                }
+            }
+            else if ( readDependencies && DEPENDENCIES.equals( field ) && token == JsonToken.START_OBJECT )
+            {
+                dependencies = new LinkedHashMap<String, String>();
+                while ( jp.nextToken() == JsonToken.FIELD_NAME )
+                {
+                    final String dependency = jp.getCurrentName();
+                    if ( jp.nextToken() == JsonToken.VALUE_STRING )
+                    {
+                        dependencies.put( dependency, jp.getText() );
+                    }
+                    else
+                    {
+                        jp.skipChildren();
+                    }
+                }
+            }
+            else
+            {
+                jp.skipChildren();
+            }
+        }
+
+        return new NpmPackumentVersion( new NpmPackageRef( name, version ), tarball, integrity, shasum,
+                                        dependencies );
+    }
+}
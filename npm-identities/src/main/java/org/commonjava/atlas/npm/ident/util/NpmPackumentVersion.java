@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The fields {@link NpmPackumentReader} keeps from one entry of a packument's "versions" object.
+ */
+public final class NpmPackumentVersion
+{
+    private final NpmPackageRef ref;
+
+    private final String tarball;
+
+    private final String integrity;
+
+    private final String shasum;
+
+    private final Map<String, String> dependencies;
+
+    public NpmPackumentVersion( final NpmPackageRef ref, final String tarball, final String integrity,
+                                final String shasum, final Map<String, String> dependencies )
+    {
+        this.ref = ref;
+        this.tarball = tarball;
+        this.integrity = integrity;
+        this.shasum = shasum;
+        this.dependencies = dependencies == null ? Collections.<String, String>emptyMap()
+                        : Collections.unmodifiableMap( dependencies );
+    }
+
+    public NpmPackageRef getRef()
+    {
+        return ref;
+    }
+
+    /**
+     * @return dist.tarball, or null if missing
+     */
+    public String getTarball()
+    {
+        return tarball;
+    }
+
+    /**
+     * @return dist.integrity (an SRI hash, e.g. "sha512-..."), or null if missing
+     */
+    public String getIntegrity()
+    {
+        return integrity;
+    }
+
+    /**
+     * @return dist.shasum (hex sha1), or null if missing
+     */
+    public String getShasum()
+    {
+        return shasum;
+    }
+
+    /**
+     * @return package name to version range; empty if the reader was not asked to keep dependencies
+     */
+    public Map<String, String> getDependencies()
+    {
+        return dependencies;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "NpmPackumentVersion [ref=" + ref + ", tarball=" + tarball + ", dependencies=" + dependencies + "]";
+    }
+}
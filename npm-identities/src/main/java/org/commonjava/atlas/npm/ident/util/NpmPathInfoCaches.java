@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.maven.ident.util.PathInfo;
+import org.commonjava.atlas.maven.ident.util.PathInfoCache;
+
+/**
+ * {@link PathInfoCache}s for npm paths, and for mixed repositories whose paths go through
+ * {@link RepositoryPathClassifier}.
+ */
+public final class NpmPathInfoCaches
+{
+    private NpmPathInfoCaches()
+    {
+    }
+
+    public static PathInfoCache<NpmPackagePathInfo> forNpmPackages( final int maxSize )
+    {
+        return new PathInfoCache<NpmPackagePathInfo>( new PathInfoCache.Parser<NpmPackagePathInfo>()
+        {
+            @Override
+            public NpmPackagePathInfo parse( final String path )
+            {
+                return NpmPackagePathInfo.parse( path );
+            }
+        }, maxSize );
+    }
+
+    /**
+     * @see RepositoryPathClassifier#classify(String)
+     */
+    public static PathInfoCache<PathInfo> forClassifier( final int maxSize )
+    {
+        return new PathInfoCache<PathInfo>( new PathInfoCache.Parser<PathInfo>()
+        {
+            @Override
+            public PathInfo parse( final String path )
+            {
+                return RepositoryPathClassifier.classify( path );
+            }
+        }, maxSize );
+    }
+}
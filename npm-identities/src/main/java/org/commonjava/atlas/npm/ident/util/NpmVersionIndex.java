@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.util.NpmVersionRange.Interval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The versions of one package, sorted once so that {@link NpmVersionRange} queries are binary searches over the sorted
+ * releases and prereleases, rather than a test of every version.
+ */
+public final class NpmVersionIndex
+{
+    private final VersionKey[] keys;
+
+    /**
+     * Positions in {@link #keys} of the releases, and of the prereleases, in ascending order.
+     */
+    private final int[] releases;
+
+    private final int[] prereleases;
+
+    public NpmVersionIndex( final Collection<Version> versions )
+    {
+        keys = new VersionKey[versions.size()];
+        int i = 0;
+        int prereleaseCount = 0;
+        for ( final Version version : versions )
+        {
+            keys[i] = new VersionKey( version );
+            if ( keys[i++].isPrerelease() )
+            {
+                prereleaseCount++;
+            }
+        }
+
+        Arrays.sort( keys );
+
+        releases = new int[keys.length - prereleaseCount];
+        prereleases = new int[prereleaseCount];
+        int r = 0;
+        int p = 0;
+        for ( i = 0; i < keys.length; i++ )
+        {
+            if ( keys[i].isPrerelease() )
+            {
+                prereleases[p++] = i;
+            }
+            else
+            {
+                releases[r++] = i;
+            }
+        }
+    }
+
+    /**
+     * Index version strings (e.g. the keys of a packument's "versions" object), parsed through
+     * {@link NpmVersionUtils#valueOf(String)}.
+     */
+    public static NpmVersionIndex parse( final Collection<String> versions )
+    {
+        final List<Version> parsed = new ArrayList<Version>( versions.size() );
+        for ( final String version : versions )
+        {
+            parsed.add( NpmVersionUtils.valueOf( version ) );
+        }
+
+        return new NpmVersionIndex( parsed );
+    }
+
+    /**
+     * @return the highest version satisfying range, or null if there is none
+     */
+    public Version maxSatisfying( final NpmVersionRange range )
+    {
+        int best = -1;
+        for ( final Interval interval : range.getIntervals() )
+        {
+            best = Math.max( best, last( releases, interval, null, null ) );
+
+            if ( range.isIncludePrerelease() )
+            {
+                best = Math.max( best, last( prereleases, interval, null, null ) );
+            }
+            else
+            {
+                for ( int i = 0; i < interval.prereleaseFloors.length; i++ )
+                {
+                    best = Math.max( best, last( prereleases, interval, interval.prereleaseFloors[i],
+                                                 interval.prereleaseCeilings[i] ) );
+                }
+            }
+        }
+
+        return best < 0 ? null : keys[best].version;
+    }
+
+    /**
+     * @return every version satisfying range, in ascending order
+     */
+    public List<Version> allSatisfying( final NpmVersionRange range )
+    {
+        final BitSet matches = new BitSet( keys.length );
+        for ( final Interval interval : range.getIntervals() )
+        {
+            mark( releases, interval, null, null, matches );
+
+            if ( range.isIncludePrerelease() )
+            {
+                mark( prereleases, interval, null, null, matches );
+            }
+            else
+            {
+                for ( int i = 0; i < interval.prereleaseFloors.length; i++ )
+                {
+                    mark( prereleases, interval, interval.prereleaseFloors[i], interval.prereleaseCeilings[i],
+                          matches );
+                }
+            }
+        }
+
+        final List<Version> result = new ArrayList<Version>( matches.cardinality() );
+        for ( int i = matches.nextSetBit( 0 ); i >= 0; i = matches.nextSetBit( i + 1 ) )
+        {
+            result.add( keys[i].version );
+        }
+
+        return result;
+    }
+
+    /**
+     * @return all indexed versions, in ascending order
+     */
+    public List<Version> getVersions()
+    {
+        final List<Version> result = new ArrayList<Version>( keys.length );
+        for ( final VersionKey key : keys )
+        {
+            result.add( key.version );
+        }
+
+        return Collections.unmodifiableList( result );
+    }
+
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * @return the position in {@link #keys} of the last of positions within the interval (and within [floor,
+     * ceiling), if given), or -1 if there is none
+     */
+    private int last( final int[] positions, final Interval interval, final VersionKey floor,
+                      final VersionKey ceiling )
+    {
+        final int from = from( positions, interval, floor );
+        final int to = to( positions, interval, ceiling );
+        return to > from ? positions[to - 1] : -1;
+    }
+
+    private void mark( final int[] positions, final Interval interval, final VersionKey floor,
+                       final VersionKey ceiling, final BitSet matches )
+    {
+        final int to = to( positions, interval, ceiling );
+        for ( int i = from( positions, interval, floor ); i < to; i++ )
+        {
+            matches.set( positions[i] );
+        }
+    }
+
+    private int from( final int[] positions, final Interval interval, final VersionKey floor )
+    {
+        int from = interval.lower == null ? 0 : search( positions, interval.lower, !interval.lowerInclusive );
+        if ( floor != null )
+        {
+            from = Math.max( from, search( positions, floor, false ) );
+        }
+
+        return from;
+    }
+
+    private int to( final int[] positions, final Interval interval, final VersionKey ceiling )
+    {
+        int to = interval.upper == null ? positions.length : search( positions, interval.upper,
+                                                                      interval.upperInclusive );
+        if ( ceiling != null )
+        {
+            to = Math.min( to, search( positions, ceiling, false ) );
+        }
+
+        return to;
+    }
+
+    /**
+     * @return the first index into positions whose version is above key (strict) or at least key, or
+     * positions.length if there is none
+     */
+    private int search( final int[] positions, final VersionKey key, final boolean strict )
+    {
+        int low = 0;
+        int high = positions.length;
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            final int cmp = keys[positions[mid]].compareTo( key );
+            if ( cmp > 0 || ( cmp == 0 && !strict ) )
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,689 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.ParseException;
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.ref.InvalidNpmRefException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An npm version range (e.g. "^1.2.0 || ~2.3.1 || >=3 <4"), compiled once into a list of intervals. Each
+ * space-separated comparator set becomes one interval; caret, tilde, x-ranges and hyphen ranges are desugared the way
+ * npm's semver package does it.
+ * <p>
+ * Prereleases follow npm's rule: a prerelease only satisfies a comparator set if one of its comparators names a
+ * prerelease of the same major.minor.patch (so "^1.2.3-beta.2" accepts 1.2.3-beta.4 but not 1.2.4-beta.1), unless
+ * the range is compiled with includePrerelease.
+ *
+ * @see NpmVersionIndex for resolving a range against a package's versions
+ */
+public final class NpmVersionRange
+{
+    private static final int ANY = -1;
+
+    private static final VersionKey[] NO_KEYS = new VersionKey[0];
+
+    private final String range;
+
+    private final boolean includePrerelease;
+
+    private final Interval[] intervals;
+
+    private NpmVersionRange( final String range, final boolean includePrerelease, final Interval[] intervals )
+    {
+        this.range = range;
+        this.includePrerelease = includePrerelease;
+        this.intervals = intervals;
+    }
+
+    public static NpmVersionRange compile( final String range )
+    {
+        return compile( range, false );
+    }
+
+    /**
+     * @param includePrerelease let prereleases satisfy the range whenever they fall within it, as npm's option of the
+     * same name does
+     * @throws InvalidNpmRefException if the range cannot be parsed
+     */
+    public static NpmVersionRange compile( final String range, final boolean includePrerelease )
+    {
+        if ( range == null )
+        {
+            throw new InvalidNpmRefException( "Version range cannot be null" );
+        }
+
+        final List<Interval> intervals = new ArrayList<Interval>();
+        for ( final String set : range.split( "\\|\\|", -1 ) )
+        {
+            final Interval interval = compileSet( range, set.trim(), includePrerelease );
+            if ( interval != null )
+            {
+                intervals.add( interval );
+            }
+        }
+
+        return new NpmVersionRange( range, includePrerelease, intervals.toArray( new Interval[intervals.size()] ) );
+    }
+
+    public boolean satisfiedBy( final String version )
+    {
+        return satisfiedBy( NpmVersionUtils.valueOf( version ) );
+    }
+
+    public boolean satisfiedBy( final Version version )
+    {
+        final VersionKey key = new VersionKey( version );
+        for ( final Interval interval : intervals )
+        {
+            if ( interval.contains( key ) && ( includePrerelease || !key.isPrerelease()
+                    || interval.allowsPrereleaseOf( key ) ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public String getRange()
+    {
+        return range;
+    }
+
+    public boolean isIncludePrerelease()
+    {
+        return includePrerelease;
+    }
+
+    Interval[] getIntervals()
+    {
+        return intervals;
+    }
+
+    /**
+     * @return the compiled form, e.g. "&gt;=1.2.0 &lt;2.0.0-0 || 3.0.0"
+     */
+    @Override
+    public String toString()
+    {
+        if ( intervals.length == 0 )
+        {
+            return "<0.0.0-0";
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for ( final Interval interval : intervals )
+        {
+            if ( sb.length() > 0 )
+            {
+                sb.append( " || " );
+            }
+            sb.append( interval );
+        }
+
+        return sb.toString();
+    }
+
+    private static Interval compileSet( final String range, final String set, final boolean includePrerelease )
+    {
+        final List<Comparator> comparators = new ArrayList<Comparator>();
+        final String[] tokens = set.length() == 0 ? new String[0] : set.split( "\\s+" );
+
+        if ( tokens.length == 3 && "-".equals( tokens[1] ) )
+        {
+            hyphen( range, tokens[0], tokens[2], includePrerelease, comparators );
+        }
+        else
+        {
+            for ( int i = 0; i < tokens.length; i++ )
+            {
+                String token = tokens[i];
+                // npm allows whitespace between an operator and its version, e.g. ">= 1.2.3".
+                if ( isOperator( token ) && i + 1 < tokens.length )
+                {
+                    token += tokens[++i];
+                }
+
+                comparator( range, token, includePrerelease, comparators );
+            }
+        }
+
+        return Interval.of( comparators );
+    }
+
+    private static boolean isOperator( final String token )
+    {
+        for ( int i = 0; i < token.length(); i++ )
+        {
+            if ( "<>=~^".indexOf( token.charAt( i ) ) < 0 )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static void comparator( final String range, final String token, final boolean includePrerelease,
+                                    final List<Comparator> out )
+    {
+        String op = "";
+        for ( final String candidate : new String[] { "~>", ">=", "<=", "~", "^", ">", "<", "=" } )
+        {
+            if ( token.startsWith( candidate ) )
+            {
+                op = candidate;
+                break;
+            }
+        }
+
+        final Partial p = Partial.parse( range, token.substring( op.length() ) );
+        final String z = includePrerelease ? "0" : null;
+
+        if ( "~".equals( op ) || "~>".equals( op ) )
+        {
+            if ( p.major == ANY )
+            {
+                any( includePrerelease, out );
+            }
+            else if ( p.minor == ANY )
+            {
+                out.add( Comparator.gte( p.major, 0, 0, null ) );
+                out.add( Comparator.lt( p.major + 1, 0, 0, "0" ) );
+            }
+            else
+            {
+                out.add( Comparator.gte( p.major, p.minor, p.patch == ANY ? 0 : p.patch, p.pre ) );
+                out.add( Comparator.lt( p.major, p.minor + 1, 0, "0" ) );
+            }
+        }
+        else if ( "^".equals( op ) )
+        {
+            caret( p, z, includePrerelease, out );
+        }
+        else if ( p.major == ANY || p.minor == ANY || p.patch == ANY )
+        {
+            xRange( op, p, z, includePrerelease, out );
+        }
+        else if ( op.length() == 0 || "=".equals( op ) )
+        {
+            out.add( new Comparator( "=", p.major, p.minor, p.patch, p.pre ) );
+        }
+        else if ( includePrerelease && ">=".equals( op ) && p.major == 0 && p.minor == 0 && p.patch == 0
+                && p.pre == null )
+        {
+            any( true, out );
+        }
+        else
+        {
+            out.add( new Comparator( op, p.major, p.minor, p.patch, p.pre ) );
+        }
+    }
+
+    private static void caret( final Partial p, final String z, final boolean includePrerelease,
+                               final List<Comparator> out )
+    {
+        if ( p.major == ANY )
+        {
+            any( includePrerelease, out );
+        }
+        else if ( p.minor == ANY )
+        {
+            out.add( Comparator.gte( p.major, 0, 0, z ) );
+            out.add( Comparator.lt( p.major + 1, 0, 0, "0" ) );
+        }
+        else if ( p.patch == ANY )
+        {
+            out.add( Comparator.gte( p.major, p.minor, 0, z ) );
+            out.add( p.major == 0 ? Comparator.lt( 0, p.minor + 1, 0, "0" ) : Comparator.lt( p.major + 1, 0, 0, "0" ) );
+        }
+        else
+        {
+            out.add( Comparator.gte( p.major, p.minor, p.patch, p.pre != null ? p.pre : p.major == 0 ? z : null ) );
+            if ( p.major != 0 )
+            {
+                out.add( Comparator.lt( p.major + 1, 0, 0, "0" ) );
+            }
+            else if ( p.minor != 0 )
+            {
+                out.add( Comparator.lt( 0, p.minor + 1, 0, "0" ) );
+            }
+            else
+            {
+                out.add( Comparator.lt( 0, 0, p.patch + 1, "0" ) );
+            }
+        }
+    }
+
+    private static void xRange( final String op, final Partial p, final String z, final boolean includePrerelease,
+                                final List<Comparator> out )
+    {
+        if ( p.major == ANY )
+        {
+            if ( ">".equals( op ) || "<".equals( op ) )
+            {
+                // nothing can match
+                out.add( Comparator.lt( 0, 0, 0, "0" ) );
+            }
+            else
+            {
+                any( includePrerelease, out );
+            }
+        }
+        else if ( op.length() > 0 && !"=".equals( op ) )
+        {
+            int major = p.major;
+            int minor = p.minor == ANY ? 0 : p.minor;
+            String gtlt = op;
+            if ( ">".equals( op ) )
+            {
+                gtlt = ">=";
+                if ( p.minor == ANY )
+                {
+                    major++;
+                    minor = 0;
+                }
+                else
+                {
+                    minor++;
+                }
+            }
+            else if ( "<=".equals( op ) )
+            {
+                gtlt = "<";
+                if ( p.minor == ANY )
+                {
+                    major++;
+                }
+                else
+                {
+                    minor++;
+                }
+            }
+
+            out.add( new Comparator( gtlt, major, minor, 0, "<".equals( gtlt ) ? "0" : z ) );
+        }
+        else if ( p.minor == ANY )
+        {
+            out.add( Comparator.gte( p.major, 0, 0, z ) );
+            out.add( Comparator.lt( p.major + 1, 0, 0, "0" ) );
+        }
+        else
+        {
+            out.add( Comparator.gte( p.major, p.minor, 0, z ) );
+            out.add( Comparator.lt( p.major, p.minor + 1, 0, "0" ) );
+        }
+    }
+
+    private static void hyphen( final String range, final String fromText, final String toText,
+                                final boolean includePrerelease, final List<Comparator> out )
+    {
+        final Partial from = Partial.parse( range, fromText );
+        final Partial to = Partial.parse( range, toText );
+        final String z = includePrerelease ? "0" : null;
+
+        if ( from.major != ANY )
+        {
+            out.add( Comparator.gte( from.major, from.minor == ANY ? 0 : from.minor,
+                                     from.patch == ANY ? 0 : from.patch, from.pre != null ? from.pre : z ) );
+        }
+        else if ( includePrerelease )
+        {
+            any( true, out );
+        }
+
+        if ( to.major == ANY )
+        {
+            return;
+        }
+        else if ( to.minor == ANY )
+        {
+            out.add( Comparator.lt( to.major + 1, 0, 0, "0" ) );
+        }
+        else if ( to.patch == ANY )
+        {
+            out.add( Comparator.lt( to.major, to.minor + 1, 0, "0" ) );
+        }
+        else if ( to.pre == null && includePrerelease )
+        {
+            out.add( Comparator.lt( to.major, to.minor, to.patch + 1, "0" ) );
+        }
+        else
+        {
+            out.add( new Comparator( "<=", to.major, to.minor, to.patch, to.pre ) );
+        }
+    }
+
+    private static void any( final boolean includePrerelease, final List<Comparator> out )
+    {
+        if ( includePrerelease )
+        {
+            out.add( Comparator.gte( 0, 0, 0, "0" ) );
+        }
+    }
+
+    /**
+     * A possibly partial version, as written in a range. Missing and wildcard ('x', 'X', '*') numbers are {@link #ANY}.
+     */
+    private static final class Partial
+    {
+        int major = ANY;
+
+        int minor = ANY;
+
+        int patch = ANY;
+
+        String pre;
+
+        static Partial parse( final String range, final String text )
+        {
+            String t = text;
+            if ( t.startsWith( "=" ) )
+            {
+                t = t.substring( 1 );
+            }
+            if ( t.startsWith( "v" ) )
+            {
+                t = t.substring( 1 );
+            }
+
+            final int build = t.indexOf( '+' );
+            if ( build >= 0 )
+            {
+                t = t.substring( 0, build );
+            }
+
+            final Partial p = new Partial();
+            final int dash = t.indexOf( '-' );
+            if ( dash >= 0 )
+            {
+                p.pre = t.substring( dash + 1 );
+                t = t.substring( 0, dash );
+            }
+
+            final String[] parts = t.split( "\\.", -1 );
+            if ( parts.length > 3 || ( p.pre != null && ( parts.length < 3 || p.pre.length() == 0 ) ) )
+            {
+                throw invalid( range, text );
+            }
+
+            p.major = number( range, text, parts[0] );
+            p.minor = parts.length > 1 && p.major != ANY ? number( range, text, parts[1] ) : ANY;
+            p.patch = parts.length > 2 && p.minor != ANY ? number( range, text, parts[2] ) : ANY;
+
+            if ( p.pre != null && p.patch == ANY )
+            {
+                throw invalid( range, text );
+            }
+
+            return p;
+        }
+
+        private static int number( final String range, final String text, final String part )
+        {
+            if ( "x".equals( part ) || "X".equals( part ) || "*".equals( part ) )
+            {
+                return ANY;
+            }
+            else if ( part.length() == 0 || ( part.length() > 1 && part.charAt( 0 ) == '0' ) )
+            {
+                throw invalid( range, text );
+            }
+
+            for ( int i = 0; i < part.length(); i++ )
+            {
+                if ( !Character.isDigit( part.charAt( i ) ) )
+                {
+                    throw invalid( range, text );
+                }
+            }
+
+            try
+            {
+                return Integer.parseInt( part );
+            }
+            catch ( final NumberFormatException e )
+            {
+                throw invalid( range, text );
+            }
+        }
+    }
+
+    private static InvalidNpmRefException invalid( final String range, final String text )
+    {
+        return new InvalidNpmRefException( "Invalid version '%s' in range: '%s'", text, range );
+    }
+
+    /**
+     * One primitive comparison (&lt;, &lt;=, &gt;, &gt;= or =) against a full version.
+     */
+    private static final class Comparator
+    {
+        final String op;
+
+        final VersionKey key;
+
+        Comparator( final String op, final int major, final int minor, final int patch, final String pre )
+        {
+            this.op = op;
+            final String version = major + "." + minor + "." + patch + ( pre == null ? "" : "-" + pre );
+            try
+            {
+                this.key = new VersionKey( NpmVersionUtils.valueOf( version ) );
+            }
+            catch ( final ParseException e )
+            {
+                throw new InvalidNpmRefException( "Invalid version in range: '%s'", e, version );
+            }
+        }
+
+        static Comparator gte( final int major, final int minor, final int patch, final String pre )
+        {
+            return new Comparator( ">=", major, minor, patch, pre );
+        }
+
+        static Comparator lt( final int major, final int minor, final int patch, final String pre )
+        {
+            return new Comparator( "<", major, minor, patch, pre );
+        }
+    }
+
+    /**
+     * The versions satisfying one comparator set. Null bounds are unbounded. Prereleases inside the interval only
+     * match if they share major.minor.patch with one of the prerelease versions the set's comparators named.
+     */
+    static final class Interval
+    {
+        final VersionKey lower;
+
+        final boolean lowerInclusive;
+
+        final VersionKey upper;
+
+        final boolean upperInclusive;
+
+        /**
+         * For each major.minor.patch whose prereleases may match: its lowest possible prerelease (x.y.z-0).
+         */
+        final VersionKey[] prereleaseFloors;
+
+        /**
+         * The release matching each of {@link #prereleaseFloors}, above all of its prereleases.
+         */
+        final VersionKey[] prereleaseCeilings;
+
+        private Interval( final VersionKey lower, final boolean lowerInclusive, final VersionKey upper,
+                          final boolean upperInclusive, final List<VersionKey> prereleases )
+        {
+            this.lower = lower;
+            this.lowerInclusive = lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upperInclusive;
+
+            if ( prereleases.isEmpty() )
+            {
+                prereleaseFloors = NO_KEYS;
+                prereleaseCeilings = NO_KEYS;
+            }
+            else
+            {
+                prereleaseFloors = new VersionKey[prereleases.size()];
+                prereleaseCeilings = new VersionKey[prereleases.size()];
+                for ( int i = 0; i < prereleaseFloors.length; i++ )
+                {
+                    final Version v = prereleases.get( i ).version;
+                    final String tuple = v.getMajorVersion() + "." + v.getMinorVersion() + "." + v.getPatchVersion();
+                    prereleaseFloors[i] = new VersionKey( NpmVersionUtils.valueOf( tuple + "-0" ) );
+                    prereleaseCeilings[i] = new VersionKey( NpmVersionUtils.valueOf( tuple ) );
+                }
+            }
+        }
+
+        /**
+         * @return the intersection of the comparators, or null if it is empty
+         */
+        static Interval of( final List<Comparator> comparators )
+        {
+            VersionKey lower = null;
+            boolean lowerInclusive = true;
+            VersionKey upper = null;
+            boolean upperInclusive = true;
+            final List<VersionKey> prereleases = new ArrayList<VersionKey>();
+
+            for ( final Comparator c : comparators )
+            {
+                final boolean inclusive = c.op.length() == 1 ? "=".equals( c.op ) : c.op.endsWith( "=" );
+                if ( c.op.startsWith( ">" ) || "=".equals( c.op ) )
+                {
+                    final int cmp = lower == null ? 1 : c.key.compareTo( lower );
+                    if ( cmp > 0 || ( cmp == 0 && !inclusive ) )
+                    {
+                        lower = c.key;
+                        lowerInclusive = inclusive;
+                    }
+                }
+                if ( c.op.startsWith( "<" ) || "=".equals( c.op ) )
+                {
+                    final int cmp = upper == null ? -1 : c.key.compareTo( upper );
+                    if ( cmp < 0 || ( cmp == 0 && !inclusive ) )
+                    {
+                        upper = c.key;
+                        upperInclusive = inclusive;
+                    }
+                }
+
+                if ( c.key.isPrerelease() && !containsTuple( prereleases, c.key ) )
+                {
+                    prereleases.add( c.key );
+                }
+            }
+
+            if ( lower != null && upper != null )
+            {
+                final int cmp = lower.compareTo( upper );
+                if ( cmp > 0 || ( cmp == 0 && !( lowerInclusive && upperInclusive ) ) )
+                {
+                    return null;
+                }
+            }
+
+            return new Interval( lower, lowerInclusive, upper, upperInclusive, prereleases );
+        }
+
+        private static boolean containsTuple( final List<VersionKey> keys, final VersionKey key )
+        {
+            for ( final VersionKey k : keys )
+            {
+                if ( k.sameTuple( key ) )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        boolean contains( final VersionKey key )
+        {
+            if ( lower != null )
+            {
+                final int cmp = key.compareTo( lower );
+                if ( cmp < 0 || ( cmp == 0 && !lowerInclusive ) )
+                {
+                    return false;
+                }
+            }
+
+            if ( upper != null )
+            {
+                final int cmp = key.compareTo( upper );
+                if ( cmp > 0 || ( cmp == 0 && !upperInclusive ) )
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        boolean allowsPrereleaseOf( final VersionKey key )
+        {
+            for ( final VersionKey ceiling : prereleaseCeilings )
+            {
+                if ( ceiling.sameTuple( key ) )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public String toString()
+        {
+            if ( lower == null && upper == null )
+            {
+                return "*";
+            }
+            else if ( lower != null && upper != null && lowerInclusive && upperInclusive
+                    && lower.compareTo( upper ) == 0 )
+            {
+                return lower.toString();
+            }
+
+            final StringBuilder sb = new StringBuilder();
+            if ( lower != null )
+            {
+                sb.append( lowerInclusive ? ">=" : ">" ).append( lower );
+            }
+            if ( upper != null )
+            {
+                if ( sb.length() > 0 )
+                {
+                    sb.append( ' ' );
+                }
+                sb.append( upperInclusive ? "<=" : "<" ).append( upper );
+            }
+
+            return sb.toString();
+        }
+    }
+}
@@ -19,11 +19,63 @@ import com.github.zafarkhaja.semver.Version;
 
 /**
  * Created by ruhan on 10/17/18.
+ *
+ * Parsed versions are cached (up to {@value #MAX_CACHED_VERSIONS} of them), so package metadata listing the same
+ * versions over and over is parsed once, and equal versions share one instance.
  */
 public class NpmVersionUtils
 {
+    public static final int MAX_CACHED_VERSIONS = 8192;
+
+    private static final VersionCache CACHE = new VersionCache( MAX_CACHED_VERSIONS );
+
+    /**
+     * @return the shared instance for ver, parsed on first use
+     */
     public static Version valueOf( String ver )
     {
-        return Version.valueOf( ver );
+        return CACHE.parse( ver );
+    }
+
+    /**
+     * @return the shared instance with the same string form as version (build metadata included), so equal versions
+     * can be compared by identity
+     */
+    public static Version intern( Version version )
+    {
+        return version == null ? null : CACHE.intern( version );
+    }
+
+    public static int getCacheSize()
+    {
+        return CACHE.size();
+    }
+
+    public static long getCacheHitCount()
+    {
+        return CACHE.getHitCount();
+    }
+
+    public static long getCacheMissCount()
+    {
+        return CACHE.getMissCount();
+    }
+
+    /**
+     * @return hits / lookups, or 0 if there have been no lookups yet
+     */
+    public static double getCacheHitRatio()
+    {
+        final long hits = CACHE.getHitCount();
+        final long total = hits + CACHE.getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Drop all cached versions and reset the counters.
+     */
+    public static void clearCache()
+    {
+        CACHE.clear();
     }
 }
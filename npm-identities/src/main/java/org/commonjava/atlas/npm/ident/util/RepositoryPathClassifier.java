@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.maven.ident.util.ArtifactPathInfo;
+import org.commonjava.atlas.maven.ident.util.MavenMetadataPathInfo;
+import org.commonjava.atlas.maven.ident.util.PathInfo;
+
+/**
+ * Decides what a repository path points to from its file name, then runs only the matching parser, instead of trying
+ * each {@link PathInfo} parser in turn. The result is one of:
+ * <ul>
+ * <li>{@link MavenMetadataPathInfo}, for maven-metadata.xml and its checksums / signature (no regex)</li>
+ * <li>{@link NpmPackagePathInfo}, for npm tarballs (no regex)</li>
+ * <li>{@link NpmPackumentPathInfo}, for npm package metadata (no regex)</li>
+ * <li>{@link ArtifactPathInfo}, for any other Maven file, including checksums and signatures (one regex)</li>
+ * </ul>
+ * It lives here rather than in the identities module because it needs both Maven and npm path types.
+ */
+public final class RepositoryPathClassifier
+{
+    private static final String EXT_TGZ = ".tgz";
+
+    private static final String MAVEN_METADATA = "maven-metadata";
+
+    private RepositoryPathClassifier()
+    {
+    }
+
+    /**
+     * @return the parsed path, or null if it is not a recognized repository file (e.g. a directory)
+     */
+    public static PathInfo classify( final String path )
+    {
+        if ( path == null || path.length() < 2 )
+        {
+            return null;
+        }
+
+        final int start = isSeparator( path.charAt( 0 ) ) ? 1 : 0;
+        final int end = isSeparator( path.charAt( path.length() - 1 ) ) ? path.length() - 1 : path.length();
+
+        // scan back from the end for the file name, and just far enough to tell whether the path is deep enough for
+        // a Maven artifact (group/artifact/version/file)
+        int fileStart = start;
+        int separators = 0;
+        for ( int i = end - 1; i >= start && separators < 3; i-- )
+        {
+            if ( isSeparator( path.charAt( i ) ) )
+            {
+                if ( separators++ == 0 )
+                {
+                    fileStart = i + 1;
+                }
+            }
+        }
+
+        if ( path.startsWith( MAVEN_METADATA, fileStart ) )
+        {
+            final MavenMetadataPathInfo metadata = MavenMetadataPathInfo.parse( path );
+            if ( metadata != null )
+            {
+                return metadata;
+            }
+        }
+        else if ( path.endsWith( EXT_TGZ ) )
+        {
+            final NpmPackagePathInfo tarball = NpmPackagePathInfo.parse( path );
+            if ( tarball != null )
+            {
+                return tarball;
+            }
+        }
+
+        if ( separators < 3 )
+        {
+            // too shallow for a Maven artifact: name, @scope/name, optionally followed by package.json
+            return NpmPackumentPathInfo.parse( path );
+        }
+
+        return ArtifactPathInfo.parse( path );
+    }
+
+    private static boolean isSeparator( final char c )
+    {
+        return c == '/' || c == '\\';
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.maven.ident.util.StripedLruCache;
+
+/**
+ * Bounded cache of parsed versions, keyed by their string form. Versions are immutable, so every caller asking for the
+ * same string gets the same instance. Backed by a {@link StripedLruCache}.
+ */
+final class VersionCache
+{
+    private final StripedLruCache<Version> cache;
+
+    VersionCache( final int maxSize )
+    {
+        this.cache = new StripedLruCache<Version>( maxSize );
+    }
+
+    /**
+     * @return the cached instance for value, parsing and caching it on a miss
+     * @throws com.github.zafarkhaja.semver.ParseException if value is not a valid version; failures are not cached
+     */
+    Version parse( final String value )
+    {
+        final Version version = cache.get( value );
+        if ( version != null )
+        {
+            return version;
+        }
+
+        return cache.putIfAbsent( value, Version.valueOf( value ) );
+    }
+
+    /**
+     * @return the cached instance with the same string form as version, caching version itself if there is none
+     */
+    Version intern( final Version version )
+    {
+        final String value = version.toString();
+        final Version cached = cache.get( value );
+        if ( cached != null )
+        {
+            return cached;
+        }
+
+        return cache.putIfAbsent( value, version );
+    }
+
+    void clear()
+    {
+        cache.clear();
+    }
+
+    int getMaxSize()
+    {
+        return cache.getMaxSize();
+    }
+
+    int size()
+    {
+        return cache.size();
+    }
+
+    long getHitCount()
+    {
+        return cache.getHitCount();
+    }
+
+    long getMissCount()
+    {
+        return cache.getMissCount();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "VersionCache [maxSize=" + cache.getMaxSize() + ", hits=" + cache.getHitCount() + ", misses="
+                + cache.getMissCount() + "]";
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+
+/**
+ * A version with its major, minor and patch numbers packed into one long, followed by a release bit, so most
+ * comparisons are a single long comparison. Only two prereleases of the same major.minor.patch need their prerelease
+ * identifiers compared. Versions with numbers too large to pack fall back to {@link Version#compareTo(Version)}.
+ */
+final class VersionKey
+        implements Comparable<VersionKey>
+{
+    private static final int MAJOR_BITS = 20;
+
+    private static final int MINOR_BITS = 21;
+
+    private static final int PATCH_BITS = 21;
+
+    private static final long RELEASE_BIT = 1L;
+
+    private static final long UNPACKED = -1L;
+
+    final Version version;
+
+    final long packed;
+
+    VersionKey( final Version version )
+    {
+        this.version = version;
+        this.packed = pack( version );
+    }
+
+    private static long pack( final Version version )
+    {
+        final int major = version.getMajorVersion();
+        final int minor = version.getMinorVersion();
+        final int patch = version.getPatchVersion();
+        if ( major < 0 || major >= 1 << MAJOR_BITS || minor < 0 || minor >= 1 << MINOR_BITS || patch < 0
+                || patch >= 1 << PATCH_BITS )
+        {
+            return UNPACKED;
+        }
+
+        final long tuple = ( (long) major << ( MINOR_BITS + PATCH_BITS ) | (long) minor << PATCH_BITS | patch ) << 1;
+        return isPrerelease( version ) ? tuple : tuple | RELEASE_BIT;
+    }
+
+    static boolean isPrerelease( final Version version )
+    {
+        final String pre = version.getPreReleaseVersion();
+        return pre != null && pre.length() > 0;
+    }
+
+    boolean isPrerelease()
+    {
+        return packed == UNPACKED ? isPrerelease( version ) : ( packed & RELEASE_BIT ) == 0;
+    }
+
+    /**
+     * @return true if both versions have the same major, minor and patch numbers
+     */
+    boolean sameTuple( final VersionKey other )
+    {
+        if ( packed != UNPACKED && other.packed != UNPACKED )
+        {
+            return ( packed | RELEASE_BIT ) == ( other.packed | RELEASE_BIT );
+        }
+
+        return version.getMajorVersion() == other.version.getMajorVersion()
+                && version.getMinorVersion() == other.version.getMinorVersion()
+                && version.getPatchVersion() == other.version.getPatchVersion();
+    }
+
+    @Override
+    public int compareTo( final VersionKey other )
+    {
+        if ( packed != UNPACKED && other.packed != UNPACKED )
+        {
+            if ( packed != other.packed )
+            {
+                return packed < other.packed ? -1 : 1;
+            }
+            else if ( ( packed & RELEASE_BIT ) != 0 )
+            {
+                return 0;
+            }
+        }
+
+        // build metadata is ignored, as npm does.
+        return version.compareTo( other.version );
+    }
+
+    @Override
+    public String toString()
+    {
+        return version.toString();
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NpmPackagePathInfoTest
+{
+    private static final Pattern REGEX = Pattern.compile( "/(.+)/-/(.+)\\.tgz" );
+
+    @Test
+    public void unscopedPackage()
+    {
+        final String path = "/keycloak-connect/-/keycloak-connect-3.4.1.tgz";
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+
+        assertThat( info.getName(), equalTo( "keycloak-connect" ) );
+        assertThat( info.getVersionString(), equalTo( "3.4.1" ) );
+        assertThat( info.getVersion().toString(), equalTo( "3.4.1" ) );
+        assertThat( info.getFile(), equalTo( "keycloak-connect-3.4.1.tgz" ) );
+        assertThat( info.getFullPath(), equalTo( path ) );
+    }
+
+    @Test
+    public void scopedPackage()
+    {
+        final String path = "/@babel/core/-/core-7.0.0-beta.4.tgz";
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+
+        assertThat( info.getName(), equalTo( "@babel/core" ) );
+        assertThat( info.getVersionString(), equalTo( "7.0.0-beta.4" ) );
+        assertThat( info.getFile(), equalTo( "core-7.0.0-beta.4.tgz" ) );
+    }
+
+    @Test
+    public void scopedPackageWithFullTarballName()
+    {
+        final String path = "/@babel/core/-/@babel/core-7.0.0.tgz";
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+
+        assertThat( info.getName(), equalTo( "@babel/core" ) );
+        assertThat( info.getVersionString(), equalTo( "7.0.0" ) );
+        assertThat( info.getVersion().toString(), equalTo( "7.0.0" ) );
+        assertThat( info.getFile(), equalTo( "@babel/core-7.0.0.tgz" ) );
+    }
+
+    @Test
+    public void windowsSeparators()
+    {
+        final String path = "\\@types\\node\\-\\node-10.12.0.tgz";
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+
+        assertThat( info.getName(), equalTo( "@types/node" ) );
+        assertThat( info.getVersionString(), equalTo( "10.12.0" ) );
+        assertThat( info.getFullPath(), equalTo( path ) );
+    }
+
+    @Test
+    public void nonTarballPathsAreRejected()
+    {
+        assertThat( NpmPackagePathInfo.parse( "/keycloak-connect" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/keycloak-connect/-/keycloak-connect-3.4.1.tar.gz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/-/keycloak-connect-3.4.1.tgz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/keycloak-connect/-/other-3.4.1.tgz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/keycloak-connect/-/keycloak-connect-.tgz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/a/-/b/a-1.0.0.tgz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/@babel/core/-/@other/core-7.0.0.tgz" ), nullValue() );
+        assertThat( NpmPackagePathInfo.parse( "/@babel/core/-/@babel/core-7/0.0.tgz" ), nullValue() );
+    }
+
+    @Test
+    public void invalidVersionFailsOnAccessOnly()
+    {
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( "/foo/-/foo-latest.tgz" );
+        assertThat( info.getVersionString(), equalTo( "latest" ) );
+
+        try
+        {
+            info.getVersion();
+            throw new AssertionError( "Expected a parse failure" );
+        }
+        catch ( final RuntimeException expected )
+        {
+            // deferred until first access
+        }
+    }
+
+    @Test
+    public void matchesRegexParser()
+    {
+        final String[] paths = new String[200];
+        for ( int i = 0; i < paths.length; i += 2 )
+        {
+            final String name = "package-" + i;
+            paths[i] = "/" + name + "/-/" + name + "-1." + i + ".0.tgz";
+            paths[i + 1] = "/@scope/" + name + "/-/@scope/" + name + "-2." + i + ".0.tgz";
+        }
+
+        for ( final String path : paths )
+        {
+            final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+            final Matcher matcher = REGEX.matcher( path );
+            assertThat( matcher.matches(), equalTo( true ) );
+            assertThat( info.getName(), equalTo( matcher.group( 1 ) ) );
+            final String expectedVersion = matcher.group( 2 ).substring( matcher.group( 1 ).length() + 1 );
+            assertThat( info.getVersionString(), equalTo( expectedVersion ) );
+        }
+    }
+}
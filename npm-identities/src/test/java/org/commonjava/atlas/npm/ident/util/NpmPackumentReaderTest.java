@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NpmPackumentReaderTest
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private static InputStream packument( final int versions )
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "{\"_id\":\"left-pad\",\"name\":\"left-pad\",\"dist-tags\":{\"latest\":\"1." )
+          .append( versions - 1 )
+          .append( ".0\"},\"versions\":{" );
+
+        for ( int i = 0; i < versions; i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( ',' );
+            }
+            sb.append( "\"1." ).append( i ).append( ".0\":{\"name\":\"left-pad\",\"version\":\"1." ).append( i )
+              .append( ".0\",\"maintainers\":[{\"name\":\"x\"}],\"dependencies\":{\"a\":\"^1." ).append( i )
+              .append( "\",\"b\":\"~2.0.0\"},\"dist\":{\"shasum\":\"abc" ).append( i )
+              .append( "\",\"tarball\":\"https://registry.npmjs.org/left-pad/-/left-pad-1." ).append( i )
+              .append( ".0.tgz\",\"integrity\":\"sha512-" ).append( i ).append( "\",\"signatures\":[{}]}}" );
+        }
+
+        sb.append( "},\"time\":{\"created\":\"2014-03-13T00:00:00.000Z\"},\"readme\":\"# left-pad\"}" );
+        return new ByteArrayInputStream( sb.toString().getBytes( UTF_8 ) );
+    }
+
+    @Test
+    public void readsSelectedFields()
+            throws Exception
+    {
+        final List<NpmPackumentVersion> versions = new NpmPackumentReader().readAll( packument( 3 ) );
+
+        assertThat( versions.size(), equalTo( 3 ) );
+
+        final NpmPackumentVersion v = versions.get( 1 );
+        assertThat( v.getRef().getName(), equalTo( "left-pad" ) );
+        assertThat( v.getRef().getVersionString(), equalTo( "1.1.0" ) );
+        assertThat( v.getTarball(), equalTo( "https://registry.npmjs.org/left-pad/-/left-pad-1.1.0.tgz" ) );
+        assertThat( v.getIntegrity(), equalTo( "sha512-1" ) );
+        assertThat( v.getShasum(), equalTo( "abc1" ) );
+        assertThat( v.getDependencies().get( "a" ), equalTo( "^1.1" ) );
+        assertThat( v.getDependencies().get( "b" ), equalTo( "~2.0.0" ) );
+    }
+
+    @Test
+    public void dependenciesCanBeSkipped()
+            throws Exception
+    {
+        final List<NpmPackumentVersion> versions =
+                new NpmPackumentReader( new JsonFactory(), false ).readAll( packument( 2 ) );
+
+        assertThat( versions.get( 0 ).getDependencies(), equalTo( Collections.<String, String>emptyMap() ) );
+        assertThat( versions.get( 0 ).getTarball(),
+                    equalTo( "https://registry.npmjs.org/left-pad/-/left-pad-1.0.0.tgz" ) );
+    }
+
+    @Test
+    public void listenerCanStopEarly()
+            throws Exception
+    {
+        final List<String> seen = new ArrayList<String>();
+        final int count = new NpmPackumentReader().read( packument( 100 ), new NpmPackumentListener()
+        {
+            @Override
+            public boolean version( final NpmPackumentVersion version )
+            {
+                seen.add( version.getRef().getVersionString() );
+                return seen.size() < 5;
+            }
+        } );
+
+        assertThat( count, equalTo( 5 ) );
+        assertThat( seen.get( 4 ), equalTo( "1.4.0" ) );
+    }
+
+    @Test
+    public void readFirstSatisfying()
+            throws Exception
+    {
+        final NpmPackumentReader reader = new NpmPackumentReader();
+
+        final NpmPackumentVersion found =
+                reader.readFirstSatisfying( packument( 2000 ), NpmVersionRange.compile( ">=1.20.0 <2" ) );
+        assertThat( found.getRef().getVersionString(), equalTo( "1.20.0" ) );
+
+        assertThat( reader.readFirstSatisfying( packument( 10 ), NpmVersionRange.compile( "^2" ) ), nullValue() );
+    }
+
+    @Test
+    public void versionNameFallsBackToPackageName()
+            throws Exception
+    {
+        final String json = "{\"name\":\"@scope/pkg\",\"versions\":{\"0.1.0\":{\"dist\":{\"tarball\":\"t\"}}}}";
+        final List<NpmPackumentVersion> versions =
+                new NpmPackumentReader().readAll( new ByteArrayInputStream( json.getBytes( UTF_8 ) ) );
+
+        assertThat( versions.get( 0 ).getRef().getName(), equalTo( "@scope/pkg" ) );
+        assertThat( versions.get( 0 ).getRef().getVersionString(), equalTo( "0.1.0" ) );
+    }
+}
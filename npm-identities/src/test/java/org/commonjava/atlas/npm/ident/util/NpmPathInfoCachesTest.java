@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.maven.ident.util.ArtifactPathInfo;
+import org.commonjava.atlas.maven.ident.util.PathInfo;
+import org.commonjava.atlas.maven.ident.util.PathInfoCache;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class NpmPathInfoCachesTest
+{
+    @Test
+    public void npmPackagePathsShareRefs()
+    {
+        final PathInfoCache<NpmPackagePathInfo> cache = NpmPathInfoCaches.forNpmPackages( 100 );
+
+        assertThat( cache.parse( "/org/foo/bar/1.0/bar-1.0.pom" ), nullValue() );
+        assertThat( cache.parse( "/org/foo/bar/1.0/bar-1.0.pom" ), nullValue() );
+        assertThat( cache.getHitCount(), equalTo( 1L ) );
+
+        final NpmPackagePathInfo info = cache.parse( "/@babel/core/-/core-7.0.0.tgz" );
+        assertThat( info.getPackageRef(), sameInstance( cache.parse( "/@babel/core/-/core-7.0.0.tgz" )
+                                                             .getPackageRef() ) );
+    }
+
+    @Test
+    public void classifierCacheHoldsMixedPaths()
+    {
+        final PathInfoCache<PathInfo> cache = NpmPathInfoCaches.forClassifier( 100 );
+
+        final PathInfo artifact = cache.parse( "/org/foo/bar/1.0/bar-1.0.pom" );
+        final PathInfo tarball = cache.parse( "/@babel/core/-/core-7.0.0.tgz" );
+
+        assertThat( artifact instanceof ArtifactPathInfo, equalTo( true ) );
+        assertThat( tarball instanceof NpmPackagePathInfo, equalTo( true ) );
+        assertThat( cache.parse( "/@babel/core/-/core-7.0.0.tgz" ), sameInstance( tarball ) );
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NpmVersionIndexTest
+{
+    private static final String[] RANGES = {
+            "^1.2.0 || ~2.3.1 || >=3 <4", "*", "1.x", "~0.1.0", ">=2.0.0-beta.1 <2.0.1", "^3.1.2-rc.0",
+            "<0.2.0 || >4.1.7", "1.0.0 - 2.1", "=3.3.3", "^0.0.x", ">9", "4.1.0-beta.2 - 4.1.0"
+    };
+
+    private static List<String> packument()
+    {
+        final List<String> versions = new ArrayList<String>();
+        for ( int major = 0; major < 5; major++ )
+        {
+            for ( int minor = 0; minor < 4; minor++ )
+            {
+                for ( int patch = 0; patch < 8; patch++ )
+                {
+                    versions.add( major + "." + minor + "." + patch );
+                    if ( patch % 3 == 0 )
+                    {
+                        versions.add( major + "." + minor + "." + patch + "-beta." + minor );
+                        versions.add( major + "." + minor + "." + patch + "-rc.0" );
+                    }
+                }
+            }
+        }
+
+        Collections.shuffle( versions );
+        return versions;
+    }
+
+    @Test
+    public void queriesMatchLinearScan()
+    {
+        final List<String> versions = packument();
+        final NpmVersionIndex index = NpmVersionIndex.parse( versions );
+
+        for ( final boolean includePrerelease : new boolean[] { false, true } )
+        {
+            for ( final String r : RANGES )
+            {
+                final NpmVersionRange range = NpmVersionRange.compile( r, includePrerelease );
+
+                final List<Version> expected = new ArrayList<Version>();
+                for ( final Version v : index.getVersions() )
+                {
+                    if ( range.satisfiedBy( v ) )
+                    {
+                        expected.add( v );
+                    }
+                }
+
+                assertThat( r, index.allSatisfying( range ), equalTo( expected ) );
+                assertThat( r, index.maxSatisfying( range ),
+                            expected.isEmpty() ? nullValue() : equalTo( expected.get( expected.size() - 1 ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void maxSatisfyingHonoursPrereleaseTuples()
+    {
+        final NpmVersionIndex index =
+                NpmVersionIndex.parse( Arrays.asList( "1.2.3-beta.1", "1.2.3-beta.4", "1.2.4-beta.1", "1.2.2" ) );
+
+        assertThat( index.maxSatisfying( NpmVersionRange.compile( "^1.2.3-beta.2" ) ).toString(),
+                    equalTo( "1.2.3-beta.4" ) );
+        assertThat( index.maxSatisfying( NpmVersionRange.compile( "^1.2.0" ) ).toString(), equalTo( "1.2.2" ) );
+        assertThat( index.maxSatisfying( NpmVersionRange.compile( "^1.2.0", true ) ).toString(),
+                    equalTo( "1.2.4-beta.1" ) );
+        assertThat( index.maxSatisfying( NpmVersionRange.compile( "^2" ) ), nullValue() );
+    }
+
+    @Test
+    public void indexIsFasterThanScanning()
+    {
+        final NpmVersionIndex index = NpmVersionIndex.parse( packument() );
+        final NpmVersionRange range = NpmVersionRange.compile( RANGES[0] );
+        final int rounds = 20000;
+        long sink = 0;
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            Version max = null;
+            for ( final Version v : index.getVersions() )
+            {
+                if ( range.satisfiedBy( v ) && ( max == null || v.compareTo( max ) > 0 ) )
+                {
+                    max = v;
+                }
+            }
+            sink += max.getPatchVersion();
+        }
+        final long scan = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            sink += index.maxSatisfying( range ).getPatchVersion();
+        }
+        final long indexed = System.nanoTime() - start;
+
+        System.out.printf( "scan: %d ms, index: %d ms (%d)%n", scan / 1000000, indexed / 1000000, sink );
+    }
+}
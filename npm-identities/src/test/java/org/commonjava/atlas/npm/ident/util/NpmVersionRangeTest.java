@@ -0,0 +1,144 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.npm.ident.ref.InvalidNpmRefException;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class NpmVersionRangeTest
+{
+    @Test
+    public void desugarsLikeNpm()
+    {
+        final String[][] cases = {
+                { "^1.2.3", ">=1.2.3 <2.0.0-0" },
+                { "^0.2.3", ">=0.2.3 <0.3.0-0" },
+                { "^0.0.3", ">=0.0.3 <0.0.4-0" },
+                { "^1.2.3-beta.2", ">=1.2.3-beta.2 <2.0.0-0" },
+                { "^1.x", ">=1.0.0 <2.0.0-0" },
+                { "^0.0.x", ">=0.0.0 <0.1.0-0" },
+                { "~1.2.3", ">=1.2.3 <1.3.0-0" },
+                { "~1.2", ">=1.2.0 <1.3.0-0" },
+                { "~>1", ">=1.0.0 <2.0.0-0" },
+                { "1.2.x", ">=1.2.0 <1.3.0-0" },
+                { ">1.2", ">=1.3.0" },
+                { "<=1.2", "<1.3.0-0" },
+                { ">= 1.2.3 < 2", ">=1.2.3 <2.0.0-0" },
+                { "1.2 - 2.3.4", ">=1.2.0 <=2.3.4" },
+                { "1.2.3 - 2", ">=1.2.3 <3.0.0-0" },
+                { "=v1.2.3", "1.2.3" },
+                { "", "*" },
+                { "*", "*" },
+                { ">*", "<0.0.0-0" },
+                { "^1.2.0 || ~2.3.1 || >=3 <4", ">=1.2.0 <2.0.0-0 || >=2.3.1 <2.4.0-0 || >=3.0.0 <4.0.0-0" },
+        };
+
+        for ( final String[] c : cases )
+        {
+            assertThat( c[0], NpmVersionRange.compile( c[0] ).toString(), equalTo( c[1] ) );
+        }
+    }
+
+    @Test
+    public void satisfiedBy()
+    {
+        final String[][] satisfied = {
+                { "^1.2.0 || ~2.3.1 || >=3 <4", "1.9.9", "2.3.5", "3.0.0" },
+                { "1.0.0 - 2.0.0", "1.0.0", "1.5.2", "2.0.0" },
+                { ">1.0.0 <=1.1.0", "1.0.1", "1.1.0" },
+                { "^1.2.3-beta.2", "1.2.3-beta.4", "1.2.3", "1.9.0" },
+                { "*", "0.0.1", "99.0.0" },
+                { ">=1.2.3-alpha <1.2.3", "1.2.3-alpha", "1.2.3-beta" },
+        };
+        final String[][] unsatisfied = {
+                { "^1.2.0 || ~2.3.1 || >=3 <4", "1.1.9", "2.4.0", "4.0.0", "4.0.0-rc.1" },
+                { "1.0.0 - 2.0.0", "0.9.9", "2.0.1" },
+                { ">1.0.0 <=1.1.0", "1.0.0", "1.1.1" },
+                // prereleases only match on the major.minor.patch a comparator names
+                { "^1.2.3-beta.2", "1.2.3-beta.1", "1.2.4-beta.1", "2.0.0-0" },
+                { "*", "1.0.0-rc.1" },
+                { "<1.2.3", "1.2.3-beta" },
+                { "^1.2.0", "1.3.0-beta" },
+        };
+
+        for ( final String[] c : satisfied )
+        {
+            final NpmVersionRange range = NpmVersionRange.compile( c[0] );
+            for ( int i = 1; i < c.length; i++ )
+            {
+                assertThat( c[0] + " / " + c[i], range.satisfiedBy( c[i] ), equalTo( true ) );
+            }
+        }
+
+        for ( final String[] c : unsatisfied )
+        {
+            final NpmVersionRange range = NpmVersionRange.compile( c[0] );
+            for ( int i = 1; i < c.length; i++ )
+            {
+                assertThat( c[0] + " / " + c[i], range.satisfiedBy( c[i] ), equalTo( false ) );
+            }
+        }
+    }
+
+    @Test
+    public void includePrerelease()
+    {
+        assertThat( NpmVersionRange.compile( "^1.2.0", true ).satisfiedBy( "1.3.0-beta" ), equalTo( true ) );
+        assertThat( NpmVersionRange.compile( "*", true ).satisfiedBy( "1.0.0-rc.1" ), equalTo( true ) );
+        assertThat( NpmVersionRange.compile( "^1.2.0", true ).satisfiedBy( "2.0.0-beta" ), equalTo( false ) );
+
+        final NpmVersionRange caret = NpmVersionRange.compile( "^1.2", true );
+        assertThat( caret.toString(), equalTo( ">=1.2.0-0 <2.0.0-0" ) );
+        assertThat( caret.satisfiedBy( "1.2.0-0" ), equalTo( true ) );
+        assertThat( caret.satisfiedBy( "1.2.0-1" ), equalTo( true ) );
+        assertThat( caret.satisfiedBy( "1.1.9" ), equalTo( false ) );
+
+        final NpmVersionRange x = NpmVersionRange.compile( "1.2.x", true );
+        assertThat( x.toString(), equalTo( ">=1.2.0-0 <1.3.0-0" ) );
+        assertThat( x.satisfiedBy( "1.2.0-0" ), equalTo( true ) );
+        assertThat( x.satisfiedBy( "1.3.0-0" ), equalTo( false ) );
+
+        final NpmVersionRange gt = NpmVersionRange.compile( ">1", true );
+        assertThat( gt.toString(), equalTo( ">=2.0.0-0" ) );
+        assertThat( gt.satisfiedBy( "2.0.0-0" ), equalTo( true ) );
+        assertThat( gt.satisfiedBy( "2.0.0-rc.1" ), equalTo( true ) );
+        assertThat( gt.satisfiedBy( "1.9.9" ), equalTo( false ) );
+    }
+
+    @Test
+    public void numbersBeyondThePackedRange()
+    {
+        final NpmVersionRange range = NpmVersionRange.compile( ">=1.20181201.0 <2" );
+
+        assertThat( range.satisfiedBy( "1.20190101.0" ), equalTo( true ) );
+        assertThat( range.satisfiedBy( "1.20180101.0" ), equalTo( false ) );
+    }
+
+    @Test( expected = InvalidNpmRefException.class )
+    public void invalidRange()
+    {
+        NpmVersionRange.compile( "^1.2.y" );
+    }
+
+    @Test( expected = InvalidNpmRefException.class )
+    public void leadingZeroIsInvalid()
+    {
+        NpmVersionRange.compile( ">=01.2.3" );
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class NpmVersionUtilsTest
+{
+    @Before
+    public void clearCache()
+    {
+        NpmVersionUtils.clearCache();
+    }
+
+    @Test
+    public void repeatedParsesShareInstance()
+    {
+        final Version first = NpmVersionUtils.valueOf( "1.2.3-beta.1+build.5" );
+        final Version second = NpmVersionUtils.valueOf( "1.2.3-beta.1+build.5" );
+
+        assertThat( second, sameInstance( first ) );
+        assertThat( NpmVersionUtils.getCacheHitCount(), equalTo( 1L ) );
+        assertThat( NpmVersionUtils.getCacheMissCount(), equalTo( 1L ) );
+        assertThat( NpmVersionUtils.getCacheHitRatio(), equalTo( 0.5 ) );
+    }
+
+    @Test
+    public void internReturnsCachedInstance()
+    {
+        final Version cached = NpmVersionUtils.valueOf( "2.0.0" );
+
+        assertThat( NpmVersionUtils.intern( Version.valueOf( "2.0.0" ) ), sameInstance( cached ) );
+
+        final Version fresh = Version.valueOf( "2.0.1" );
+        assertThat( NpmVersionUtils.intern( fresh ), sameInstance( fresh ) );
+        assertThat( NpmVersionUtils.valueOf( "2.0.1" ), sameInstance( fresh ) );
+    }
+
+    @Test
+    public void buildMetadataIsPartOfTheKey()
+    {
+        assertThat( NpmVersionUtils.valueOf( "1.0.0+a" ), not( sameInstance( NpmVersionUtils.valueOf( "1.0.0+b" ) ) ) );
+    }
+
+    @Test
+    public void cacheIsBounded()
+    {
+        for ( int i = 0; i < NpmVersionUtils.MAX_CACHED_VERSIONS * 2; i++ )
+        {
+            NpmVersionUtils.valueOf( "1.0." + i );
+        }
+
+        assertThat( NpmVersionUtils.getCacheSize() <= NpmVersionUtils.MAX_CACHED_VERSIONS, equalTo( true ) );
+    }
+
+    @Test
+    public void packageRefsShareVersions()
+    {
+        final NpmPackageRef parsed = NpmPackageRef.parse( "left-pad:1.3.0" );
+        final NpmPackageRef built = new NpmPackageRef( "left-pad", Version.valueOf( "1.3.0" ) );
+
+        assertThat( parsed.getVersion(), sameInstance( built.getVersion() ) );
+        assertThat( parsed, equalTo( built ) );
+    }
+}
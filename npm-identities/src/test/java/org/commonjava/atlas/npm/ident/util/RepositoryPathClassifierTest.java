@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.commonjava.atlas.maven.ident.util.ArtifactPathInfo;
+import org.commonjava.atlas.maven.ident.util.MavenMetadataPathInfo;
+import org.commonjava.atlas.maven.ident.util.PathInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RepositoryPathClassifierTest
+{
+    @Test
+    public void classifiesEachKind()
+    {
+        assertClassified( "/org/foo/bar/1.0/bar-1.0.pom", ArtifactPathInfo.class );
+        assertClassified( "/org/foo/bar/1.0/bar-1.0.jar.sha1", ArtifactPathInfo.class );
+        assertClassified( "/org/foo/bar/1.0/bar-1.0.tgz", ArtifactPathInfo.class );
+        assertClassified( "/org/foo/bar/maven-metadata.xml.md5", MavenMetadataPathInfo.class );
+        assertClassified( "/@babel/core/-/core-7.0.0.tgz", NpmPackagePathInfo.class );
+        assertClassified( "/@babel/core/-/@babel/core-7.0.0.tgz", NpmPackagePathInfo.class );
+
+        final PathInfo packument = RepositoryPathClassifier.classify( "/@babel%2Fcore" );
+        assertThat( packument instanceof NpmPackumentPathInfo, equalTo( true ) );
+        assertThat( ( (NpmPackumentPathInfo) packument ).getName(), equalTo( "@babel/core" ) );
+
+        assertThat( ( (NpmPackumentPathInfo) RepositoryPathClassifier.classify( "/lodash.merge/package.json" ) )
+                            .getName(), equalTo( "lodash.merge" ) );
+    }
+
+    private static void assertClassified( final String path, final Class<? extends PathInfo> type )
+    {
+        assertThat( path, type.isInstance( RepositoryPathClassifier.classify( path ) ), equalTo( true ) );
+    }
+
+    @Test
+    public void unrecognizedPaths()
+    {
+        assertThat( RepositoryPathClassifier.classify( "/" ), nullValue() );
+        assertThat( RepositoryPathClassifier.classify( "/org/foo/bar/" ), nullValue() );
+        assertThat( RepositoryPathClassifier.classify( "/org/foo/bar/1.0/other-1.0.jar" ), nullValue() );
+    }
+
+    @Test
+    public void agreesWithSequentialParsing()
+    {
+        final List<String> paths = pathMix();
+
+        for ( final String path : paths )
+        {
+            final PathInfo classified = RepositoryPathClassifier.classify( path );
+            if ( classified instanceof ArtifactPathInfo || classified instanceof NpmPackagePathInfo )
+            {
+                assertThat( path, classified.getFile(), equalTo( sequential( path ).getFile() ) );
+            }
+        }
+    }
+
+    /**
+     * What callers did before: try each parser in turn.
+     */
+    private static PathInfo sequential( final String path )
+    {
+        final PathInfo info = ArtifactPathInfo.parse( path );
+        return info != null ? info : NpmPackagePathInfo.parse( path );
+    }
+
+    /**
+     * Roughly the request mix a proxy sees: checksums outnumber artifacts, with metadata and npm traffic mixed in.
+     */
+    private static List<String> pathMix()
+    {
+        final List<String> paths = new ArrayList<String>();
+        for ( int i = 0; i < 100; i++ )
+        {
+            final String dir = "/org/commonjava/project-" + i + "/1." + i;
+            final String base = dir + "/project-" + i + "-1." + i;
+            paths.add( base + ".pom" );
+            paths.add( base + ".pom.sha1" );
+            paths.add( base + ".pom.md5" );
+            paths.add( base + ".jar" );
+            paths.add( base + ".jar.sha1" );
+            paths.add( base + ".jar.md5" );
+            paths.add( base + "-sources.jar.asc" );
+            paths.add( "/org/commonjava/project-" + i + "/maven-metadata.xml" );
+            paths.add( "/org/commonjava/project-" + i + "/maven-metadata.xml.sha1" );
+            paths.add( "/package-" + i + "/-/package-" + i + "-1." + i + ".0.tgz" );
+            paths.add( "/@scope/package-" + i + "/-/package-" + i + "-2." + i + ".0.tgz" );
+            paths.add( "/package-" + i );
+        }
+
+        return paths;
+    }
+}
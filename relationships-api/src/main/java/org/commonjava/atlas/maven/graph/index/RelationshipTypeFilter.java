@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.index;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+
+/**
+ * Accepts relationships of the given types, optionally excluding managed ones. With no types, all types are accepted.
+ */
+public final class RelationshipTypeFilter
+    implements RelationshipFilter
+{
+
+    private final Set<RelationshipType> types;
+
+    private final boolean includeManaged;
+
+    public RelationshipTypeFilter( final boolean includeManaged, final RelationshipType... types )
+    {
+        this.includeManaged = includeManaged;
+        this.types = types.length == 0 ? EnumSet.allOf( RelationshipType.class )
+                        : EnumSet.copyOf( Arrays.asList( types ) );
+    }
+
+    @Override
+    public boolean accept( final ProjectRelationship<?, ?> rel )
+    {
+        return types.contains( rel.getType() ) && ( includeManaged || !rel.isManaged() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RelationshipTypeFilter [types=" + types + ", includeManaged=" + includeManaged + "]";
+    }
+
+}
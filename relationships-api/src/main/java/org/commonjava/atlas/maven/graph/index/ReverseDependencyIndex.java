@@ -0,0 +1,470 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.index;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.util.RelationshipUtils;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.version.CompoundVersionSpec;
+import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
+import org.commonjava.atlas.maven.ident.version.RangeVersionSpec;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+import org.commonjava.atlas.maven.ident.version.VersionSpecComparisons;
+
+/**
+ * Answers "which projects use X" without scanning every {@link EProjectDirectRelationships}.
+ *
+ * Relationships are posted under their target's {@link ProjectRef}. Within a project, concrete target versions are
+ * kept sorted with {@link VersionSpecComparisons}, so a {@link RangeVersionSpec} query only visits the versions inside
+ * its bounds. Targets declared with a range are matched when their bounds overlap the query's, that is when at least
+ * one version could satisfy both; a compound range matches if any of its components does. Targets whose version
+ * cannot be parsed only match queries for any version.
+ *
+ * {@link #update(EProjectDirectRelationships)} and {@link #remove(ProjectVersionRef)} touch only the postings of the
+ * project's own relationships.
+ */
+public final class ReverseDependencyIndex
+{
+
+    private final Map<ProjectVersionRef, EProjectDirectRelationships> projects =
+        new HashMap<ProjectVersionRef, EProjectDirectRelationships>();
+
+    private final Map<ProjectRef, Postings> postings = new HashMap<ProjectRef, Postings>();
+
+    public ReverseDependencyIndex()
+    {
+    }
+
+    public ReverseDependencyIndex( final Collection<EProjectDirectRelationships> relationships )
+    {
+        for ( final EProjectDirectRelationships rels : relationships )
+        {
+            update( rels );
+        }
+    }
+
+    /**
+     * Add a project's relationships to the index, replacing those previously indexed for the same project.
+     */
+    public synchronized void update( final EProjectDirectRelationships relationships )
+    {
+        final EProjectDirectRelationships old = projects.put( relationships.getProjectRef(), relationships );
+        if ( old != null )
+        {
+            unpost( old );
+        }
+
+        for ( final ProjectRelationship<?, ?> rel : relationships.getRelationshipList() )
+        {
+            if ( RelationshipUtils.isTerminalParent( rel ) )
+            {
+                continue;
+            }
+
+            final ProjectRef key = rel.getTarget()
+                                      .asProjectRef();
+            Postings p = postings.get( key );
+            if ( p == null )
+            {
+                p = new Postings();
+                postings.put( key, p );
+            }
+
+            p.add( rel );
+        }
+    }
+
+    /**
+     * Remove a project's relationships from the index.
+     *
+     * @return the relationships that were indexed for the project, or null.
+     */
+    public synchronized EProjectDirectRelationships remove( final ProjectVersionRef project )
+    {
+        final EProjectDirectRelationships old = projects.remove( project );
+        if ( old != null )
+        {
+            unpost( old );
+        }
+
+        return old;
+    }
+
+    public synchronized boolean contains( final ProjectVersionRef project )
+    {
+        return projects.containsKey( project );
+    }
+
+    public synchronized int size()
+    {
+        return projects.size();
+    }
+
+    /**
+     * @param target the used project
+     * @param spec the versions of interest; null for any version
+     * @param filter relationships to include; null for all
+     * @return relationships pointing at a matching version of the target, in ascending target version order
+     */
+    public synchronized Set<ProjectRelationship<?, ?>> getRelationshipsTargeting( final ProjectRef target,
+                                                                             final VersionSpec spec,
+                                                                             final RelationshipFilter filter )
+    {
+        final Set<ProjectRelationship<?, ?>> result = new LinkedHashSet<ProjectRelationship<?, ?>>();
+        final Postings p = postings.get( target.asProjectRef() );
+        if ( p != null )
+        {
+            p.collect( spec, filter, result );
+        }
+
+        return result;
+    }
+
+    /**
+     * @return projects declaring a relationship to a matching version of the target
+     */
+    public synchronized Set<ProjectVersionRef> getDirectUsers( final ProjectRef target, final VersionSpec spec,
+                                                               final RelationshipFilter filter )
+    {
+        final Set<ProjectVersionRef> result = new LinkedHashSet<ProjectVersionRef>();
+        for ( final ProjectRelationship<?, ?> rel : getRelationshipsTargeting( target, spec, filter ) )
+        {
+            result.add( rel.getDeclaring() );
+        }
+
+        return result;
+    }
+
+    /**
+     * Expand {@link #getDirectUsers(ProjectRef, VersionSpec, RelationshipFilter)} breadth-first: users of each user are
+     * looked up by its exact version, following only relationships accepted by the filter.
+     *
+     * @return every project that reaches a matching version of the target, mapped to its distance from it
+     */
+    public synchronized Map<ProjectVersionRef, Integer> getTransitiveUsers( final ProjectRef target,
+                                                                          final VersionSpec spec,
+                                                                          final RelationshipFilter filter )
+    {
+        final Map<ProjectVersionRef, Integer> result = new LinkedHashMap<ProjectVersionRef, Integer>();
+        final LinkedList<ProjectVersionRef> frontier = new LinkedList<ProjectVersionRef>();
+
+        for ( final ProjectVersionRef user : getDirectUsers( target, spec, filter ) )
+        {
+            result.put( user, 1 );
+            frontier.add( user );
+        }
+
+        final Set<ProjectRelationship<?, ?>> rels = new LinkedHashSet<ProjectRelationship<?, ?>>();
+        while ( !frontier.isEmpty() )
+        {
+            final ProjectVersionRef next = frontier.removeFirst();
+            final int depth = result.get( next ) + 1;
+
+            final Postings p = postings.get( next.asProjectRef() );
+            if ( p == null )
+            {
+                continue;
+            }
+
+            rels.clear();
+            p.collectExact( next, filter, rels );
+            for ( final ProjectRelationship<?, ?> rel : rels )
+            {
+                final ProjectVersionRef user = rel.getDeclaring();
+                if ( !result.containsKey( user ) )
+                {
+                    result.put( user, depth );
+                    frontier.add( user );
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void unpost( final EProjectDirectRelationships relationships )
+    {
+        for ( final ProjectRelationship<?, ?> rel : relationships.getRelationshipList() )
+        {
+            final ProjectRef key = rel.getTarget()
+                                      .asProjectRef();
+            final Postings p = postings.get( key );
+            if ( p != null && p.remove( rel ) && p.isEmpty() )
+            {
+                postings.remove( key );
+            }
+        }
+    }
+
+    private static VersionSpec specOf( final ProjectVersionRef ref )
+    {
+        try
+        {
+            return ref.getVersionSpec();
+        }
+        catch ( final InvalidVersionSpecificationException e )
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Relationships targeting the versions of one project.
+     */
+    private static final class Postings
+    {
+        private final NavigableMap<VersionSpec, Set<ProjectRelationship<?, ?>>> versions =
+            new TreeMap<VersionSpec, Set<ProjectRelationship<?, ?>>>( VersionSpecComparisons.comparator() );
+
+        // ranges, compound specs and unparseable versions, by raw version string.
+        private final Map<String, Set<ProjectRelationship<?, ?>>> others =
+            new HashMap<String, Set<ProjectRelationship<?, ?>>>();
+
+        void add( final ProjectRelationship<?, ?> rel )
+        {
+            final VersionSpec spec = specOf( rel.getTarget() );
+            Set<ProjectRelationship<?, ?>> rels;
+            if ( spec != null && spec.isSingle() )
+            {
+                final SingleVersion single = spec.getSingleVersion();
+                rels = versions.get( single );
+                if ( rels == null )
+                {
+                    rels = new LinkedHashSet<ProjectRelationship<?, ?>>();
+                    versions.put( single, rels );
+                }
+            }
+            else
+            {
+                final String raw = rel.getTarget()
+                                      .getVersionString();
+                rels = others.get( raw );
+                if ( rels == null )
+                {
+                    rels = new LinkedHashSet<ProjectRelationship<?, ?>>();
+                    others.put( raw, rels );
+                }
+            }
+
+            rels.add( rel );
+        }
+
+        boolean remove( final ProjectRelationship<?, ?> rel )
+        {
+            final VersionSpec spec = specOf( rel.getTarget() );
+            final Map<?, Set<ProjectRelationship<?, ?>>> map;
+            final Object key;
+            if ( spec != null && spec.isSingle() )
+            {
+                map = versions;
+                key = spec.getSingleVersion();
+            }
+            else
+            {
+                map = others;
+                key = rel.getTarget()
+                         .getVersionString();
+            }
+
+            final Set<ProjectRelationship<?, ?>> rels = map.get( key );
+            if ( rels == null || !rels.remove( rel ) )
+            {
+                return false;
+            }
+
+            if ( rels.isEmpty() )
+            {
+                map.remove( key );
+            }
+
+            return true;
+        }
+
+        boolean isEmpty()
+        {
+            return versions.isEmpty() && others.isEmpty();
+        }
+
+        void collectExact( final ProjectVersionRef ref, final RelationshipFilter filter,
+                           final Set<ProjectRelationship<?, ?>> result )
+        {
+            final VersionSpec spec = specOf( ref );
+            if ( spec == null )
+            {
+                addAll( others.get( ref.getVersionString() ), filter, result );
+                return;
+            }
+
+            collect( spec, filter, result );
+        }
+
+        void collect( final VersionSpec spec, final RelationshipFilter filter,
+                      final Set<ProjectRelationship<?, ?>> result )
+        {
+            if ( spec == null )
+            {
+                for ( final Set<ProjectRelationship<?, ?>> rels : versions.values() )
+                {
+                    addAll( rels, filter, result );
+                }
+            }
+            else if ( spec instanceof CompoundVersionSpec )
+            {
+                for ( final VersionSpec component : (CompoundVersionSpec) spec )
+                {
+                    collectVersions( component, filter, result );
+                }
+            }
+            else
+            {
+                collectVersions( spec, filter, result );
+            }
+
+            for ( final Set<ProjectRelationship<?, ?>> rels : others.values() )
+            {
+                final VersionSpec declared = specOf( rels.iterator()
+                                                         .next()
+                                                         .getTarget() );
+                if ( spec == null || ( declared != null && overlaps( declared, spec ) ) )
+                {
+                    addAll( rels, filter, result );
+                }
+            }
+        }
+
+        private void collectVersions( final VersionSpec spec, final RelationshipFilter filter,
+                                      final Set<ProjectRelationship<?, ?>> result )
+        {
+            if ( spec.isSingle() )
+            {
+                addAll( versions.get( spec.getSingleVersion() ), filter, result );
+                return;
+            }
+
+            final RangeVersionSpec range = (RangeVersionSpec) spec;
+            final SingleVersion lower = range.getLowerBound();
+            final SingleVersion upper = range.getUpperBound();
+
+            NavigableMap<VersionSpec, Set<ProjectRelationship<?, ?>>> slice = versions;
+            if ( lower != null )
+            {
+                slice = slice.tailMap( lower, range.isLowerBoundInclusive() );
+            }
+            if ( upper != null )
+            {
+                slice = slice.headMap( upper, range.isUpperBoundInclusive() );
+            }
+
+            for ( final Map.Entry<VersionSpec, Set<ProjectRelationship<?, ?>>> entry : slice.entrySet() )
+            {
+                if ( range.contains( entry.getKey() ) )
+                {
+                    addAll( entry.getValue(), filter, result );
+                }
+            }
+        }
+
+        /**
+         * @return true if some version could satisfy both specs; containment either way is not enough, since a
+         * project declaring [1.0,2.0) is affected by [1.5,3.0)
+         */
+        private static boolean overlaps( final VersionSpec first, final VersionSpec second )
+        {
+            if ( first instanceof CompoundVersionSpec || second instanceof CompoundVersionSpec )
+            {
+                final VersionSpec compound = first instanceof CompoundVersionSpec ? first : second;
+                final VersionSpec other = compound == first ? second : first;
+                for ( final VersionSpec component : (CompoundVersionSpec) compound )
+                {
+                    if ( overlaps( component, other ) )
+                    {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if ( first.isSingle() )
+            {
+                return second.contains( first.getSingleVersion() );
+            }
+            else if ( second.isSingle() )
+            {
+                return first.contains( second.getSingleVersion() );
+            }
+
+            final RangeVersionSpec a = (RangeVersionSpec) first;
+            final RangeVersionSpec b = (RangeVersionSpec) second;
+            return below( a.getLowerBound(), a.isLowerBoundInclusive(), b.getUpperBound(), b.isUpperBoundInclusive() )
+                    && below( b.getLowerBound(), b.isLowerBoundInclusive(), a.getUpperBound(),
+                              a.isUpperBoundInclusive() );
+        }
+
+        /**
+         * @return true if some version is at or above the lower bound and at or below the upper one; a null bound is
+         * unbounded
+         */
+        private static boolean below( final SingleVersion lower, final boolean lowerInclusive,
+                                      final SingleVersion upper, final boolean upperInclusive )
+        {
+            if ( lower == null || upper == null )
+            {
+                return true;
+            }
+
+            final int comp = VersionSpecComparisons.compareTo( lower, upper );
+            return comp < 0 || ( comp == 0 && lowerInclusive && upperInclusive );
+        }
+
+        private static void addAll( final Set<ProjectRelationship<?, ?>> rels, final RelationshipFilter filter,
+                                    final Set<ProjectRelationship<?, ?>> result )
+        {
+            if ( rels == null )
+            {
+                return;
+            }
+
+            if ( filter == null )
+            {
+                result.addAll( rels );
+                return;
+            }
+
+            for ( final ProjectRelationship<?, ?> rel : rels )
+            {
+                if ( filter.accept( rel ) )
+                {
+                    result.add( rel );
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the compact form written by {@link CompactRelationshipsSerializer}. Each ref table entry is parsed once, so
+ * all relationships in the document share the same ref instances (in particular, the same declaring
+ * {@link org.commonjava.atlas.maven.ident.ref.ProjectVersionRef}). The ref table must precede the relationships.
+ */
+public final class CompactRelationshipsDeserializer
+        extends StdDeserializer<EProjectDirectRelationships>
+{
+    private static final long serialVersionUID = 1L;
+
+    public CompactRelationshipsDeserializer()
+    {
+        super( EProjectDirectRelationships.class );
+    }
+
+    @Override
+    public EProjectDirectRelationships deserialize( final JsonParser jp, final DeserializationContext ctx )
+            throws JsonProcessingException, IOException
+    {
+        URI source = null;
+        RefTable refs = null;
+        int gav = -1;
+        final List<ProjectRelationship<?, ?>> rels = new ArrayList<ProjectRelationship<?, ?>>();
+
+        JsonToken token = jp.getCurrentToken();
+        if ( token == JsonToken.START_OBJECT )
+        {
+            token = jp.nextToken();
+        }
+
+        while ( token == JsonToken.FIELD_NAME )
+        {
+            final String field = jp.getCurrentName();
+            token = jp.nextToken();
+
+            if ( token == JsonToken.VALUE_NULL )
+            {
+                // nulls leave the defaults in place.
+            }
+            else if ( SerializationConstants.SOURCE_URI.equals( field ) )
+            {
+                source = ProjectRelationshipDeserializer.toURI( jp, field );
+            }
+            else if ( SerializationConstants.REFS.equals( field ) )
+            {
+                final List<String> entries = new ArrayList<String>();
+                while ( jp.nextToken() != JsonToken.END_ARRAY )
+                {
+                    entries.add( jp.getText() );
+                }
+                refs = new RefTable( entries );
+            }
+            else if ( SerializationConstants.GAV.equals( field ) )
+            {
+                gav = jp.getIntValue();
+            }
+            else if ( SerializationConstants.RELATIONSHIPS.equals( field ) )
+            {
+                if ( refs == null )
+                {
+                    throw new JsonParseException( "Field: " + SerializationConstants.RELATIONSHIPS
+                                                          + " found before the ref table (field: "
+                                                          + SerializationConstants.REFS + ")",
+                                                  jp.getCurrentLocation() );
+                }
+
+                while ( jp.nextToken() == JsonToken.START_OBJECT )
+                {
+                    rels.add( ProjectRelationshipDeserializer.read( jp, refs, false ) );
+                }
+            }
+            else
+            {
+                jp.skipChildren();
+            }
+
+            token = jp.nextToken();
+        }
+
+        if ( refs == null || gav < 0 )
+        {
+            throw new JsonParseException( "Missing ref table or project ref (fields: " + SerializationConstants.REFS
+                                                  + ", " + SerializationConstants.GAV + ")",
+                                          jp.getCurrentLocation() );
+        }
+
+        return new EProjectDirectRelationships.Builder( source, refs.versionRef( refs.get( gav, jp ) ) )
+                .withRelationships( rels )
+                .build();
+    }
+}
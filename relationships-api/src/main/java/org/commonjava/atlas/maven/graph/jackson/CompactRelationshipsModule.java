@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+
+/**
+ * Opt-in module that switches {@link EProjectDirectRelationships} to the compact, ref-table form. Register it
+ * alongside {@link ProjectRelationshipSerializerModule}; both ends of the wire must use it.
+ */
+public class CompactRelationshipsModule
+        extends SimpleModule
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public static final CompactRelationshipsModule INSTANCE = new CompactRelationshipsModule();
+
+    public CompactRelationshipsModule()
+    {
+        super( "EProjectDirectRelationships Compact Serializer" );
+
+        addSerializer( EProjectDirectRelationships.class, new CompactRelationshipsSerializer() );
+        addDeserializer( EProjectDirectRelationships.class, new CompactRelationshipsDeserializer() );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return getClass().getSimpleName().hashCode() + 17;
+    }
+
+    @Override
+    public boolean equals( final Object other )
+    {
+        return getClass().equals( other.getClass() );
+    }
+
+}
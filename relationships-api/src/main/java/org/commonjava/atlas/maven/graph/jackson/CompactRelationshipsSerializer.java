@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes {@link EProjectDirectRelationships} in the compact form: every distinct ref is written once, in a
+ * document-level table, and relationships refer to it by index:
+ *
+ * <pre>
+ * { "source-uri": "...", "refs": [ "org.foo:bar:1", ... ], "gav": 0, "relationships": [ { ..., "declaring": 0,
+ *   "target": 3 }, ... ] }
+ * </pre>
+ *
+ * Relationship fields are otherwise the same as written by {@link ProjectRelationshipSerializer}.
+ */
+public final class CompactRelationshipsSerializer
+        extends StdSerializer<EProjectDirectRelationships>
+{
+    private static final long serialVersionUID = 1L;
+
+    public CompactRelationshipsSerializer()
+    {
+        super( EProjectDirectRelationships.class );
+    }
+
+    @Override
+    public void serialize( final EProjectDirectRelationships value, final JsonGenerator gen,
+                           final SerializerProvider provider )
+            throws IOException, JsonGenerationException
+    {
+        final List<ProjectRelationship<?, ?>> rels = value.getRelationshipList();
+
+        final Map<String, Integer> refTable = new LinkedHashMap<String, Integer>();
+        index( value.getProjectRef(), refTable );
+        for ( final ProjectRelationship<?, ?> rel : rels )
+        {
+            index( rel.getDeclaring(), refTable );
+            index( rel.getTarget(), refTable );
+            if ( rel.getType() == RelationshipType.PLUGIN_DEP )
+            {
+                index( ( (PluginDependencyRelationship) rel ).getPlugin(), refTable );
+            }
+        }
+
+        gen.writeStartObject();
+        if ( value.getSource() != null )
+        {
+            gen.writeStringField( SerializationConstants.SOURCE_URI, value.getSource().toString() );
+        }
+
+        gen.writeArrayFieldStart( SerializationConstants.REFS );
+        for ( final String ref : refTable.keySet() )
+        {
+            gen.writeString( ref );
+        }
+        gen.writeEndArray();
+
+        gen.writeNumberField( SerializationConstants.GAV, 0 );
+
+        gen.writeArrayFieldStart( SerializationConstants.RELATIONSHIPS );
+        for ( final ProjectRelationship<?, ?> rel : rels )
+        {
+            ProjectRelationshipSerializer.write( rel, gen, refTable );
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private static void index( final ProjectRef ref, final Map<String, Integer> refTable )
+    {
+        if ( ref == null )
+        {
+            return;
+        }
+
+        final String key = ref.toString();
+        if ( !refTable.containsKey( key ) )
+        {
+            refTable.put( key, refTable.size() );
+        }
+    }
+}
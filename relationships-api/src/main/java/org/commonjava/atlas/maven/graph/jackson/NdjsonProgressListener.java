@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+/**
+ * Receives periodic progress from {@link RelationshipNdjsonReader} and {@link RelationshipNdjsonWriter}.
+ */
+public interface NdjsonProgressListener
+{
+
+    /**
+     * @param records relationships processed so far
+     * @param bytes bytes consumed or produced so far
+     * @param elapsedMillis time since the stream was opened
+     */
+    void progress( long records, long bytes, long elapsedMillis );
+
+}
@@ -18,6 +18,13 @@ package org.commonjava.atlas.maven.graph.jackson;
 import com.fasterxml.jackson.core.*;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import org.commonjava.atlas.maven.graph.rel.AbstractLazyProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyExtensionRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyPluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyPluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.RelationshipConstants;
 import org.commonjava.atlas.maven.graph.rel.RelationshipType;
@@ -40,7 +47,9 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 
 /**
  * Created by jdcasey on 8/26/15.
@@ -51,166 +60,199 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
 {
     private static final long serialVersionUID = 1L;
 
+    private static final Logger LOGGER = LoggerFactory.getLogger( ProjectRelationshipDeserializer.class );
+
+    private final boolean lazy;
+
     public ProjectRelationshipDeserializer()
+    {
+        this( false );
+    }
+
+    /**
+     * @param lazy if true, return relationships that keep the raw field strings and parse URIs and refs on first
+     * access (see {@link AbstractLazyProjectRelationship})
+     */
+    public ProjectRelationshipDeserializer( final boolean lazy )
     {
         super( ProjectRelationship.class );
+        this.lazy = lazy;
     }
 
     @Override
     public T deserialize( final JsonParser jp, final DeserializationContext ctx )
             throws JsonProcessingException, IOException
     {
-        Map<String, Object> ast = new HashMap<String, Object>();
-        Map<String, JsonLocation> locations = new HashMap<String, JsonLocation>();
+        return (T) read( jp, null, lazy );
+    }
+
+    /**
+     * Read one relationship. If refs is given, ref fields are expected as indexes into it, and equal refs resolve to
+     * the same instance; see {@link CompactRelationshipsDeserializer}. Lazy reading only applies without a ref
+     * table, since the table already parses each ref once.
+     */
+    static ProjectRelationship<?, ?> read( final JsonParser jp, final RefTable refs, final boolean lazy )
+            throws IOException
+    {
+        final boolean raw = lazy && refs == null;
+
+        RelationshipType type = null;
+        URI pomLocation = RelationshipConstants.POM_ROOT_URI;
+        Collection<URI> sources = new HashSet<URI>();
+        String rawPomLocation = null;
+        final Collection<String> rawSources = raw ? new ArrayList<String>() : null;
+        String decl = null;
+        String tgt = null;
+        String plug = null;
+        String scp = null;
+        int index = 0;
+        boolean managed = false;
+        boolean inherited = false;
+        boolean mixin = false;
+        boolean optional = false;
+        boolean reporting = false;
 
         JsonToken token = jp.getCurrentToken();
-        String currentField = null;
-        List<String> currentArry = null;
+        if ( token == JsonToken.START_OBJECT )
+        {
+            token = jp.nextToken();
+        }
 
-        Logger logger = LoggerFactory.getLogger( getClass() );
-        do
+        while ( token == JsonToken.FIELD_NAME )
         {
-            //                logger.info( "Token: {}", token );
-            switch ( token )
+            final String field = jp.getCurrentName();
+            token = jp.nextToken();
+
+            if ( token == JsonToken.VALUE_NULL )
+            {
+                // nulls leave the defaults in place.
+            }
+            else if ( SerializationConstants.DECLARING_REF.equals( field ) )
+            {
+                decl = refText( jp, refs );
+            }
+            else if ( SerializationConstants.TARGET_REF.equals( field ) )
+            {
+                tgt = refText( jp, refs );
+            }
+            else if ( SerializationConstants.RELATIONSHIP_TYPE.equals( field ) )
             {
-                case START_ARRAY:
+                type = RelationshipType.getType( jp.getText() );
+            }
+            else if ( SerializationConstants.INDEX.equals( field ) )
+            {
+                index = jp.getIntValue();
+            }
+            else if ( SerializationConstants.POM_LOCATION_URI.equals( field ) )
+            {
+                if ( raw )
                 {
-                    //                        logger.info( "Starting array for field: {}", currentField );
-                    currentArry = new ArrayList<String>();
-                    break;
+                    rawPomLocation = jp.getText();
                 }
-                case END_ARRAY:
-                    //                        logger.info( "Ending array for field: {}", currentField );
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, currentArry );
-                    currentArry = null;
-                    break;
-                case FIELD_NAME:
-                    currentField = jp.getCurrentName();
-                    break;
-                case VALUE_STRING:
-                    if ( currentArry != null )
-                    {
-                        currentArry.add( jp.getText() );
-                    }
-                    else
+                else
+                {
+                    pomLocation = toURI( jp, field );
+                }
+            }
+            else if ( SerializationConstants.SOURCE_URIS.equals( field ) )
+            {
+                if ( token == JsonToken.START_ARRAY )
+                {
+                    while ( ( token = jp.nextToken() ) != JsonToken.END_ARRAY )
                     {
-                        locations.put( currentField, jp.getCurrentLocation() );
-                        ast.put( currentField, jp.getText() );
+                        if ( token == JsonToken.VALUE_STRING && raw )
+                        {
+                            rawSources.add( jp.getText() );
+                        }
+                        else if ( token == JsonToken.VALUE_STRING )
+                        {
+                            sources.add( toURI( jp, field ) );
+                        }
                     }
-                    break;
-                case VALUE_NUMBER_INT:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, jp.getIntValue() );
-                    break;
-                case VALUE_NUMBER_FLOAT:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, jp.getFloatValue() );
-                    break;
-                case VALUE_TRUE:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, Boolean.TRUE );
-                    break;
-                case VALUE_FALSE:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, Boolean.FALSE );
-                    break;
+                }
             }
-
-            token = jp.nextToken();
-        }
-        while ( token != JsonToken.END_OBJECT );
-
-        StringBuilder sb = new StringBuilder();
-        sb.append( "AST is:" );
-        for ( String field : ast.keySet() )
-        {
-            Object value = ast.get( field );
-            sb.append( "\n  " ).append( field ).append( " = " );
-            if ( value == null )
+            else if ( SerializationConstants.SCOPE.equals( field ) )
+            {
+                scp = jp.getText();
+            }
+            else if ( SerializationConstants.PLUGIN_REF.equals( field ) )
+            {
+                plug = refText( jp, refs );
+            }
+            else if ( SerializationConstants.MANAGED.equals( field ) )
+            {
+                // handle null implicitly by comparing to true.
+                managed = token == JsonToken.VALUE_TRUE;
+            }
+            else if ( SerializationConstants.INHERITED.equals( field ) )
+            {
+                inherited = token == JsonToken.VALUE_TRUE;
+            }
+            else if ( SerializationConstants.OPTIONAL.equals( field ) )
+            {
+                optional = token == JsonToken.VALUE_TRUE;
+            }
+            else if ( SerializationConstants.MIXIN.equals( field ) )
             {
-                sb.append( "null" );
+                mixin = token == JsonToken.VALUE_TRUE;
+            }
+            else if ( SerializationConstants.REPORTING.equals( field ) )
+            {
+                reporting = token == JsonToken.VALUE_TRUE;
             }
             else
             {
-                sb.append( value ).append( "  (type: " ).append( value.getClass().getSimpleName() ).append( ")" );
+                jp.skipChildren();
             }
+
+            token = jp.nextToken();
         }
 
-        logger.debug( sb.toString() );
+        if ( LOGGER.isDebugEnabled() )
+        {
+            LOGGER.debug( "Read relationship: type={}, declaring={}, target={}, index={}, pomLocation={}, sources={}",
+                          new Object[] { type, decl, tgt, index, raw ? rawPomLocation : pomLocation,
+                                  raw ? rawSources : sources } );
+        }
 
-        final RelationshipType type = RelationshipType.getType( (String) ast.get( SerializationConstants.RELATIONSHIP_TYPE ) );
+        if ( type == null )
+        {
+            throw new JsonParseException( "Missing or invalid relationship type (field: "
+                                                  + SerializationConstants.RELATIONSHIP_TYPE + ")",
+                                          jp.getCurrentLocation() );
+        }
 
-        final String uri = (String) ast.get( SerializationConstants.POM_LOCATION_URI );
-        URI pomLocation;
-        if ( uri == null )
+        final DependencyScope scope;
+        if ( scp == null )
         {
-            pomLocation = RelationshipConstants.POM_ROOT_URI;
+            scope = DependencyScope.compile;
         }
         else
         {
-            try
-            {
-                pomLocation = new URI( uri );
-            }
-            catch ( final URISyntaxException e )
-            {
-                throw new JsonParseException( "Invalid " + SerializationConstants.POM_LOCATION_URI + ": '" + uri + "': " + e.getMessage(),
-                                              locations.get( SerializationConstants.POM_LOCATION_URI ), e );
-            }
+            scope = DependencyScope.getScope( scp );
         }
 
-        Collection<URI> sources = new HashSet<URI>();
-        List<String> srcs = (List<String>) ast.get( SerializationConstants.SOURCE_URIS );
-        if ( srcs != null )
+        if ( type == RelationshipType.PLUGIN_DEP && plug == null )
         {
-            for ( String u : srcs )
-            {
-                try
-                {
-                    sources.add( new URI( u ) );
-                }
-                catch ( URISyntaxException e )
-                {
-                    throw new JsonParseException( "Failed to parse source URI: " + u,
-                                                  locations.get( SerializationConstants.SOURCE_URIS ) );
-                }
-            }
+            throw new JsonParseException( "No plugin reference (field: " + SerializationConstants.PLUGIN_REF
+                                                  + ") found in plugin-dependency relationship!",
+                                          jp.getCurrentLocation() );
         }
 
-        String decl = (String) ast.get( SerializationConstants.DECLARING_REF );
-        final ProjectVersionRef declaring = SimpleProjectVersionRef.parse( decl );
-
-        String tgt = (String) ast.get( SerializationConstants.TARGET_REF );
-        Integer index = (Integer) ast.get( SerializationConstants.INDEX );
-        if ( index == null )
+        if ( raw )
         {
-            index = 0;
+            return readLazy( type, rawSources, rawPomLocation, decl, tgt, plug, scope, index, managed, inherited,
+                             mixin, optional, reporting );
         }
 
-        // handle null implicitly by comparing to true.
-        boolean managed = Boolean.TRUE.equals( ast.get( SerializationConstants.MANAGED ) );
-        boolean inherited = Boolean.TRUE.equals( ast.get( SerializationConstants.INHERITED ) );
-        boolean mixin = Boolean.TRUE.equals( ast.get( SerializationConstants.MIXIN ) );
-        boolean optional = Boolean.TRUE.equals( ast.get( SerializationConstants.OPTIONAL ) );
+        final ProjectVersionRef declaring = versionRef( decl, refs );
 
         ProjectRelationship<?, ?> rel = null;
         switch ( type )
         {
             case DEPENDENCY:
             {
-                final ArtifactRef target = SimpleArtifactRef.parse( tgt );
-
-                String scp = (String) ast.get( SerializationConstants.SCOPE );
-                final DependencyScope scope;
-                if ( scp == null )
-                {
-                    scope = DependencyScope.compile;
-                }
-                else
-                {
-                    scope = DependencyScope.getScope( scp );
-                }
+                final ArtifactRef target = artifactRef( tgt, refs );
 
                 rel = new SimpleDependencyRelationship( sources, pomLocation, declaring, target, scope, index,
                                                         managed, inherited, optional );
@@ -218,39 +260,30 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
             }
             case EXTENSION:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = versionRef( tgt, refs );
 
                 rel = new SimpleExtensionRelationship( sources, pomLocation, declaring, target, index, inherited );
                 break;
             }
             case PARENT:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = versionRef( tgt, refs );
 
                 rel = new SimpleParentRelationship( sources, declaring, target );
                 break;
             }
             case PLUGIN:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = versionRef( tgt, refs );
 
-                Boolean report = (Boolean) ast.get( SerializationConstants.REPORTING );
                 rel = new SimplePluginRelationship( sources, pomLocation, declaring, target, index, managed,
-                                                    Boolean.TRUE.equals( report ), inherited );
+                                                    reporting, inherited );
                 break;
             }
             case PLUGIN_DEP:
             {
-                String plug = (String) ast.get( SerializationConstants.PLUGIN_REF );
-                if ( plug == null )
-                {
-                    throw new JsonParseException( "No plugin reference (field: " + SerializationConstants.PLUGIN_REF
-                                                          + ") found in plugin-dependency relationship!",
-                                                  jp.getCurrentLocation() );
-                }
-
-                final ProjectRef plugin = SimpleProjectRef.parse( plug );
-                final ArtifactRef target = SimpleArtifactRef.parse( tgt );
+                final ProjectRef plugin = projectRef( plug, refs );
+                final ArtifactRef target = artifactRef( tgt, refs );
 
                 rel = new SimplePluginDependencyRelationship( sources, pomLocation, declaring, plugin, target,
                                                               index, managed, inherited );
@@ -258,13 +291,84 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
             }
             case BOM:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = versionRef( tgt, refs );
 
                 rel = new SimpleBomRelationship( sources, pomLocation, declaring, target, index, inherited, mixin );
                 break;
             }
         }
 
-        return (T) rel;
+        return rel;
+    }
+
+    private static ProjectRelationship<?, ?> readLazy( final RelationshipType type,
+                                                       final Collection<String> sources, final String pomLocation,
+                                                       final String decl, final String tgt, final String plug,
+                                                       final DependencyScope scope, final int index,
+                                                       final boolean managed, final boolean inherited,
+                                                       final boolean mixin, final boolean optional,
+                                                       final boolean reporting )
+    {
+        switch ( type )
+        {
+            case DEPENDENCY:
+                return new LazyDependencyRelationship( sources, pomLocation, decl, tgt, scope, index, managed,
+                                                       inherited, optional );
+            case EXTENSION:
+                return new LazyExtensionRelationship( sources, pomLocation, decl, tgt, index, inherited );
+            case PARENT:
+                return new LazyParentRelationship( sources, decl, tgt );
+            case PLUGIN:
+                return new LazyPluginRelationship( sources, pomLocation, decl, tgt, index, managed, reporting,
+                                                   inherited );
+            case PLUGIN_DEP:
+                return new LazyPluginDependencyRelationship( sources, pomLocation, decl, plug, tgt, index, managed,
+                                                             inherited );
+            case BOM:
+                return new LazyBomRelationship( sources, pomLocation, decl, tgt, index, inherited, mixin );
+            default:
+                return null;
+        }
+    }
+
+    private static String refText( final JsonParser jp, final RefTable refs )
+            throws IOException
+    {
+        if ( refs != null && jp.getCurrentToken() == JsonToken.VALUE_NUMBER_INT )
+        {
+            return refs.get( jp.getIntValue(), jp );
+        }
+
+        return jp.getText();
+    }
+
+    private static ProjectVersionRef versionRef( final String value, final RefTable refs )
+    {
+        return refs == null ? SimpleProjectVersionRef.parse( value ) : refs.versionRef( value );
+    }
+
+    private static ArtifactRef artifactRef( final String value, final RefTable refs )
+    {
+        return refs == null ? SimpleArtifactRef.parse( value ) : refs.artifactRef( value );
+    }
+
+    private static ProjectRef projectRef( final String value, final RefTable refs )
+    {
+        return refs == null ? SimpleProjectRef.parse( value ) : refs.projectRef( value );
+    }
+
+    static URI toURI( final JsonParser jp, final String field )
+            throws IOException
+    {
+        final String value = jp.getText();
+        try
+        {
+            return new URI( value );
+        }
+        catch ( final URISyntaxException e )
+        {
+            throw new JsonParseException( "Invalid " + field + ": '" + value + "': " + e.getMessage(),
+                                          jp.getCurrentLocation(), e );
+        }
     }
 }
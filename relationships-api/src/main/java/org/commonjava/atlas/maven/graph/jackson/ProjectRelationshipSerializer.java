@@ -19,14 +19,16 @@ import com.fasterxml.jackson.core.JsonGenerationException;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.commonjava.atlas.maven.graph.rel.AbstractSimpleProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 
 import java.io.IOException;
 import java.net.URI;
-import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -41,73 +43,151 @@ public final class ProjectRelationshipSerializer<T extends ProjectRelationship>
         super( cls );
     }
 
-    @SuppressWarnings( "incomplete-switch" )
+    /**
+     * Writes fields directly with pre-encoded names. Refs are written as their toString() form, which is what the
+     * ref serializers from ProjectVersionRefSerializerModule produce, so no serializer lookup is needed per field.
+     */
     @Override
     public void serialize( final T value, final JsonGenerator gen, final SerializerProvider provider )
             throws IOException, JsonGenerationException
+    {
+        write( value, gen, null );
+    }
+
+    /**
+     * Write one relationship. If refTable is given, refs are written as their index in it (keyed by toString())
+     * rather than as strings; see {@link CompactRelationshipsSerializer}.
+     */
+    @SuppressWarnings( "incomplete-switch" )
+    static void write( final ProjectRelationship<?, ?> value, final JsonGenerator gen,
+                       final Map<String, Integer> refTable )
+            throws IOException
     {
         gen.writeStartObject();
-        gen.writeStringField( SerializationConstants.RELATIONSHIP_TYPE, value.getType().name() );
-        gen.writeStringField( SerializationConstants.POM_LOCATION_URI, value.getPomLocation().toString() );
-        gen.writeBooleanField( SerializationConstants.INHERITED, value.isInherited() );
+        gen.writeFieldName( SerializationConstants.RELATIONSHIP_TYPE_FIELD );
+        gen.writeString( value.getType().name() );
+        gen.writeFieldName( SerializationConstants.POM_LOCATION_URI_FIELD );
+        gen.writeString( value.getPomLocation().toString() );
+        gen.writeFieldName( SerializationConstants.INHERITED_FIELD );
+        gen.writeBoolean( value.isInherited() );
 
-        Set<URI> sources = value.getSources();
-        if ( sources != null )
-        {
-            for ( Iterator<URI> iter = sources.iterator(); iter.hasNext(); )
-            {
-                if ( iter.next() == null )
-                {
-                    iter.remove();
-                }
-            }
-            if ( !sources.isEmpty() )
-            {
-                gen.writeArrayFieldStart( SerializationConstants.SOURCE_URIS );
-                for ( URI uri : sources )
-                {
-                    if ( uri == null )
-                    {
-                        continue;
-                    }
-                    gen.writeString( uri.toString() );
-                }
-                gen.writeEndArray();
-            }
-        }
-        provider.defaultSerializeField( SerializationConstants.DECLARING_REF, value.getDeclaring(), gen );
-        provider.defaultSerializeField( SerializationConstants.TARGET_REF, value.getTarget(), gen );
+        writeSources( value, gen );
+
+        gen.writeFieldName( SerializationConstants.DECLARING_REF_FIELD );
+        writeRef( value.getDeclaring(), gen, refTable );
+        gen.writeFieldName( SerializationConstants.TARGET_REF_FIELD );
+        writeRef( value.getTarget(), gen, refTable );
 
         switch ( value.getType() )
         {
             case BOM:
-                gen.writeBooleanField( SerializationConstants.MIXIN, value.isMixin() );
+                gen.writeFieldName( SerializationConstants.MIXIN_FIELD );
+                gen.writeBoolean( value.isMixin() );
                 break;
             case DEPENDENCY:
             {
-                gen.writeStringField( SerializationConstants.SCOPE, ( (DependencyRelationship) value ).getScope().realName() );
-                gen.writeBooleanField( SerializationConstants.MANAGED, value.isManaged() );
-                gen.writeBooleanField( SerializationConstants.OPTIONAL, ( (DependencyRelationship) value ).isOptional() );
+                gen.writeFieldName( SerializationConstants.SCOPE_FIELD );
+                gen.writeString( ( (DependencyRelationship) value ).getScope().realName() );
+                gen.writeFieldName( SerializationConstants.MANAGED_FIELD );
+                gen.writeBoolean( value.isManaged() );
+                gen.writeFieldName( SerializationConstants.OPTIONAL_FIELD );
+                gen.writeBoolean( ( (DependencyRelationship) value ).isOptional() );
                 break;
             }
             case PLUGIN_DEP:
             {
-                provider.defaultSerializeField( SerializationConstants.PLUGIN_REF, ( (PluginDependencyRelationship) value ).getPlugin(),
-                                                gen );
-                gen.writeBooleanField( SerializationConstants.MANAGED, value.isManaged() );
+                gen.writeFieldName( SerializationConstants.PLUGIN_REF_FIELD );
+                writeRef( ( (PluginDependencyRelationship) value ).getPlugin(), gen, refTable );
+                gen.writeFieldName( SerializationConstants.MANAGED_FIELD );
+                gen.writeBoolean( value.isManaged() );
                 break;
             }
             case PLUGIN:
             {
-
-                gen.writeBooleanField( SerializationConstants.MANAGED, value.isManaged() );
-                gen.writeBooleanField( SerializationConstants.REPORTING, ( (PluginRelationship) value ).isReporting() );
+                gen.writeFieldName( SerializationConstants.MANAGED_FIELD );
+                gen.writeBoolean( value.isManaged() );
+                gen.writeFieldName( SerializationConstants.REPORTING_FIELD );
+                gen.writeBoolean( ( (PluginRelationship) value ).isReporting() );
                 break;
             }
         }
 
-        gen.writeNumberField( SerializationConstants.INDEX, value.getIndex() );
+        gen.writeFieldName( SerializationConstants.INDEX_FIELD );
+        gen.writeNumber( value.getIndex() );
         gen.writeEndObject();
     }
 
+    private static void writeRef( final ProjectRef ref, final JsonGenerator gen, final Map<String, Integer> refTable )
+            throws IOException
+    {
+        if ( ref == null )
+        {
+            gen.writeNull();
+        }
+        else if ( refTable != null )
+        {
+            gen.writeNumber( refTable.get( ref.toString() ) );
+        }
+        else
+        {
+            gen.writeString( ref.toString() );
+        }
+    }
+
+    private static void writeSources( final ProjectRelationship<?, ?> value, final JsonGenerator gen )
+            throws IOException
+    {
+        if ( value instanceof AbstractSimpleProjectRelationship )
+        {
+            final AbstractSimpleProjectRelationship<?, ?> rel = (AbstractSimpleProjectRelationship<?, ?>) value;
+            final int count = rel.getSourceCount();
+            if ( count == 1 )
+            {
+                // the common case: no copy needed, and no ordering to reproduce.
+                final URI source = rel.getSource( 0 );
+                if ( source != null )
+                {
+                    gen.writeFieldName( SerializationConstants.SOURCE_URIS_FIELD );
+                    gen.writeStartArray();
+                    gen.writeString( source.toString() );
+                    gen.writeEndArray();
+                }
+                return;
+            }
+            else if ( count == 0 )
+            {
+                return;
+            }
+        }
+
+        // several sources are written in getSources() (HashSet) order, as they always have been.
+        final Set<URI> sources = value.getSources();
+        if ( sources == null )
+        {
+            return;
+        }
+
+        boolean started = false;
+        for ( final URI uri : sources )
+        {
+            if ( uri == null )
+            {
+                continue;
+            }
+
+            if ( !started )
+            {
+                gen.writeFieldName( SerializationConstants.SOURCE_URIS_FIELD );
+                gen.writeStartArray();
+                started = true;
+            }
+            gen.writeString( uri.toString() );
+        }
+
+        if ( started )
+        {
+            gen.writeEndArray();
+        }
+    }
+
 }
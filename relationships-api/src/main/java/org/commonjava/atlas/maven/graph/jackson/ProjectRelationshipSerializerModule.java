@@ -20,6 +20,12 @@ import org.commonjava.atlas.maven.graph.rel.BomRelationship;
 import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.ExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyExtensionRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyPluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.LazyPluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
@@ -51,14 +57,29 @@ public class ProjectRelationshipSerializerModule
                                PluginDependencyRelationship.class, PluginRelationship.class,
                                SimpleBomRelationship.class, SimpleDependencyRelationship.class,
                                SimpleExtensionRelationship.class, SimpleParentRelationship.class,
-                               SimplePluginDependencyRelationship.class, SimplePluginRelationship.class ) ) );
+                               SimplePluginDependencyRelationship.class, SimplePluginRelationship.class,
+                               LazyBomRelationship.class, LazyDependencyRelationship.class,
+                               LazyExtensionRelationship.class, LazyParentRelationship.class,
+                               LazyPluginDependencyRelationship.class, LazyPluginRelationship.class ) ) );
     }
 
     public static final ProjectRelationshipSerializerModule INSTANCE = new ProjectRelationshipSerializerModule();
 
+    private final boolean lazy;
+
     public ProjectRelationshipSerializerModule()
+    {
+        this( false );
+    }
+
+    /**
+     * @param lazy if true, deserialize to Lazy* relationships, which parse URIs and refs only on first access. This
+     * suits consumers that only look at a few fields of each relationship.
+     */
+    public ProjectRelationshipSerializerModule( final boolean lazy )
     {
         super( "ProjectRelationship<?> Serializer" );
+        this.lazy = lazy;
 
         for ( Class<? extends ProjectRelationship> cls : REL_CLASSES )
         {
@@ -74,19 +95,19 @@ public class ProjectRelationshipSerializerModule
         logger.debug( "Registering serializer/deserializer for: {}", cls.getSimpleName() );
 
         addSerializer( cls, new ProjectRelationshipSerializer<T>( cls ) );
-        addDeserializer( cls, new ProjectRelationshipDeserializer<T>() );
+        addDeserializer( cls, new ProjectRelationshipDeserializer<T>( lazy ) );
     }
 
     @Override
     public int hashCode()
     {
-        return getClass().getSimpleName().hashCode() + 17;
+        return getClass().getSimpleName().hashCode() + 17 + ( lazy ? 1 : 0 );
     }
 
     @Override
     public boolean equals( final Object other )
     {
-        return getClass().equals( other.getClass() );
+        return getClass().equals( other.getClass() ) && lazy == ( (ProjectRelationshipSerializerModule) other ).lazy;
     }
 
 }
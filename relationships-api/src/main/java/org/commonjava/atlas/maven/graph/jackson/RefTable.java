@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document-level ref table read by {@link CompactRelationshipsDeserializer}. Each entry is parsed at most once per
+ * ref kind, so every relationship in the document shares the same ref instances. Not thread-safe; one instance per
+ * document.
+ */
+final class RefTable
+{
+    private final String[] entries;
+
+    private final Map<String, ProjectVersionRef> versionRefs = new HashMap<String, ProjectVersionRef>();
+
+    private final Map<String, ArtifactRef> artifactRefs = new HashMap<String, ArtifactRef>();
+
+    private final Map<String, ProjectRef> projectRefs = new HashMap<String, ProjectRef>();
+
+    RefTable( final List<String> entries )
+    {
+        this.entries = entries.toArray( new String[entries.size()] );
+    }
+
+    String get( final int index, final JsonParser jp )
+            throws JsonParseException
+    {
+        if ( index < 0 || index >= entries.length )
+        {
+            throw new JsonParseException( "Ref index " + index + " is outside the ref table (size: " + entries.length
+                                                  + ")", jp.getCurrentLocation() );
+        }
+
+        return entries[index];
+    }
+
+    ProjectVersionRef versionRef( final String value )
+    {
+        ProjectVersionRef ref = versionRefs.get( value );
+        if ( ref == null && value != null )
+        {
+            ref = SimpleProjectVersionRef.parse( value );
+            versionRefs.put( value, ref );
+        }
+
+        return ref;
+    }
+
+    ArtifactRef artifactRef( final String value )
+    {
+        ArtifactRef ref = artifactRefs.get( value );
+        if ( ref == null && value != null )
+        {
+            ref = SimpleArtifactRef.parse( value );
+            artifactRefs.put( value, ref );
+        }
+
+        return ref;
+    }
+
+    ProjectRef projectRef( final String value )
+    {
+        ProjectRef ref = projectRefs.get( value );
+        if ( ref == null && value != null )
+        {
+            ref = SimpleProjectRef.parse( value );
+            projectRefs.put( value, ref );
+        }
+
+        return ref;
+    }
+}
@@ -0,0 +1,298 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads newline-delimited JSON written by {@link RelationshipNdjsonWriter}, one relationship at a time, so memory use
+ * does not depend on the size of the input.
+ *
+ * {@link #read()} reports failures as {@link IOException}s; the {@link Iterator} methods wrap them in
+ * {@link IllegalStateException}.
+ *
+ * {@link #split(ObjectMapper, File, int)} cuts a file into line-aligned, memory-mapped chunks that can be read on
+ * separate threads.
+ */
+public final class RelationshipNdjsonReader
+        implements Iterator<ProjectRelationship<?, ?>>, Iterable<ProjectRelationship<?, ?>>, Closeable
+{
+    private static final long MAX_CHUNK = 1L << 30;
+
+    private final JsonParser parser;
+
+    private final ObjectReader reader;
+
+    private final NdjsonProgressListener listener;
+
+    private final int reportInterval;
+
+    private final long start = System.currentTimeMillis();
+
+    private ProjectRelationship<?, ?> next;
+
+    private boolean done;
+
+    private long count;
+
+    /**
+     * @param mapper mapper with {@link ProjectRelationshipSerializerModule} (and the ref module) registered
+     */
+    public RelationshipNdjsonReader( final ObjectMapper mapper, final InputStream in )
+            throws IOException
+    {
+        this( mapper, in, null, 0 );
+    }
+
+    /**
+     * @param listener notified every reportInterval relationships, and at the end of the input
+     */
+    public RelationshipNdjsonReader( final ObjectMapper mapper, final InputStream in,
+                                     final NdjsonProgressListener listener, final int reportInterval )
+            throws IOException
+    {
+        this.parser = mapper.getFactory().createParser( in );
+        this.reader = mapper.readerFor( ProjectRelationship.class );
+        this.listener = listener;
+        this.reportInterval = reportInterval;
+    }
+
+    /**
+     * Split a file into at most parts readers (more if needed to keep each mapped chunk under 1GB), each covering
+     * whole lines. Chunks are memory-mapped, so the file is paged in as the readers advance.
+     */
+    public static List<RelationshipNdjsonReader> split( final ObjectMapper mapper, final File file, final int parts )
+            throws IOException
+    {
+        final List<RelationshipNdjsonReader> readers = new ArrayList<RelationshipNdjsonReader>();
+        final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+        try
+        {
+            final FileChannel channel = raf.getChannel();
+            final long size = channel.size();
+            final int count = (int) Math.max( Math.max( parts, 1 ), size / MAX_CHUNK + 1 );
+
+            long chunkStart = 0;
+            for ( int i = 1; i <= count && chunkStart < size; i++ )
+            {
+                final long chunkEnd = i == count ? size : nextLineStart( raf, Math.max( chunkStart, size * i / count ) );
+                if ( chunkEnd > chunkStart )
+                {
+                    final ByteBuffer chunk = channel.map( FileChannel.MapMode.READ_ONLY, chunkStart, chunkEnd - chunkStart );
+                    readers.add( new RelationshipNdjsonReader( mapper, new ByteBufferInputStream( chunk ) ) );
+                }
+
+                chunkStart = chunkEnd;
+            }
+        }
+        finally
+        {
+            // mappings stay valid after the channel is closed.
+            raf.close();
+        }
+
+        return readers;
+    }
+
+    private static long nextLineStart( final RandomAccessFile raf, final long from )
+            throws IOException
+    {
+        final byte[] buf = new byte[8192];
+        long pos = from;
+        raf.seek( pos );
+
+        int read;
+        while ( ( read = raf.read( buf ) ) > 0 )
+        {
+            for ( int i = 0; i < read; i++ )
+            {
+                if ( buf[i] == '\n' )
+                {
+                    return pos + i + 1;
+                }
+            }
+            pos += read;
+        }
+
+        return pos;
+    }
+
+    /**
+     * @return the next relationship, or null at the end of the input
+     */
+    public ProjectRelationship<?, ?> read()
+            throws IOException
+    {
+        if ( next != null )
+        {
+            final ProjectRelationship<?, ?> result = next;
+            next = null;
+            return result;
+        }
+
+        if ( done )
+        {
+            return null;
+        }
+
+        final JsonToken token = parser.nextToken();
+        if ( token == null )
+        {
+            done = true;
+            if ( listener != null )
+            {
+                report();
+            }
+            return null;
+        }
+        else if ( token != JsonToken.START_OBJECT )
+        {
+            throw new JsonParseException( "Expected a relationship object, found: " + token,
+                                          parser.getCurrentLocation() );
+        }
+
+        final ProjectRelationship<?, ?> result = reader.readValue( parser );
+
+        count++;
+        if ( listener != null && reportInterval > 0 && count % reportInterval == 0 )
+        {
+            report();
+        }
+
+        return result;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( next == null && !done )
+        {
+            try
+            {
+                next = read();
+            }
+            catch ( final IOException e )
+            {
+                throw new IllegalStateException( "Failed to read relationship near line "
+                                                         + parser.getCurrentLocation().getLineNr() + ": "
+                                                         + e.getMessage(), e );
+            }
+        }
+
+        return next != null;
+    }
+
+    @Override
+    public ProjectRelationship<?, ?> next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        final ProjectRelationship<?, ?> result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException( "Read-only." );
+    }
+
+    @Override
+    public Iterator<ProjectRelationship<?, ?>> iterator()
+    {
+        return this;
+    }
+
+    public long getRecordCount()
+    {
+        return count;
+    }
+
+    public long getByteCount()
+    {
+        final long offset = parser.getCurrentLocation().getByteOffset();
+        return offset < 0 ? 0 : offset;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        parser.close();
+    }
+
+    private void report()
+    {
+        listener.progress( count, getByteCount(), System.currentTimeMillis() - start );
+    }
+
+    private static final class ByteBufferInputStream
+            extends InputStream
+    {
+        private final ByteBuffer buf;
+
+        ByteBufferInputStream( final ByteBuffer buf )
+        {
+            this.buf = buf;
+        }
+
+        @Override
+        public int read()
+        {
+            return buf.hasRemaining() ? buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read( final byte[] b, final int off, final int len )
+        {
+            if ( !buf.hasRemaining() )
+            {
+                return -1;
+            }
+
+            final int n = Math.min( len, buf.remaining() );
+            buf.get( b, off, n );
+            return n;
+        }
+
+        @Override
+        public int available()
+        {
+            return buf.remaining();
+        }
+    }
+}
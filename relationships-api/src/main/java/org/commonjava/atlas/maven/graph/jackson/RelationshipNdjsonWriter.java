@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes relationships as newline-delimited JSON: one relationship object per line, in the same form
+ * {@link ProjectRelationshipSerializer} produces. Nothing is buffered beyond the generator's output buffer, so dumps of
+ * any size can be written.
+ */
+public final class RelationshipNdjsonWriter
+        implements Closeable, Flushable
+{
+    private final CountingOutputStream out;
+
+    private final JsonGenerator generator;
+
+    private final ObjectWriter writer;
+
+    private final NdjsonProgressListener listener;
+
+    private final int reportInterval;
+
+    private final long start = System.currentTimeMillis();
+
+    private long count;
+
+    /**
+     * @param mapper mapper with {@link ProjectRelationshipSerializerModule} (and the ref module) registered
+     */
+    public RelationshipNdjsonWriter( final ObjectMapper mapper, final OutputStream out )
+            throws IOException
+    {
+        this( mapper, out, null, 0 );
+    }
+
+    /**
+     * @param listener notified every reportInterval relationships, and on close
+     */
+    public RelationshipNdjsonWriter( final ObjectMapper mapper, final OutputStream out,
+                                     final NdjsonProgressListener listener, final int reportInterval )
+            throws IOException
+    {
+        this.out = new CountingOutputStream( out );
+        this.generator = mapper.getFactory().createGenerator( this.out, JsonEncoding.UTF8 );
+        this.generator.setRootValueSeparator( null );
+        this.writer = mapper.writerFor( ProjectRelationship.class )
+                            .without( SerializationFeature.FLUSH_AFTER_WRITE_VALUE )
+                            .without( SerializationFeature.INDENT_OUTPUT );
+        this.listener = listener;
+        this.reportInterval = reportInterval;
+    }
+
+    public void write( final ProjectRelationship<?, ?> relationship )
+            throws IOException
+    {
+        writer.writeValue( generator, relationship );
+        generator.writeRaw( '\n' );
+
+        count++;
+        if ( listener != null && reportInterval > 0 && count % reportInterval == 0 )
+        {
+            report();
+        }
+    }
+
+    public void writeAll( final Iterable<? extends ProjectRelationship<?, ?>> relationships )
+            throws IOException
+    {
+        for ( final ProjectRelationship<?, ?> rel : relationships )
+        {
+            write( rel );
+        }
+    }
+
+    public long getRecordCount()
+    {
+        return count;
+    }
+
+    @Override
+    public void flush()
+            throws IOException
+    {
+        generator.flush();
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        generator.close();
+        if ( listener != null )
+        {
+            report();
+        }
+    }
+
+    private void report()
+    {
+        final int buffered = generator.getOutputBuffered();
+        listener.progress( count, out.count + ( buffered < 0 ? 0 : buffered ), System.currentTimeMillis() - start );
+    }
+
+    private static final class CountingOutputStream
+            extends FilterOutputStream
+    {
+        private long count;
+
+        CountingOutputStream( final OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( final int b )
+                throws IOException
+        {
+            out.write( b );
+            count++;
+        }
+
+        @Override
+        public void write( final byte[] b, final int off, final int len )
+                throws IOException
+        {
+            out.write( b, off, len );
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Push-based decoder for relationship JSON, for callers (non-blocking servers) that receive the input in chunks.
+ * Accepts either a JSON array of relationships or a sequence of relationship objects (such as NDJSON).
+ * <p>
+ * Chunks are passed to {@link #feed(ByteBuffer)} as they arrive, and completed relationships go to the
+ * {@link RelationshipStreamListener}. Only the relationship being decoded is buffered (as tokens), so memory use
+ * does not depend on the size of the input.
+ * <p>
+ * Backpressure works as in reactive streams: relationships are only delivered against demand signalled with
+ * {@link #request(long)}, which starts at zero. Without demand, the decoder decodes at most one relationship ahead
+ * and then stops; {@link #needsInput()} returns false, and the caller should stop reading from its source until
+ * more is requested.
+ * <p>
+ * The listener may call {@link #request(long)} (or {@link #feed(ByteBuffer)}) from its callbacks; the demand or input
+ * is picked up by the delivery loop already running, rather than by a nested one.
+ */
+public final class RelationshipStreamDecoder
+{
+
+    private final ObjectMapper mapper;
+
+    private final RelationshipStreamListener listener;
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private long demand;
+
+    private long count;
+
+    private TokenBuffer current;
+
+    private ProjectRelationship<?, ?> pending;
+
+    private int depth;
+
+    private boolean inArray;
+
+    private boolean started;
+
+    private boolean ended;
+
+    private boolean completed;
+
+    private boolean draining;
+
+    public RelationshipStreamDecoder( final ObjectMapper mapper, final RelationshipStreamListener listener )
+            throws IOException
+    {
+        this.mapper = mapper;
+        this.listener = listener;
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Allow n more relationships to be delivered, and deliver any that can be decoded from input already fed.
+     */
+    public synchronized void request( final long n )
+            throws IOException
+    {
+        if ( n <= 0 )
+        {
+            throw new IllegalArgumentException( "Demand must be positive: " + n );
+        }
+
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        drain();
+    }
+
+    /**
+     * @return true if the decoder has consumed all input fed so far, and is not holding a relationship back for lack
+     * of demand
+     */
+    public synchronized boolean needsInput()
+    {
+        return !ended && pending == null && feeder.needMoreInput();
+    }
+
+    /**
+     * Feed the next chunk of input. The chunk is copied, and its position is moved to its limit.
+     *
+     * @throws IllegalStateException if the previous chunk has not been fully decoded yet (see {@link #needsInput()})
+     */
+    public synchronized void feed( final ByteBuffer chunk )
+            throws IOException
+    {
+        if ( ended )
+        {
+            throw new IllegalStateException( "End of input has already been signalled" );
+        }
+        if ( !feeder.needMoreInput() )
+        {
+            throw new IllegalStateException( "Previous input has not been consumed; wait for needsInput()" );
+        }
+
+        final byte[] bytes = new byte[chunk.remaining()];
+        chunk.get( bytes );
+        feeder.feedInput( bytes, 0, bytes.length );
+        drain();
+    }
+
+    /**
+     * Signal that no more input will be fed. {@link RelationshipStreamListener#complete()} is called once the
+     * remaining relationships have been delivered.
+     *
+     * @throws JsonParseException if the input ends in the middle of a relationship
+     */
+    public synchronized void endOfInput()
+            throws IOException
+    {
+        if ( !ended )
+        {
+            ended = true;
+            feeder.endOfInput();
+            drain();
+        }
+    }
+
+    /**
+     * @return relationships delivered so far
+     */
+    public synchronized long getRelationshipCount()
+    {
+        return count;
+    }
+
+    private void drain()
+            throws IOException
+    {
+        // re-entrant calls from the listener only add demand or input; the outer loop delivers it
+        if ( draining )
+        {
+            return;
+        }
+
+        draining = true;
+        try
+        {
+            deliver();
+        }
+        finally
+        {
+            draining = false;
+        }
+    }
+
+    private void deliver()
+            throws IOException
+    {
+        while ( !completed )
+        {
+            if ( pending != null )
+            {
+                if ( demand == 0 )
+                {
+                    return;
+                }
+
+                final ProjectRelationship<?, ?> rel = pending;
+                pending = null;
+                demand--;
+                count++;
+                listener.relationship( rel );
+
+                // re-check completion before touching the parser again
+                continue;
+            }
+
+            JsonToken token = parser.nextToken();
+            if ( token == JsonToken.NOT_AVAILABLE && ended )
+            {
+                // trailing whitespace consumed before the end was signalled can cost one more call
+                token = parser.nextToken();
+            }
+
+            if ( token == JsonToken.NOT_AVAILABLE )
+            {
+                if ( ended )
+                {
+                    finish();
+                }
+                return;
+            }
+
+            if ( token == null )
+            {
+                finish();
+                return;
+            }
+
+            if ( current != null )
+            {
+                append( token );
+            }
+            else if ( token == JsonToken.START_OBJECT )
+            {
+                current = new TokenBuffer( mapper, false );
+                depth = 0;
+                append( token );
+            }
+            else if ( token == JsonToken.START_ARRAY && !started )
+            {
+                inArray = true;
+            }
+            else if ( token == JsonToken.END_ARRAY && inArray )
+            {
+                inArray = false;
+            }
+            else
+            {
+                throw new JsonParseException( "Expected a relationship object but found: " + token,
+                                              parser.getCurrentLocation() );
+            }
+
+            started = true;
+        }
+    }
+
+    private void append( final JsonToken token )
+            throws IOException
+    {
+        current.copyCurrentEvent( parser );
+
+        if ( token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY )
+        {
+            depth++;
+        }
+        else if ( token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY )
+        {
+            depth--;
+        }
+
+        if ( depth == 0 )
+        {
+            final JsonParser buffered = current.asParser();
+            current = null;
+
+            pending = mapper.readValue( buffered, ProjectRelationship.class );
+            buffered.close();
+        }
+    }
+
+    private void finish()
+            throws IOException
+    {
+        if ( current != null || inArray )
+        {
+            throw new JsonParseException( "Unexpected end of input after " + count + " relationships",
+                                          parser.getCurrentLocation() );
+        }
+
+        completed = true;
+        parser.close();
+        listener.complete();
+    }
+
+}
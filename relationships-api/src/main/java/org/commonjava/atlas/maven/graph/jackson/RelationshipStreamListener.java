@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+/**
+ * Receives relationships from a {@link RelationshipStreamDecoder} as they are completed. Calls happen on whichever
+ * thread feeds the decoder or requests more relationships from it.
+ */
+public interface RelationshipStreamListener
+{
+
+    void relationship( ProjectRelationship<?, ?> relationship );
+
+    /**
+     * Called once, after end of input has been signalled and every relationship has been delivered.
+     */
+    void complete();
+
+}
@@ -15,6 +15,9 @@
  */
 package org.commonjava.atlas.maven.graph.jackson;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
 public final class SerializationConstants
 {
 
@@ -66,8 +69,38 @@ public final class SerializationConstants
 
     public static final String CYCLES = "cycles";
 
+    public static final String REFS = "refs";
+
     public static final String WEB_ROOTS = "gavs";
 
     public static final String GAVS = WEB_ROOTS;
 
+    // pre-encoded field names, for generators writing relationships directly.
+
+    public static final SerializableString SOURCE_URIS_FIELD = new SerializedString( SOURCE_URIS );
+
+    public static final SerializableString POM_LOCATION_URI_FIELD = new SerializedString( POM_LOCATION_URI );
+
+    public static final SerializableString RELATIONSHIP_TYPE_FIELD = new SerializedString( RELATIONSHIP_TYPE );
+
+    public static final SerializableString DECLARING_REF_FIELD = new SerializedString( DECLARING_REF );
+
+    public static final SerializableString TARGET_REF_FIELD = new SerializedString( TARGET_REF );
+
+    public static final SerializableString INDEX_FIELD = new SerializedString( INDEX );
+
+    public static final SerializableString INHERITED_FIELD = new SerializedString( INHERITED );
+
+    public static final SerializableString MANAGED_FIELD = new SerializedString( MANAGED );
+
+    public static final SerializableString MIXIN_FIELD = new SerializedString( MIXIN );
+
+    public static final SerializableString OPTIONAL_FIELD = new SerializedString( OPTIONAL );
+
+    public static final SerializableString REPORTING_FIELD = new SerializedString( REPORTING );
+
+    public static final SerializableString SCOPE_FIELD = new SerializedString( SCOPE );
+
+    public static final SerializableString PLUGIN_REF_FIELD = new SerializedString( PLUGIN_REF );
+
 }
@@ -0,0 +1,328 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.mediation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.BomRelationship;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipComparator;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleVersionlessArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.VersionlessArtifactRef;
+
+/**
+ * Computes the effective dependency set of a root project the way Maven does it:
+ * <ul>
+ * <li>nearest wins: the dependency with the shortest path from the root is selected</li>
+ * <li>first declaration wins: on equal path lengths, the one reached first (by declaring order, then
+ * {@link DependencyRelationship#getIndex()}) is selected</li>
+ * <li>the root's managed dependencies, and those imported through its BOMs, override the versions of transitive
+ * dependencies</li>
+ * </ul>
+ *
+ * Mediation is a single breadth-first pass. Each {@link VersionlessArtifactRef} is claimed at most once, and paths are
+ * tracked with parent pointers rather than copied lists, so the cost is linear in the number of edges visited.
+ *
+ * NOTE: Managed scopes are not applied, since the model cannot tell an explicit managed scope from the default one.
+ */
+public final class DependencyMediator
+{
+
+    private final Map<ProjectVersionRef, EProjectDirectRelationships> relationships;
+
+    public DependencyMediator( final Map<ProjectVersionRef, EProjectDirectRelationships> relationships )
+    {
+        this.relationships = relationships;
+    }
+
+    public DependencyMediator( final Iterable<EProjectDirectRelationships> relationships )
+    {
+        this.relationships = new HashMap<ProjectVersionRef, EProjectDirectRelationships>();
+        for ( final EProjectDirectRelationships rels : relationships )
+        {
+            this.relationships.put( rels.getProjectRef(), rels );
+        }
+    }
+
+    /**
+     * Mediate dependencies of all scopes.
+     */
+    public MediationResult resolve( final ProjectVersionRef root )
+    {
+        return resolve( root, null );
+    }
+
+    /**
+     * Mediate dependencies, keeping only those whose effective scope is implied by the given scope (for instance,
+     * {@link DependencyScope#runtime} keeps compile and runtime dependencies). Filtering happens after mediation, the
+     * same way Maven builds its classpaths.
+     */
+    public MediationResult resolve( final ProjectVersionRef root, final DependencyScope scope )
+    {
+        final Set<ProjectVersionRef> missing = new HashSet<ProjectVersionRef>();
+        final Map<VersionlessArtifactRef, MediationNode> winners =
+            new LinkedHashMap<VersionlessArtifactRef, MediationNode>();
+
+        final EProjectDirectRelationships rootRels = lookup( root.asProjectVersionRef() );
+        if ( rootRels == null )
+        {
+            missing.add( root );
+            return new MediationResult( root, winners, new ArrayList<DependencyRelationship>(), missing );
+        }
+
+        final Map<VersionlessArtifactRef, DependencyRelationship> managed = managedFor( rootRels, missing );
+        final ProjectRef rootProject = root.asProjectRef();
+
+        final LinkedList<MediationNode> frontier = new LinkedList<MediationNode>();
+        for ( final DependencyRelationship dep : declarationOrder( rootRels ) )
+        {
+            // direct dependencies keep their declared version and scope.
+            frontier.add( new MediationNode( dep, null, dep.getScope() ) );
+        }
+
+        while ( !frontier.isEmpty() )
+        {
+            final MediationNode node = frontier.removeFirst();
+            final ArtifactRef target = node.relationship.getTarget();
+            if ( rootProject.equals( target.asProjectRef() ) )
+            {
+                continue;
+            }
+
+            final VersionlessArtifactRef key = new SimpleVersionlessArtifactRef( target );
+            if ( winners.containsKey( key ) )
+            {
+                // nearer or earlier declaration already won.
+                continue;
+            }
+
+            winners.put( key, node );
+
+            final EProjectDirectRelationships targetRels = lookup( target.asProjectVersionRef() );
+            if ( targetRels == null )
+            {
+                missing.add( target.asProjectVersionRef() );
+                continue;
+            }
+
+            for ( DependencyRelationship dep : declarationOrder( targetRels ) )
+            {
+                if ( dep.isOptional() )
+                {
+                    continue;
+                }
+
+                final DependencyScope childScope = childScope( node.scope, dep.getScope() );
+                if ( childScope == null || isExcluded( dep.getTarget(), node ) )
+                {
+                    continue;
+                }
+
+                final VersionlessArtifactRef depKey = new SimpleVersionlessArtifactRef( dep.getTarget() );
+                if ( winners.containsKey( depKey ) )
+                {
+                    continue;
+                }
+
+                final DependencyRelationship mgmt = managed.get( depKey );
+                if ( mgmt != null && !mgmt.getTarget().equals( dep.getTarget() ) )
+                {
+                    dep = dep.selectTarget( mgmt.getTarget() );
+                }
+
+                frontier.add( new MediationNode( dep, node, childScope ) );
+            }
+        }
+
+        final List<DependencyRelationship> selected = new ArrayList<DependencyRelationship>( winners.size() );
+        for ( final MediationNode node : winners.values() )
+        {
+            node.selected = withScope( node.relationship, node.scope );
+            if ( scope == null || scope.implies( node.scope ) )
+            {
+                selected.add( node.selected );
+            }
+        }
+
+        return new MediationResult( root, winners, selected, missing );
+    }
+
+    /**
+     * Maven's scope transitivity table.
+     *
+     * @return the scope a dependency declared with depScope gets when reached through a dependency with parentScope,
+     *         or null if it is not transitive.
+     */
+    static DependencyScope childScope( final DependencyScope parentScope, final DependencyScope depScope )
+    {
+        switch ( depScope )
+        {
+            case compile:
+            case runtime:
+            case embedded:
+                break;
+            default:
+                // provided, test, system, etc. are not transitive.
+                return null;
+        }
+
+        switch ( parentScope )
+        {
+            case compile:
+            case embedded:
+                return depScope;
+            case runtime:
+                return depScope == DependencyScope.compile ? DependencyScope.runtime : depScope;
+            case provided:
+                return DependencyScope.provided;
+            case test:
+                return DependencyScope.test;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the relationship itself if it already has the given scope, otherwise a copy declaring that scope.
+     */
+    private static DependencyRelationship withScope( final DependencyRelationship dep, final DependencyScope scope )
+    {
+        if ( dep.getScope() == scope )
+        {
+            return dep;
+        }
+
+        final Set<ProjectRef> excludes = dep.getExcludes();
+        return new SimpleDependencyRelationship( dep.getSources(), dep.getPomLocation(), dep.getDeclaring(),
+                                                 dep.getTarget(), scope, dep.getIndex(), dep.isManaged(),
+                                                 dep.isInherited(), dep.isOptional(),
+                                                 excludes.toArray( new ProjectRef[excludes.size()] ) );
+    }
+
+    private EProjectDirectRelationships lookup( final ProjectVersionRef ref )
+    {
+        return relationships.get( ref );
+    }
+
+    private static boolean isExcluded( final ArtifactRef target, MediationNode node )
+    {
+        while ( node != null )
+        {
+            for ( final ProjectRef exclude : node.relationship.getExcludes() )
+            {
+                if ( exclude.matches( target ) )
+                {
+                    return true;
+                }
+            }
+
+            node = node.parent;
+        }
+
+        return false;
+    }
+
+    private static List<DependencyRelationship> declarationOrder( final EProjectDirectRelationships rels )
+    {
+        final List<DependencyRelationship> deps = rels.getDependencies();
+        if ( deps == null || deps.isEmpty() )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<DependencyRelationship> sorted = new ArrayList<DependencyRelationship>( deps );
+        Collections.sort( sorted, RelationshipComparator.INSTANCE );
+        return sorted;
+    }
+
+    /**
+     * Managed dependencies of the root take precedence, followed by those imported from BOMs in declaration order.
+     * The first entry for any artifact wins.
+     */
+    private Map<VersionlessArtifactRef, DependencyRelationship> managedFor( final EProjectDirectRelationships root,
+                                                                           final Set<ProjectVersionRef> missing )
+    {
+        final Map<VersionlessArtifactRef, DependencyRelationship> managed =
+            new HashMap<VersionlessArtifactRef, DependencyRelationship>();
+
+        addManaged( root, managed, new HashSet<ProjectVersionRef>(), missing );
+        return managed;
+    }
+
+    private void addManaged( final EProjectDirectRelationships rels,
+                             final Map<VersionlessArtifactRef, DependencyRelationship> managed,
+                             final Set<ProjectVersionRef> seenBoms, final Set<ProjectVersionRef> missing )
+    {
+        final List<ProjectVersionRef> imports = new ArrayList<ProjectVersionRef>();
+        if ( rels.getBoms() != null )
+        {
+            for ( final BomRelationship bom : rels.getBoms() )
+            {
+                imports.add( bom.getTarget().asProjectVersionRef() );
+            }
+        }
+
+        if ( rels.getManagedDependencies() != null )
+        {
+            for ( final DependencyRelationship dep : rels.getManagedDependencies() )
+            {
+                if ( dep.isBOM() )
+                {
+                    imports.add( dep.getTarget().asProjectVersionRef() );
+                    continue;
+                }
+
+                final VersionlessArtifactRef key = new SimpleVersionlessArtifactRef( dep.getTarget() );
+                if ( !managed.containsKey( key ) )
+                {
+                    managed.put( key, dep );
+                }
+            }
+        }
+
+        for ( final ProjectVersionRef bom : imports )
+        {
+            if ( !seenBoms.add( bom ) )
+            {
+                continue;
+            }
+
+            final EProjectDirectRelationships bomRels = lookup( bom );
+            if ( bomRels == null )
+            {
+                missing.add( bom );
+                continue;
+            }
+
+            addManaged( bomRels, managed, seenBoms, missing );
+        }
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.mediation;
+
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+
+/**
+ * Entry in the mediation frontier. Paths are kept as parent pointers, so extending a path costs one node instead of a
+ * copy of the whole path.
+ */
+final class MediationNode
+{
+
+    final DependencyRelationship relationship;
+
+    final MediationNode parent;
+
+    final DependencyScope scope;
+
+    final int depth;
+
+    /**
+     * The relationship as reported to callers, rebuilt with the effective scope once mediation completes.
+     */
+    DependencyRelationship selected;
+
+    MediationNode( final DependencyRelationship relationship, final MediationNode parent, final DependencyScope scope )
+    {
+        this.relationship = relationship;
+        this.parent = parent;
+        this.scope = scope;
+        this.depth = parent == null ? 1 : parent.depth + 1;
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.mediation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.VersionlessArtifactRef;
+
+/**
+ * Effective dependency set computed by {@link DependencyMediator} for a single root project.
+ */
+public final class MediationResult
+{
+
+    private final ProjectVersionRef root;
+
+    private final Map<VersionlessArtifactRef, MediationNode> winners;
+
+    private final List<DependencyRelationship> dependencies;
+
+    private final Set<ProjectVersionRef> missing;
+
+    MediationResult( final ProjectVersionRef root, final Map<VersionlessArtifactRef, MediationNode> winners,
+                     final List<DependencyRelationship> dependencies, final Set<ProjectVersionRef> missing )
+    {
+        this.root = root;
+        this.winners = winners;
+        this.dependencies = Collections.unmodifiableList( dependencies );
+        this.missing = Collections.unmodifiableSet( missing );
+    }
+
+    public ProjectVersionRef getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * Selected dependencies in resolution (breadth-first) order. Each relationship carries the managed version, if
+     * one was applied, and the scope it has from the root's point of view (see {@link #getScope}), which may differ
+     * from the scope it was declared with.
+     */
+    public List<DependencyRelationship> getDependencies()
+    {
+        return dependencies;
+    }
+
+    public boolean contains( final VersionlessArtifactRef artifact )
+    {
+        return winners.containsKey( artifact );
+    }
+
+    /**
+     * @return the selected dependency, with the same version and effective scope as in {@link #getDependencies()},
+     *         or null if the artifact was not selected.
+     */
+    public DependencyRelationship getSelected( final VersionlessArtifactRef artifact )
+    {
+        final MediationNode node = winners.get( artifact );
+        return node == null ? null : node.selected;
+    }
+
+    /**
+     * @return the distance of the selected dependency from the root (1 for direct dependencies), or -1 if the
+     *         artifact was not selected.
+     */
+    public int getDepth( final VersionlessArtifactRef artifact )
+    {
+        final MediationNode node = winners.get( artifact );
+        return node == null ? -1 : node.depth;
+    }
+
+    /**
+     * @return the scope of the selected dependency as seen from the root, or null if the artifact was not selected.
+     */
+    public DependencyScope getScope( final VersionlessArtifactRef artifact )
+    {
+        final MediationNode node = winners.get( artifact );
+        return node == null ? null : node.scope;
+    }
+
+    /**
+     * Rebuild the path from the root to the selected dependency. The list is built on demand from parent pointers, and
+     * holds the relationships with the scopes they were declared with.
+     *
+     * @return the path, starting with a direct dependency of the root, or null if the artifact was not selected.
+     */
+    public List<ProjectRelationship<?, ?>> getPath( final VersionlessArtifactRef artifact )
+    {
+        MediationNode node = winners.get( artifact );
+        if ( node == null )
+        {
+            return null;
+        }
+
+        final List<ProjectRelationship<?, ?>> path = new ArrayList<ProjectRelationship<?, ?>>( node.depth );
+        while ( node != null )
+        {
+            path.add( node.relationship );
+            node = node.parent;
+        }
+
+        Collections.reverse( path );
+        return path;
+    }
+
+    /**
+     * Projects reached during mediation whose direct relationships were not available. Their own dependencies could not
+     * be followed.
+     */
+    public Set<ProjectVersionRef> getMissing()
+    {
+        return missing;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "MediationResult [root=%s, dependencies=%s, missing=%s]", root, dependencies.size(),
+                              missing.size() );
+    }
+
+}
@@ -16,7 +16,7 @@
 package org.commonjava.atlas.maven.graph.model;
 
 import static org.commonjava.atlas.maven.graph.rel.RelationshipConstants.POM_ROOT_URI;
-import static org.commonjava.atlas.maven.graph.util.RelationshipUtils.filterTerminalParents;
+import static org.commonjava.atlas.maven.graph.util.RelationshipUtils.isTerminalParent;
 
 import java.io.Serializable;
 import java.net.URI;
@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,6 +39,7 @@ import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
 import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
@@ -73,6 +75,9 @@ public class EProjectDirectRelationships
 
     private Map<PluginKey, List<PluginDependencyRelationship>> pluginDependencies;
 
+    // derived from the fields above; rebuilt lazily after Jackson or Java deserialization.
+    private transient volatile RelationshipIndex index;
+
     public EProjectDirectRelationships() {}
 
     public EProjectDirectRelationships( final URI source,
@@ -103,6 +108,7 @@ public class EProjectDirectRelationships
         }
 
         this.pluginDependencies = Collections.unmodifiableMap( pdrels );
+        this.index = new RelationshipIndex( this );
     }
 
     public final URI getSource()
@@ -166,35 +172,307 @@ public class EProjectDirectRelationships
     @Override
     public Set<ProjectRelationship<?, ?>> getAllRelationships()
     {
-        final Set<ProjectRelationship<?, ?>> rels = getExactAllRelationships();
-        filterTerminalParents( rels );
+        final RelationshipIndex idx = index();
+        final Set<ProjectRelationship<?, ?>> result =
+            new HashSet<ProjectRelationship<?, ?>>( capacityFor( idx.relationships.length ) );
 
-        return rels;
+        for ( final ProjectRelationship<?, ?> rel : idx.relationships )
+        {
+            if ( !isTerminalParent( rel ) )
+            {
+                result.add( rel );
+            }
+        }
+
+        return result;
     }
 
     @JsonIgnore
     @Override
     public Set<ProjectRelationship<?, ?>> getExactAllRelationships()
     {
-        final Set<ProjectRelationship<?, ?>> result = new HashSet<ProjectRelationship<?, ?>>();
-        if ( parent != null )
+        final RelationshipIndex idx = index();
+        final Set<ProjectRelationship<?, ?>> result =
+            new HashSet<ProjectRelationship<?, ?>>( capacityFor( idx.relationships.length ) );
+
+        Collections.addAll( result, idx.relationships );
+
+        return result;
+    }
+
+    /**
+     * Immutable view of every relationship declared by this project (including a terminal parent, if present),
+     * ordered by {@link RelationshipType} ordinal. This view is shared, so calling it does not copy anything.
+     */
+    @JsonIgnore
+    public List<ProjectRelationship<?, ?>> getRelationshipList()
+    {
+        return index().all;
+    }
+
+    /**
+     * Immutable view of the relationships of the given type, managed and unmanaged alike. This view is shared, so
+     * calling it does not copy anything.
+     */
+    public List<ProjectRelationship<?, ?>> getRelationships( final RelationshipType type )
+    {
+        return index().byType.get( type );
+    }
+
+    @JsonIgnore
+    public int getRelationshipCount()
+    {
+        return index().relationships.length;
+    }
+
+    /**
+     * Pass each relationship in {@link #getAllRelationships()} (terminal parent excluded) to the visitor, without
+     * allocating a collection.
+     *
+     * @return false if the visitor stopped the iteration early, true otherwise
+     */
+    public boolean accept( final RelationshipVisitor visitor )
+    {
+        final RelationshipIndex idx = index();
+        return visit( idx, 0, idx.relationships.length, false, visitor );
+    }
+
+    /**
+     * Pass each relationship in {@link #getExactAllRelationships()} to the visitor, without allocating a collection.
+     *
+     * @return false if the visitor stopped the iteration early, true otherwise
+     */
+    public boolean acceptExact( final RelationshipVisitor visitor )
+    {
+        final RelationshipIndex idx = index();
+        return visit( idx, 0, idx.relationships.length, true, visitor );
+    }
+
+    /**
+     * Pass each relationship of the given type (terminal parent excluded) to the visitor, without allocating a
+     * collection.
+     *
+     * @return false if the visitor stopped the iteration early, true otherwise
+     */
+    public boolean accept( final RelationshipType type, final RelationshipVisitor visitor )
+    {
+        final RelationshipIndex idx = index();
+        final int ord = type.ordinal();
+        return visit( idx, idx.offsets[ord], idx.offsets[ord + 1], false, visitor );
+    }
+
+    private static boolean visit( final RelationshipIndex idx, final int from, final int to, final boolean exact,
+                                  final RelationshipVisitor visitor )
+    {
+        final ProjectRelationship<?, ?>[] rels = idx.relationships;
+        for ( int i = from; i < to; i++ )
         {
-            result.add( parent );
+            if ( !exact && isTerminalParent( rels[i] ) )
+            {
+                continue;
+            }
+
+            if ( !visitor.visit( rels[i] ) )
+            {
+                return false;
+            }
         }
 
-        result.addAll( boms );
-        result.addAll( dependencies );
-        result.addAll( managedDependencies );
-        result.addAll( plugins );
-        result.addAll( managedPlugins );
-        result.addAll( extensions );
+        return true;
+    }
 
-        for ( final List<PluginDependencyRelationship> pluginRels : pluginDependencies.values() )
+    private RelationshipIndex index()
+    {
+        RelationshipIndex idx = index;
+        if ( idx == null )
         {
-            result.addAll( pluginRels );
+            // benign race: concurrent callers build equivalent indexes, and the last one wins.
+            idx = new RelationshipIndex( this );
+            index = idx;
         }
 
-        return result;
+        return idx;
+    }
+
+    private static int capacityFor( final int size )
+    {
+        return Math.max( (int) ( size / .75f ) + 1, 16 );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return index().hash;
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( obj == null )
+        {
+            return false;
+        }
+        if ( getClass() != obj.getClass() )
+        {
+            return false;
+        }
+        final EProjectDirectRelationships other = (EProjectDirectRelationships) obj;
+        if ( hashCode() != other.hashCode() )
+        {
+            return false;
+        }
+        if ( projectRef == null )
+        {
+            if ( other.projectRef != null )
+            {
+                return false;
+            }
+        }
+        else if ( !projectRef.equals( other.projectRef ) )
+        {
+            return false;
+        }
+
+        final RelationshipIndex mine = index();
+        final RelationshipIndex theirs = other.index();
+        if ( mine.relationships.length != theirs.relationships.length )
+        {
+            return false;
+        }
+
+        for ( final RelationshipType type : RelationshipType.values() )
+        {
+            if ( type == RelationshipType.PLUGIN_DEP )
+            {
+                // the slice follows the backing map's iteration order, so compare per plugin instead.
+                if ( !pluginDependencyGroups().equals( other.pluginDependencyGroups() ) )
+                {
+                    return false;
+                }
+            }
+            else if ( !mine.byType.get( type ).equals( theirs.byType.get( type ) ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Map<PluginKey, List<PluginDependencyRelationship>> pluginDependencyGroups()
+    {
+        if ( pluginDependencies == null )
+        {
+            return Collections.emptyMap();
+        }
+
+        return pluginDependencies;
+    }
+
+    /**
+     * Flat, immutable index over the relationship fields. Relationships are grouped by {@link RelationshipType}
+     * ordinal, and offsets[ordinal]..offsets[ordinal+1] is the slice for that type.
+     */
+    private static final class RelationshipIndex
+    {
+        private final ProjectRelationship<?, ?>[] relationships;
+
+        private final int[] offsets;
+
+        private final List<ProjectRelationship<?, ?>> all;
+
+        private final Map<RelationshipType, List<ProjectRelationship<?, ?>>> byType;
+
+        private final int hash;
+
+        RelationshipIndex( final EProjectDirectRelationships rels )
+        {
+            final List<ProjectRelationship<?, ?>> flat = new ArrayList<ProjectRelationship<?, ?>>();
+            final RelationshipType[] types = RelationshipType.values();
+            offsets = new int[types.length + 1];
+
+            for ( final RelationshipType type : types )
+            {
+                offsets[type.ordinal()] = flat.size();
+                switch ( type )
+                {
+                    case PARENT:
+                    {
+                        if ( rels.parent != null )
+                        {
+                            flat.add( rels.parent );
+                        }
+                        break;
+                    }
+                    case BOM:
+                    {
+                        addAll( flat, rels.boms );
+                        break;
+                    }
+                    case DEPENDENCY:
+                    {
+                        addAll( flat, rels.dependencies );
+                        addAll( flat, rels.managedDependencies );
+                        break;
+                    }
+                    case PLUGIN:
+                    {
+                        addAll( flat, rels.plugins );
+                        addAll( flat, rels.managedPlugins );
+                        break;
+                    }
+                    case PLUGIN_DEP:
+                    {
+                        if ( rels.pluginDependencies != null )
+                        {
+                            for ( final List<PluginDependencyRelationship> pdrs : rels.pluginDependencies.values() )
+                            {
+                                addAll( flat, pdrs );
+                            }
+                        }
+                        break;
+                    }
+                    case EXTENSION:
+                    {
+                        addAll( flat, rels.extensions );
+                        break;
+                    }
+                }
+            }
+            offsets[types.length] = flat.size();
+
+            relationships = flat.toArray( new ProjectRelationship<?, ?>[flat.size()] );
+            all = Collections.unmodifiableList( Arrays.asList( relationships ) );
+
+            final Map<RelationshipType, List<ProjectRelationship<?, ?>>> slices =
+                new EnumMap<RelationshipType, List<ProjectRelationship<?, ?>>>( RelationshipType.class );
+            for ( final RelationshipType type : types )
+            {
+                slices.put( type, all.subList( offsets[type.ordinal()], offsets[type.ordinal() + 1] ) );
+            }
+            byType = Collections.unmodifiableMap( slices );
+
+            // order-insensitive, because plugin-dependency ordering follows the backing map.
+            int h = rels.projectRef == null ? 0 : rels.projectRef.hashCode();
+            for ( final ProjectRelationship<?, ?> rel : relationships )
+            {
+                h += rel.hashCode();
+            }
+            hash = h;
+        }
+
+        private static void addAll( final List<ProjectRelationship<?, ?>> flat,
+                                    final List<? extends ProjectRelationship<?, ?>> rels )
+        {
+            if ( rels != null )
+            {
+                flat.addAll( rels );
+            }
+        }
     }
 
     public static final class Builder
@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.model;
+
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+
+/**
+ * Callback used to walk the relationships of an {@link EProjectDirectRelationships} without copying them into a new
+ * collection.
+ */
+public interface RelationshipVisitor
+{
+
+    /**
+     * @return true to continue with the next relationship, false to stop
+     */
+    boolean visit( ProjectRelationship<?, ?> rel );
+
+}
@@ -0,0 +1,250 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Relationship that keeps the raw strings it was read from, and parses the source URIs, POM location and refs only
+ * when they are first asked for. Parsed values are immutable and memoized in volatile fields; if two threads race on
+ * first access, both parse and one (equal) result wins, so no locking is needed.
+ * <p>
+ * equals() and hashCode() follow the matching Simple* implementation, so lazy and eager relationships are
+ * interchangeable in sets and maps; they only parse the refs. Anything that derives a new relationship (cloneFor(),
+ * selectDeclaring(), addSource()...) works on {@link #materialize()} and returns an eager one. Malformed values are
+ * reported on first access, not when the relationship is read.
+ */
+public abstract class AbstractLazyProjectRelationship<R extends ProjectRelationship<R, T>, T extends ProjectVersionRef>
+    implements ProjectRelationship<R, T>, Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final RelationshipType type;
+
+    private final String[] rawSources;
+
+    private final String rawPomLocation;
+
+    private final String rawDeclaring;
+
+    private final String rawTarget;
+
+    private final int index;
+
+    private final boolean managed;
+
+    private final boolean inherited;
+
+    private final boolean mixin;
+
+    private transient volatile Set<URI> sources;
+
+    private transient volatile URI pomLocation;
+
+    private transient volatile ProjectVersionRef declaring;
+
+    private transient volatile T target;
+
+    protected AbstractLazyProjectRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                               final RelationshipType type, final String rawDeclaring,
+                                               final String rawTarget, final int index, final boolean managed,
+                                               final boolean inherited, final boolean mixin )
+    {
+        if ( rawDeclaring == null || rawTarget == null )
+        {
+            throw new NullPointerException( "Neither declaring ref (" + rawDeclaring + ") nor target ref ("
+                                                    + rawTarget + ") can be null!" );
+        }
+
+        this.rawSources = rawSources == null ? new String[0] : rawSources.toArray( new String[rawSources.size()] );
+        this.rawPomLocation = rawPomLocation;
+        this.type = type;
+        this.rawDeclaring = rawDeclaring;
+        this.rawTarget = rawTarget;
+        this.index = index;
+        this.managed = managed;
+        this.inherited = inherited;
+        this.mixin = mixin;
+    }
+
+    protected abstract T parseTarget( String raw );
+
+    /**
+     * Fully parsed, eager copy of this relationship.
+     */
+    public abstract R materialize();
+
+    @Override
+    public final int getIndex()
+    {
+        return index;
+    }
+
+    @Override
+    public final RelationshipType getType()
+    {
+        return type;
+    }
+
+    @Override
+    public final boolean isManaged()
+    {
+        return managed;
+    }
+
+    @Override
+    public final boolean isInherited()
+    {
+        return inherited;
+    }
+
+    @Override
+    public final boolean isMixin()
+    {
+        return mixin;
+    }
+
+    @Override
+    public final ProjectVersionRef getDeclaring()
+    {
+        ProjectVersionRef ref = declaring;
+        if ( ref == null )
+        {
+            ref = SimpleProjectVersionRef.parse( rawDeclaring );
+            declaring = ref;
+        }
+
+        return ref;
+    }
+
+    @Override
+    public final T getTarget()
+    {
+        T ref = target;
+        if ( ref == null )
+        {
+            ref = parseTarget( rawTarget );
+            target = ref;
+        }
+
+        return ref;
+    }
+
+    @Override
+    public final Set<URI> getSources()
+    {
+        Set<URI> parsed = sources;
+        if ( parsed == null )
+        {
+            final Set<URI> result = new HashSet<URI>( rawSources.length );
+            for ( final String raw : rawSources )
+            {
+                result.add( URI.create( raw ) );
+            }
+
+            parsed = Collections.unmodifiableSet( result );
+            sources = parsed;
+        }
+
+        return new HashSet<URI>( parsed );
+    }
+
+    @Override
+    public final URI getPomLocation()
+    {
+        URI uri = pomLocation;
+        if ( uri == null )
+        {
+            uri = rawPomLocation == null ? RelationshipConstants.POM_ROOT_URI : URI.create( rawPomLocation );
+            pomLocation = uri;
+        }
+
+        return uri;
+    }
+
+    @Override
+    public R cloneFor( final ProjectVersionRef projectRef )
+    {
+        return materialize().cloneFor( projectRef );
+    }
+
+    @Override
+    public R selectDeclaring( final ProjectVersionRef ref )
+    {
+        return materialize().selectDeclaring( ref );
+    }
+
+    @Override
+    public R selectTarget( final ProjectVersionRef ref )
+    {
+        return materialize().selectTarget( ref );
+    }
+
+    @Override
+    public R addSource( final URI source )
+    {
+        return materialize().addSource( source );
+    }
+
+    @Override
+    public R addSources( final Collection<URI> sources )
+    {
+        return materialize().addSources( sources );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + getDeclaring().hashCode();
+        result = prime * result + getTarget().hashCode();
+        result = prime * result + type.hashCode();
+        return result;
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( !( obj instanceof ProjectRelationship ) )
+        {
+            return false;
+        }
+        final ProjectRelationship<?, ?> other = (ProjectRelationship<?, ?>) obj;
+        return type == other.getType() && getDeclaring().equals( other.getDeclaring() )
+                && getTarget().equals( other.getTarget() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return materialize().toString();
+    }
+
+}
@@ -254,10 +254,35 @@ public abstract class AbstractSimpleProjectRelationship<R extends ProjectRelatio
         return new HashSet<URI>( sources );
     }
 
+    /**
+     * Number of sources, without copying them as {@link #getSources()} does.
+     */
+    public final int getSourceCount()
+    {
+        return sources.size();
+    }
+
+    /**
+     * Source at the given position in declaration order, without copying as {@link #getSources()} does.
+     */
+    public final URI getSource( final int index )
+    {
+        return sources.get( index );
+    }
+
     @Override
     public final URI getPomLocation()
     {
         return pomLocation;
     }
 
+    /**
+     * Serialize through a compact proxy that holds only raw strings, flags and the index; see
+     * {@link SerializedRelationship}.
+     */
+    protected final Object writeReplace()
+    {
+        return new SerializedRelationship( this );
+    }
+
 }
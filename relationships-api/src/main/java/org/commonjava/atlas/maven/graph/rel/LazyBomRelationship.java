@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.util.Collection;
+
+/**
+ * Lazily-parsed {@link BomRelationship}; see {@link AbstractLazyProjectRelationship}.
+ */
+public final class LazyBomRelationship
+    extends AbstractLazyProjectRelationship<BomRelationship, ProjectVersionRef>
+    implements BomRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public LazyBomRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                final String rawDeclaring, final String rawTarget, final int index,
+                                final boolean inherited, final boolean mixin )
+    {
+        super( rawSources, rawPomLocation, RelationshipType.BOM, rawDeclaring, rawTarget, index, false, inherited,
+               mixin );
+    }
+
+    @Override
+    protected ProjectVersionRef parseTarget( final String raw )
+    {
+        return SimpleProjectVersionRef.parse( raw );
+    }
+
+    @Override
+    public BomRelationship materialize()
+    {
+        return new SimpleBomRelationship( getSources(), getPomLocation(), getDeclaring(), getTarget(), getIndex(),
+                                          isInherited(), isMixin() );
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return getTarget().asPomArtifact();
+    }
+
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Lazily-parsed {@link DependencyRelationship}; see {@link AbstractLazyProjectRelationship}.
+ */
+public final class LazyDependencyRelationship
+    extends AbstractLazyProjectRelationship<DependencyRelationship, ArtifactRef>
+    implements DependencyRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final DependencyScope scope;
+
+    private final boolean optional;
+
+    public LazyDependencyRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                       final String rawDeclaring, final String rawTarget, final DependencyScope scope,
+                                       final int index, final boolean managed, final boolean inherited,
+                                       final boolean optional )
+    {
+        super( rawSources, rawPomLocation, RelationshipType.DEPENDENCY, rawDeclaring, rawTarget, index, managed,
+               inherited, false );
+        this.scope = scope == null ? DependencyScope.compile : scope;
+        this.optional = optional;
+    }
+
+    @Override
+    protected ArtifactRef parseTarget( final String raw )
+    {
+        return SimpleArtifactRef.parse( raw );
+    }
+
+    @Override
+    public DependencyRelationship materialize()
+    {
+        return new SimpleDependencyRelationship( getSources(), getPomLocation(), getDeclaring(), getTarget(), scope,
+                                                 getIndex(), isManaged(), isInherited(), optional );
+    }
+
+    @Override
+    public DependencyScope getScope()
+    {
+        return scope;
+    }
+
+    @Override
+    public boolean isOptional()
+    {
+        return optional;
+    }
+
+    @Override
+    public Set<ProjectRef> getExcludes()
+    {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return getTarget();
+    }
+
+    @Override
+    public boolean isBOM()
+    {
+        return DependencyScope._import == scope && "pom".equals( getTarget().getType() );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * super.hashCode() + ( isManaged() ? 1231 : 1237 );
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        return super.equals( obj ) && obj instanceof DependencyRelationship
+                && isManaged() == ( (DependencyRelationship) obj ).isManaged();
+    }
+
+}
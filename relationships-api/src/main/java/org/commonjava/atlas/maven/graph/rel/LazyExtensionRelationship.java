@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.util.Collection;
+
+/**
+ * Lazily-parsed {@link ExtensionRelationship}; see {@link AbstractLazyProjectRelationship}.
+ */
+public final class LazyExtensionRelationship
+    extends AbstractLazyProjectRelationship<ExtensionRelationship, ProjectVersionRef>
+    implements ExtensionRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public LazyExtensionRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                      final String rawDeclaring, final String rawTarget, final int index,
+                                      final boolean inherited )
+    {
+        super( rawSources, rawPomLocation, RelationshipType.EXTENSION, rawDeclaring, rawTarget, index, false,
+               inherited, false );
+    }
+
+    @Override
+    protected ProjectVersionRef parseTarget( final String raw )
+    {
+        return SimpleProjectVersionRef.parse( raw );
+    }
+
+    @Override
+    public ExtensionRelationship materialize()
+    {
+        return new SimpleExtensionRelationship( getSources(), getPomLocation(), getDeclaring(), getTarget(),
+                                                getIndex(), isInherited() );
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return new SimpleArtifactRef( getTarget(), null, null );
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.util.Collection;
+
+/**
+ * Lazily-parsed {@link ParentRelationship}; see {@link AbstractLazyProjectRelationship}.
+ */
+public final class LazyParentRelationship
+    extends AbstractLazyProjectRelationship<ParentRelationship, ProjectVersionRef>
+    implements ParentRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public LazyParentRelationship( final Collection<String> rawSources, final String rawDeclaring,
+                                   final String rawTarget )
+    {
+        super( rawSources, null, RelationshipType.PARENT, rawDeclaring, rawTarget, 0, false, false, false );
+    }
+
+    @Override
+    protected ProjectVersionRef parseTarget( final String raw )
+    {
+        return SimpleProjectVersionRef.parse( raw );
+    }
+
+    @Override
+    public ParentRelationship materialize()
+    {
+        return new SimpleParentRelationship( getSources(), getDeclaring(), getTarget() );
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return new SimpleArtifactRef( getTarget(), "pom", null );
+    }
+
+    @Override
+    public boolean isTerminus()
+    {
+        return getDeclaring().equals( getTarget() );
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+
+import java.util.Collection;
+
+/**
+ * Lazily-parsed {@link PluginDependencyRelationship}; see {@link AbstractLazyProjectRelationship}. The plugin ref is
+ * parsed lazily too.
+ */
+public final class LazyPluginDependencyRelationship
+    extends AbstractLazyProjectRelationship<PluginDependencyRelationship, ArtifactRef>
+    implements PluginDependencyRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final String rawPlugin;
+
+    private transient volatile ProjectRef plugin;
+
+    public LazyPluginDependencyRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                             final String rawDeclaring, final String rawPlugin,
+                                             final String rawTarget, final int index, final boolean managed,
+                                             final boolean inherited )
+    {
+        super( rawSources, rawPomLocation, RelationshipType.PLUGIN_DEP, rawDeclaring, rawTarget, index, managed,
+               inherited, false );
+        if ( rawPlugin == null )
+        {
+            throw new NullPointerException( "Plugin ref cannot be null!" );
+        }
+        this.rawPlugin = rawPlugin;
+    }
+
+    @Override
+    protected ArtifactRef parseTarget( final String raw )
+    {
+        return SimpleArtifactRef.parse( raw );
+    }
+
+    @Override
+    public PluginDependencyRelationship materialize()
+    {
+        return new SimplePluginDependencyRelationship( getSources(), getPomLocation(), getDeclaring(), getPlugin(),
+                                                       getTarget(), getIndex(), isManaged(), isInherited() );
+    }
+
+    @Override
+    public ProjectRef getPlugin()
+    {
+        ProjectRef ref = plugin;
+        if ( ref == null )
+        {
+            ref = SimpleProjectRef.parse( rawPlugin );
+            plugin = ref;
+        }
+
+        return ref;
+    }
+
+    @Override
+    public boolean isOptional()
+    {
+        return false;
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return getTarget();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = 31 * super.hashCode() + ( isManaged() ? 1231 : 1237 );
+        return 31 * result + getPlugin().hashCode();
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        if ( !super.equals( obj ) || !( obj instanceof PluginDependencyRelationship ) )
+        {
+            return false;
+        }
+
+        final PluginDependencyRelationship other = (PluginDependencyRelationship) obj;
+        return isManaged() == other.isManaged() && getPlugin().equals( other.getPlugin() );
+    }
+
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.util.Collection;
+
+/**
+ * Lazily-parsed {@link PluginRelationship}; see {@link AbstractLazyProjectRelationship}.
+ */
+public final class LazyPluginRelationship
+    extends AbstractLazyProjectRelationship<PluginRelationship, ProjectVersionRef>
+    implements PluginRelationship
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean reporting;
+
+    public LazyPluginRelationship( final Collection<String> rawSources, final String rawPomLocation,
+                                   final String rawDeclaring, final String rawTarget, final int index,
+                                   final boolean managed, final boolean reporting, final boolean inherited )
+    {
+        super( rawSources, rawPomLocation, RelationshipType.PLUGIN, rawDeclaring, rawTarget, index, managed,
+               inherited, false );
+        this.reporting = reporting;
+    }
+
+    @Override
+    protected ProjectVersionRef parseTarget( final String raw )
+    {
+        return SimpleProjectVersionRef.parse( raw );
+    }
+
+    @Override
+    public PluginRelationship materialize()
+    {
+        return new SimplePluginRelationship( getSources(), getPomLocation(), getDeclaring(), getTarget(), getIndex(),
+                                             isManaged(), reporting, isInherited() );
+    }
+
+    @Override
+    public boolean isReporting()
+    {
+        return reporting;
+    }
+
+    @Override
+    public ArtifactRef getTargetArtifact()
+    {
+        return new SimpleArtifactRef( getTarget(), "maven-plugin", null );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * super.hashCode() + ( isManaged() ? 1231 : 1237 );
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        return super.equals( obj ) && obj instanceof PluginRelationship
+                && isManaged() == ( (PluginRelationship) obj ).isManaged();
+    }
+
+}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Immutable relationship path, stored as a chain of parent pointers. Extending a path with {@link #append} allocates
+ * a single node and shares the whole prefix, so a traversal holding many paths uses memory linear in the number of
+ * edges rather than quadratic in path depth.
+ *
+ * Length, hash code and a packed signature of relationship types are computed once per node. The hash code is the
+ * same as that of the equivalent {@link List} (see {@link #toList()}).
+ */
+public final class RelationshipPath
+    implements Iterable<ProjectRelationship<?, ?>>, Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public static final RelationshipPath EMPTY = new RelationshipPath();
+
+    /** Bits used per relationship type in the packed signature. */
+    static final int TYPE_BITS = 3;
+
+    /** Longest path for which the packed signature holds the complete type sequence. */
+    static final int MAX_SIGNATURE_LENGTH = 63 / TYPE_BITS;
+
+    private final RelationshipPath parent;
+
+    private final ProjectRelationship<?, ?> relationship;
+
+    private final int length;
+
+    private final int hash;
+
+    private final long typeSignature;
+
+    private RelationshipPath()
+    {
+        this.parent = null;
+        this.relationship = null;
+        this.length = 0;
+        this.hash = 1;
+        this.typeSignature = 0;
+    }
+
+    private RelationshipPath( final RelationshipPath parent, final ProjectRelationship<?, ?> relationship )
+    {
+        if ( relationship == null )
+        {
+            throw new NullPointerException( "Cannot append a null relationship to a path." );
+        }
+
+        this.parent = parent;
+        this.relationship = relationship;
+        this.length = parent.length + 1;
+        this.hash = 31 * parent.hash + relationship.hashCode();
+        this.typeSignature =
+            length > MAX_SIGNATURE_LENGTH ? parent.typeSignature
+                            : ( parent.typeSignature << TYPE_BITS ) | ( relationship.getType().ordinal() + 1 );
+    }
+
+    public static RelationshipPath of( final ProjectRelationship<?, ?>... relationships )
+    {
+        return EMPTY.appendAll( Arrays.asList( relationships ) );
+    }
+
+    /**
+     * Adapt a list-based path.
+     */
+    public static RelationshipPath fromList( final List<? extends ProjectRelationship<?, ?>> relationships )
+    {
+        return EMPTY.appendAll( relationships );
+    }
+
+    public RelationshipPath append( final ProjectRelationship<?, ?> relationship )
+    {
+        return new RelationshipPath( this, relationship );
+    }
+
+    public RelationshipPath appendAll( final Iterable<? extends ProjectRelationship<?, ?>> relationships )
+    {
+        RelationshipPath path = this;
+        for ( final ProjectRelationship<?, ?> rel : relationships )
+        {
+            path = new RelationshipPath( path, rel );
+        }
+
+        return path;
+    }
+
+    /**
+     * @return the path without its last relationship, or null if this path is empty.
+     */
+    public RelationshipPath getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * @return the last relationship in the path, or null if this path is empty.
+     */
+    public ProjectRelationship<?, ?> getLast()
+    {
+        return relationship;
+    }
+
+    public ProjectRelationship<?, ?> getFirst()
+    {
+        return isEmpty() ? null : prefix( 1 ).relationship;
+    }
+
+    public ProjectRelationship<?, ?> get( final int index )
+    {
+        if ( index < 0 || index >= length )
+        {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", length: " + length );
+        }
+
+        return prefix( index + 1 ).relationship;
+    }
+
+    /**
+     * @return the leading sub-path of the given length, which shares this path's nodes.
+     */
+    public RelationshipPath prefix( final int len )
+    {
+        if ( len < 0 || len > length )
+        {
+            throw new IndexOutOfBoundsException( "Prefix length: " + len + ", length: " + length );
+        }
+
+        RelationshipPath path = this;
+        while ( path.length > len )
+        {
+            path = path.parent;
+        }
+
+        return path;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public boolean isEmpty()
+    {
+        return length == 0;
+    }
+
+    /**
+     * Packed sequence of relationship types, root-most type in the most significant position. For paths of equal
+     * length no longer than {@link #MAX_SIGNATURE_LENGTH}, comparing signatures is the same as comparing type sequences.
+     */
+    long getTypeSignature()
+    {
+        return typeSignature;
+    }
+
+    /**
+     * @return whether the path passes through the given relationship.
+     */
+    public boolean contains( final ProjectRelationship<?, ?> rel )
+    {
+        for ( RelationshipPath path = this; path.relationship != null; path = path.parent )
+        {
+            if ( path.relationship.equals( rel ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adapt back to a list-based path. The returned list is unmodifiable.
+     */
+    public List<ProjectRelationship<?, ?>> toList()
+    {
+        return Collections.unmodifiableList( Arrays.asList( toArray() ) );
+    }
+
+    /**
+     * Copy to a mutable list, for code that extends paths by copying.
+     */
+    public List<ProjectRelationship<?, ?>> toMutableList()
+    {
+        return new ArrayList<ProjectRelationship<?, ?>>( Arrays.asList( toArray() ) );
+    }
+
+    private ProjectRelationship<?, ?>[] toArray()
+    {
+        final ProjectRelationship<?, ?>[] rels = new ProjectRelationship<?, ?>[length];
+        int i = length;
+        for ( RelationshipPath path = this; path.relationship != null; path = path.parent )
+        {
+            rels[--i] = path.relationship;
+        }
+
+        return rels;
+    }
+
+    @Override
+    public Iterator<ProjectRelationship<?, ?>> iterator()
+    {
+        return toList().iterator();
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+    @Override
+    public boolean equals( final Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( !( obj instanceof RelationshipPath ) )
+        {
+            return false;
+        }
+
+        RelationshipPath one = this;
+        RelationshipPath two = (RelationshipPath) obj;
+        if ( one.length != two.length || one.hash != two.hash || one.typeSignature != two.typeSignature )
+        {
+            return false;
+        }
+
+        // shared prefixes are the same object, so the walk usually stops early.
+        while ( one != two )
+        {
+            if ( !one.relationship.equals( two.relationship ) )
+            {
+                return false;
+            }
+
+            one = one.parent;
+            two = two.parent;
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toList().toString();
+    }
+
+    private Object readResolve()
+    {
+        return length == 0 ? EMPTY : this;
+    }
+
+}
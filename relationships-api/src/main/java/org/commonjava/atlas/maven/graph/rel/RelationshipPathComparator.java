@@ -15,17 +15,19 @@
  */
 package org.commonjava.atlas.maven.graph.rel;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
 import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Orders list-based relationship paths. For {@link RelationshipPath} use {@link RelationshipPathNodeComparator}, which
+ * gives the same ordering; {@link RelationshipPath#fromList(List)} and {@link RelationshipPath#toList()} convert
+ * between the two.
+ */
 public class RelationshipPathComparator
     implements Comparator<List<ProjectRelationship<?, ?>>>
 {
 
-    public static RelationshipPathComparator INSTANCE = new RelationshipPathComparator();
+    public static final RelationshipPathComparator INSTANCE = new RelationshipPathComparator();
 
     private final RelationshipComparator comp = RelationshipComparator.INSTANCE;
 
@@ -36,9 +38,6 @@ public class RelationshipPathComparator
     @Override
     public int compare( final List<ProjectRelationship<?, ?>> one, final List<ProjectRelationship<?, ?>> two )
     {
-        Logger logger = LoggerFactory.getLogger( getClass() );
-        logger.debug("Comparing:\nOne: {}\nTwo: {}", one, two);
-
         final int commonLen = Math.min( one.size(), two.size() );
 
         if ( one.size() > commonLen )
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import java.util.Comparator;
+
+/**
+ * {@link RelationshipPath} counterpart of {@link RelationshipPathComparator}, giving the same ordering: shorter paths
+ * first, then by type sequence, then relationship by relationship using {@link RelationshipComparator}.
+ *
+ * Paths are walked from their last nodes towards the root in lock-step, remembering the root-most difference, so no
+ * lists are built. The walk stops at the first node shared by both paths.
+ */
+public final class RelationshipPathNodeComparator
+    implements Comparator<RelationshipPath>
+{
+
+    public static final RelationshipPathNodeComparator INSTANCE = new RelationshipPathNodeComparator();
+
+    private final RelationshipComparator comp = RelationshipComparator.INSTANCE;
+
+    private RelationshipPathNodeComparator()
+    {
+    }
+
+    @Override
+    public int compare( final RelationshipPath one, final RelationshipPath two )
+    {
+        if ( one.length() != two.length() )
+        {
+            return one.length() > two.length() ? 1 : -1;
+        }
+
+        if ( one == two )
+        {
+            return 0;
+        }
+
+        int result;
+        if ( one.length() <= RelationshipPath.MAX_SIGNATURE_LENGTH )
+        {
+            final long sigOne = one.getTypeSignature();
+            final long sigTwo = two.getTypeSignature();
+            result = sigOne == sigTwo ? 0 : ( sigOne < sigTwo ? -1 : 1 );
+        }
+        else
+        {
+            result = compareTypes( one, two );
+        }
+
+        if ( result != 0 )
+        {
+            return result;
+        }
+
+        return compareRels( one, two );
+    }
+
+    private int compareTypes( RelationshipPath one, RelationshipPath two )
+    {
+        int result = 0;
+        while ( one != two )
+        {
+            final int diff = one.getLast()
+                                .getType()
+                                .ordinal() - two.getLast()
+                                                .getType()
+                                                .ordinal();
+            if ( diff != 0 )
+            {
+                result = diff;
+            }
+
+            one = one.getParent();
+            two = two.getParent();
+        }
+
+        return result;
+    }
+
+    private int compareRels( RelationshipPath one, RelationshipPath two )
+    {
+        int result = 0;
+        while ( one != two )
+        {
+            final int diff = comp.compare( one.getLast(), two.getLast() );
+            if ( diff != 0 )
+            {
+                result = diff;
+            }
+
+            one = one.getParent();
+            two = two.getParent();
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,270 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serialized form of the Simple*Relationship classes (see {@link AbstractSimpleProjectRelationship#writeReplace()}).
+ * Only raw strings, flags and the index are written; refs are written as their toString() form plus a kind tag, so
+ * neither the ref object graphs nor their parsed version specs go into the stream. Streams written before this form
+ * existed still read, since the relationship classes keep their default serialized form.
+ */
+final class SerializedRelationship
+    implements Externalizable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte PROJECT_REF = 0;
+
+    private static final byte PROJECT_VERSION_REF = 1;
+
+    private static final byte ARTIFACT_REF = 2;
+
+    private static final int MANAGED = 1;
+
+    private static final int INHERITED = 1 << 1;
+
+    private static final int MIXIN = 1 << 2;
+
+    private static final int OPTIONAL = 1 << 3;
+
+    private static final int REPORTING = 1 << 4;
+
+    // set when writing.
+    private transient ProjectRelationship<?, ?> relationship;
+
+    // set when reading.
+    private transient ProjectRelationship<?, ?> resolved;
+
+    /**
+     * For {@link Externalizable} only.
+     */
+    public SerializedRelationship()
+    {
+    }
+
+    SerializedRelationship( final ProjectRelationship<?, ?> relationship )
+    {
+        this.relationship = relationship;
+    }
+
+    ProjectRelationship<?, ?> getRelationship()
+    {
+        return relationship;
+    }
+
+    @Override
+    public void writeExternal( final ObjectOutput out )
+            throws IOException
+    {
+        final ProjectRelationship<?, ?> rel = relationship;
+        final RelationshipType type = rel.getType();
+
+        out.writeByte( FORMAT_VERSION );
+        out.writeByte( type.ordinal() );
+        writeRef( rel.getDeclaring(), out );
+        writeRef( rel.getTarget(), out );
+        out.writeInt( rel.getIndex() );
+
+        int flags = ( rel.isManaged() ? MANAGED : 0 ) | ( rel.isInherited() ? INHERITED : 0 )
+                | ( rel.isMixin() ? MIXIN : 0 );
+
+        switch ( type )
+        {
+            case DEPENDENCY:
+                flags |= ( (DependencyRelationship) rel ).isOptional() ? OPTIONAL : 0;
+                break;
+            case PLUGIN:
+                flags |= ( (PluginRelationship) rel ).isReporting() ? REPORTING : 0;
+                break;
+            default:
+        }
+        out.writeByte( flags );
+
+        final URI pomLocation = rel.getPomLocation();
+        out.writeBoolean( pomLocation != null );
+        if ( pomLocation != null )
+        {
+            out.writeUTF( pomLocation.toString() );
+        }
+
+        final Set<URI> sources = rel.getSources();
+        out.writeInt( sources.size() );
+        for ( final URI source : sources )
+        {
+            out.writeUTF( source.toString() );
+        }
+
+        if ( type == RelationshipType.DEPENDENCY )
+        {
+            final DependencyRelationship dep = (DependencyRelationship) rel;
+            out.writeUTF( dep.getScope().realName() );
+
+            final Set<ProjectRef> excludes = dep.getExcludes();
+            out.writeInt( excludes == null ? 0 : excludes.size() );
+            if ( excludes != null )
+            {
+                for ( final ProjectRef exclude : excludes )
+                {
+                    writeRef( exclude, out );
+                }
+            }
+        }
+        else if ( type == RelationshipType.PLUGIN_DEP )
+        {
+            writeRef( ( (PluginDependencyRelationship) rel ).getPlugin(), out );
+        }
+    }
+
+    @Override
+    public void readExternal( final ObjectInput in )
+            throws IOException, ClassNotFoundException
+    {
+        final byte version = in.readByte();
+        if ( version != FORMAT_VERSION )
+        {
+            throw new InvalidObjectException( "Unsupported serialized relationship format: " + version );
+        }
+
+        final RelationshipType type = RelationshipType.values()[in.readByte()];
+        final ProjectVersionRef declaring = (ProjectVersionRef) readRef( in );
+        final ProjectRef target = readRef( in );
+        final int index = in.readInt();
+        final int flags = in.readByte();
+        final URI pomLocation = in.readBoolean() ? URI.create( in.readUTF() ) : null;
+
+        final int sourceCount = in.readInt();
+        final List<URI> sources = new ArrayList<URI>( sourceCount );
+        for ( int i = 0; i < sourceCount; i++ )
+        {
+            sources.add( URI.create( in.readUTF() ) );
+        }
+
+        final boolean managed = ( flags & MANAGED ) != 0;
+        final boolean inherited = ( flags & INHERITED ) != 0;
+
+        switch ( type )
+        {
+            case DEPENDENCY:
+            {
+                final DependencyScope scope = DependencyScope.getScope( in.readUTF() );
+                final ProjectRef[] excludes = new ProjectRef[in.readInt()];
+                for ( int i = 0; i < excludes.length; i++ )
+                {
+                    excludes[i] = readRef( in );
+                }
+
+                resolved = new SimpleDependencyRelationship( sources, pomLocation, declaring, (ArtifactRef) target,
+                                                             scope, index, managed, inherited,
+                                                             ( flags & OPTIONAL ) != 0, excludes );
+                break;
+            }
+            case PLUGIN_DEP:
+            {
+                final ProjectRef plugin = readRef( in );
+                resolved = new SimplePluginDependencyRelationship( sources, pomLocation, declaring, plugin,
+                                                                   (ArtifactRef) target, index, managed, inherited );
+                break;
+            }
+            case PLUGIN:
+            {
+                resolved = new SimplePluginRelationship( sources, pomLocation, declaring, (ProjectVersionRef) target,
+                                                         index, managed, ( flags & REPORTING ) != 0, inherited );
+                break;
+            }
+            case EXTENSION:
+            {
+                resolved = new SimpleExtensionRelationship( sources, pomLocation, declaring,
+                                                            (ProjectVersionRef) target, index, inherited );
+                break;
+            }
+            case BOM:
+            {
+                resolved = new SimpleBomRelationship( sources, pomLocation, declaring, (ProjectVersionRef) target,
+                                                      index, inherited, ( flags & MIXIN ) != 0 );
+                break;
+            }
+            case PARENT:
+            {
+                resolved = new SimpleParentRelationship( sources, declaring, (ProjectVersionRef) target );
+                break;
+            }
+        }
+    }
+
+    private Object readResolve()
+    {
+        return resolved;
+    }
+
+    private static void writeRef( final ProjectRef ref, final ObjectOutput out )
+            throws IOException
+    {
+        if ( ref instanceof ArtifactRef )
+        {
+            out.writeByte( ARTIFACT_REF );
+        }
+        else if ( ref instanceof ProjectVersionRef )
+        {
+            out.writeByte( PROJECT_VERSION_REF );
+        }
+        else
+        {
+            out.writeByte( PROJECT_REF );
+        }
+
+        out.writeUTF( ref.toString() );
+    }
+
+    private static ProjectRef readRef( final ObjectInput in )
+            throws IOException
+    {
+        final byte kind = in.readByte();
+        final String value = in.readUTF();
+        switch ( kind )
+        {
+            case ARTIFACT_REF:
+                return SimpleArtifactRef.parse( value );
+            case PROJECT_VERSION_REF:
+                return SimpleProjectVersionRef.parse( value );
+            case PROJECT_REF:
+                return SimpleProjectRef.parse( value );
+            default:
+                throw new InvalidObjectException( "Unknown ref kind: " + kind );
+        }
+    }
+
+}
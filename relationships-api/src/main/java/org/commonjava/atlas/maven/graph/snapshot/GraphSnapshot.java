@@ -0,0 +1,465 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.snapshot;
+
+import static org.commonjava.atlas.maven.graph.snapshot.GraphSnapshotFormat.*;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipConstants;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleExtensionRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+/**
+ * Read-only view of a snapshot written by {@link GraphSnapshotWriter}. The file is memory-mapped, so opening it only
+ * reads the header; the OS pages in the rest as queries touch it, and concurrent readers of the same file share those
+ * pages.
+ *
+ * Nodes and edges are addressed by int ids. Adjacency queries read the mapped arrays directly; refs and relationships
+ * are only built when asked for. Instances are safe for concurrent reads.
+ */
+public final class GraphSnapshot
+    implements Closeable
+{
+
+    private static final DependencyScope[] SCOPES = DependencyScope.values();
+
+    private static final RelationshipType[] TYPES = RelationshipType.values();
+
+    private final RandomAccessFile file;
+
+    private final ByteBuffer buf;
+
+    private final int stringCount;
+
+    private final int nodeCount;
+
+    private final int edgeCount;
+
+    private final int hashSize;
+
+    private final int stringOffsetsPos;
+
+    private final int stringDataPos;
+
+    private final int nodesPos;
+
+    private final int hashPos;
+
+    private final int rowsPos;
+
+    private final int targetsPos;
+
+    private final int attrsPos;
+
+    private GraphSnapshot( final RandomAccessFile file, final ByteBuffer buf )
+        throws IOException
+    {
+        this.file = file;
+        this.buf = buf;
+
+        if ( buf.capacity() < HEADER_SIZE || buf.getInt( 0 ) != MAGIC )
+        {
+            throw new IOException( "Not a relationship graph snapshot." );
+        }
+
+        final int version = buf.getInt( 4 );
+        if ( version != VERSION )
+        {
+            throw new IOException( "Unsupported graph snapshot version: " + version + " (expected: " + VERSION + ")" );
+        }
+
+        stringCount = buf.getInt( H_STRING_COUNT );
+        nodeCount = buf.getInt( H_NODE_COUNT );
+        edgeCount = buf.getInt( H_EDGE_COUNT );
+        hashSize = buf.getInt( H_HASH_SIZE );
+        stringOffsetsPos = buf.getInt( H_STRING_OFFSETS_POS );
+        stringDataPos = buf.getInt( H_STRING_DATA_POS );
+        nodesPos = buf.getInt( H_NODES_POS );
+        hashPos = buf.getInt( H_HASH_POS );
+        rowsPos = buf.getInt( H_ROWS_POS );
+        targetsPos = buf.getInt( H_TARGETS_POS );
+        attrsPos = buf.getInt( H_ATTRS_POS );
+
+        if ( attrsPos + (long) edgeCount * EDGE_ATTR_SIZE > buf.capacity() )
+        {
+            throw new IOException( "Truncated graph snapshot." );
+        }
+    }
+
+    public static GraphSnapshot open( final File file )
+        throws IOException
+    {
+        final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+        try
+        {
+            final FileChannel channel = raf.getChannel();
+            return new GraphSnapshot( raf, channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+        }
+        catch ( final IOException e )
+        {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes the file. The mapping itself is released when this instance is garbage collected.
+     */
+    @Override
+    public void close()
+        throws IOException
+    {
+        file.close();
+    }
+
+    public int getNodeCount()
+    {
+        return nodeCount;
+    }
+
+    public int getEdgeCount()
+    {
+        return edgeCount;
+    }
+
+    /**
+     * @return the node id of the given project, or -1 if it is not in the snapshot
+     */
+    public int getNode( final ProjectVersionRef ref )
+    {
+        final byte[] g = ref.getGroupId()
+                            .getBytes( UTF_8 );
+        final byte[] a = ref.getArtifactId()
+                            .getBytes( UTF_8 );
+        final byte[] v = ref.getVersionString()
+                            .getBytes( UTF_8 );
+
+        final int mask = hashSize - 1;
+        int slot = refHash( ref.getGroupId(), ref.getArtifactId(), ref.getVersionString() ) & mask;
+        int entry;
+        while ( ( entry = buf.getInt( hashPos + 4 * slot ) ) != 0 )
+        {
+            final int node = entry - 1;
+            final int pos = nodesPos + NODE_SIZE * node;
+            if ( stringEquals( buf.getInt( pos + 8 ), v ) && stringEquals( buf.getInt( pos + 4 ), a )
+                && stringEquals( buf.getInt( pos ), g ) )
+            {
+                return node;
+            }
+
+            slot = ( slot + 1 ) & mask;
+        }
+
+        return -1;
+    }
+
+    public ProjectVersionRef getRef( final int node )
+    {
+        final int pos = nodesPos + NODE_SIZE * checkNode( node );
+        return new SimpleProjectVersionRef( string( buf.getInt( pos ) ), string( buf.getInt( pos + 4 ) ),
+                                            string( buf.getInt( pos + 8 ) ) );
+    }
+
+    /**
+     * @return the id of the node's first outgoing edge; its edges are [getFirstEdge(node), getFirstEdge(node + 1))
+     */
+    public int getFirstEdge( final int node )
+    {
+        return buf.getInt( rowsPos + 4 * node );
+    }
+
+    public int getOutDegree( final int node )
+    {
+        checkNode( node );
+        return getFirstEdge( node + 1 ) - getFirstEdge( node );
+    }
+
+    public int getEdgeTarget( final int edge )
+    {
+        return buf.getInt( targetsPos + 4 * checkEdge( edge ) );
+    }
+
+    public RelationshipType getEdgeType( final int edge )
+    {
+        return TYPES[buf.get( attrsPos + EDGE_ATTR_SIZE * checkEdge( edge ) + EDGE_TYPE )];
+    }
+
+    /**
+     * @return target node ids of the node's outgoing edges, optionally restricted to the given types
+     */
+    public int[] getTargets( final int node, final RelationshipType... types )
+    {
+        final int start = getFirstEdge( checkNode( node ) );
+        final int end = getFirstEdge( node + 1 );
+
+        final int[] result = new int[end - start];
+        int count = 0;
+        for ( int e = start; e < end; e++ )
+        {
+            if ( types.length == 0 || isType( e, types ) )
+            {
+                result[count++] = buf.getInt( targetsPos + 4 * e );
+            }
+        }
+
+        if ( count == result.length )
+        {
+            return result;
+        }
+
+        final int[] trimmed = new int[count];
+        System.arraycopy( result, 0, trimmed, 0, count );
+        return trimmed;
+    }
+
+    /**
+     * @return the node's outgoing relationships, in {@link org.commonjava.atlas.maven.graph.rel.RelationshipComparator}
+     *         order, or an empty list if the project is not in the snapshot
+     */
+    public List<ProjectRelationship<?, ?>> getRelationships( final ProjectVersionRef ref )
+    {
+        final int node = getNode( ref );
+        if ( node < 0 )
+        {
+            return Collections.emptyList();
+        }
+
+        final int start = getFirstEdge( node );
+        final int end = getFirstEdge( node + 1 );
+        final List<ProjectRelationship<?, ?>> result = new ArrayList<ProjectRelationship<?, ?>>( end - start );
+        for ( int e = start; e < end; e++ )
+        {
+            result.add( getRelationship( e ) );
+        }
+
+        return result;
+    }
+
+    public ProjectRelationship<?, ?> getRelationship( final int edge )
+    {
+        final int pos = attrsPos + EDGE_ATTR_SIZE * checkEdge( edge );
+
+        final RelationshipType type = TYPES[buf.get( pos + EDGE_TYPE )];
+        final int flags = buf.get( pos + EDGE_FLAGS );
+        final int scope = buf.get( pos + EDGE_SCOPE );
+        final int index = buf.getInt( pos + EDGE_INDEX );
+
+        final boolean managed = ( flags & FLAG_MANAGED ) != 0;
+        final boolean inherited = ( flags & FLAG_INHERITED ) != 0;
+
+        final int declaringNode = declaringNode( edge );
+        final ProjectVersionRef declaring = getRef( declaringNode );
+        final ProjectVersionRef target = getRef( getEdgeTarget( edge ) );
+
+        final int pomId = buf.getInt( pos + EDGE_POM_LOCATION );
+        final URI pomLocation = pomId == NONE ? RelationshipConstants.POM_ROOT_URI : URI.create( string( pomId ) );
+
+        final Set<URI> sources = new HashSet<URI>();
+        final int sourcesId = buf.getInt( pos + EDGE_SOURCES );
+        if ( sourcesId != NONE )
+        {
+            for ( final String src : split( string( sourcesId ) ) )
+            {
+                sources.add( URI.create( src ) );
+            }
+        }
+
+        switch ( type )
+        {
+            case DEPENDENCY:
+            {
+                final List<ProjectRef> excludes = new ArrayList<ProjectRef>();
+                final int excludesId = buf.getInt( pos + EDGE_EXCLUDES );
+                if ( excludesId != NONE )
+                {
+                    for ( final String ex : split( string( excludesId ) ) )
+                    {
+                        excludes.add( SimpleProjectRef.parse( ex ) );
+                    }
+                }
+
+                return new SimpleDependencyRelationship( sources, pomLocation, declaring, artifact( target, pos ),
+                                                         scope == 0 ? null : SCOPES[scope - 1], index, managed,
+                                                         inherited, ( flags & FLAG_OPTIONAL ) != 0,
+                                                         excludes.toArray( new ProjectRef[excludes.size()] ) );
+            }
+            case PLUGIN_DEP:
+            {
+                final ProjectRef plugin = SimpleProjectRef.parse( string( buf.getInt( pos + EDGE_PLUGIN ) ) );
+                return new SimplePluginDependencyRelationship( sources, pomLocation, declaring, plugin,
+                                                               artifact( target, pos ), index, managed, inherited );
+            }
+            case PLUGIN:
+            {
+                return new SimplePluginRelationship( sources, pomLocation, declaring, target, index, managed,
+                                                     ( flags & FLAG_REPORTING ) != 0, inherited );
+            }
+            case EXTENSION:
+            {
+                return new SimpleExtensionRelationship( sources, pomLocation, declaring, target, index, inherited );
+            }
+            case BOM:
+            {
+                return new SimpleBomRelationship( sources, pomLocation, declaring, target, index, inherited,
+                                                  ( flags & FLAG_MIXIN ) != 0 );
+            }
+            default:
+            {
+                if ( declaring.equals( target ) )
+                {
+                    return new SimpleParentRelationship( declaring );
+                }
+
+                return new SimpleParentRelationship( sources, declaring, target );
+            }
+        }
+    }
+
+    private ArtifactRef artifact( final ProjectVersionRef target, final int pos )
+    {
+        final int type = buf.getInt( pos + EDGE_ARTIFACT_TYPE );
+        final int classifier = buf.getInt( pos + EDGE_CLASSIFIER );
+        return new SimpleArtifactRef( target, type == NONE ? null : string( type ),
+                                      classifier == NONE ? null : string( classifier ) );
+    }
+
+    private boolean isType( final int edge, final RelationshipType[] types )
+    {
+        final int ordinal = buf.get( attrsPos + EDGE_ATTR_SIZE * edge + EDGE_TYPE );
+        for ( final RelationshipType type : types )
+        {
+            if ( type.ordinal() == ordinal )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Binary search of the CSR row offsets for the row holding the edge.
+     */
+    private int declaringNode( final int edge )
+    {
+        int lo = 0;
+        int hi = nodeCount - 1;
+        while ( lo < hi )
+        {
+            final int mid = ( lo + hi + 1 ) >>> 1;
+            if ( getFirstEdge( mid ) <= edge )
+            {
+                lo = mid;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        return lo;
+    }
+
+    private String string( final int id )
+    {
+        final int start = buf.getInt( stringOffsetsPos + 4 * id );
+        final int end = buf.getInt( stringOffsetsPos + 4 * ( id + 1 ) );
+
+        final byte[] bytes = new byte[end - start];
+        final ByteBuffer view = buf.duplicate();
+        view.position( stringDataPos + start );
+        view.get( bytes );
+
+        return new String( bytes, UTF_8 );
+    }
+
+    private boolean stringEquals( final int id, final byte[] bytes )
+    {
+        final int start = stringDataPos + buf.getInt( stringOffsetsPos + 4 * id );
+        final int end = stringDataPos + buf.getInt( stringOffsetsPos + 4 * ( id + 1 ) );
+        if ( end - start != bytes.length )
+        {
+            return false;
+        }
+
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            if ( buf.get( start + i ) != bytes[i] )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static String[] split( final String joined )
+    {
+        return joined.split( String.valueOf( LIST_SEPARATOR ) );
+    }
+
+    private int checkNode( final int node )
+    {
+        if ( node < 0 || node >= nodeCount )
+        {
+            throw new IndexOutOfBoundsException( "Node: " + node + ", node count: " + nodeCount );
+        }
+
+        return node;
+    }
+
+    private int checkEdge( final int edge )
+    {
+        if ( edge < 0 || edge >= edgeCount )
+        {
+            throw new IndexOutOfBoundsException( "Edge: " + edge + ", edge count: " + edgeCount );
+        }
+
+        return edge;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "GraphSnapshot [nodes=" + nodeCount + ", edges=" + edgeCount + ", strings=" + stringCount + "]";
+    }
+
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.snapshot;
+
+import java.nio.charset.Charset;
+
+/**
+ * Layout of the binary graph snapshot. All numbers are big-endian ints unless noted; all positions are absolute file
+ * offsets.
+ *
+ * <pre>
+ * header     magic, version, stringCount, nodeCount, edgeCount, hashSize,
+ *            stringOffsetsPos, stringDataPos, nodesPos, hashPos, rowsPos, targetsPos, attrsPos  (padded to 64 bytes)
+ * strings    int[stringCount + 1] offsets into the UTF-8 string data, then the data
+ * nodes      int[nodeCount * 3]: groupId, artifactId, version string ids
+ * hash       int[hashSize]: node id + 1 (0 = empty), open addressing on {@link #refHash(String, String, String)}
+ * rows       int[nodeCount + 1]: CSR offsets of each node's outgoing edges
+ * targets    int[edgeCount]: target node id of each edge
+ * attrs      edgeCount records of {@link #EDGE_ATTR_SIZE} bytes, see EDGE_* offsets
+ * </pre>
+ */
+final class GraphSnapshotFormat
+{
+
+    static final int MAGIC = 0x41544753; // "ATGS"
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 64;
+
+    static final int H_STRING_COUNT = 8;
+
+    static final int H_NODE_COUNT = 12;
+
+    static final int H_EDGE_COUNT = 16;
+
+    static final int H_HASH_SIZE = 20;
+
+    static final int H_STRING_OFFSETS_POS = 24;
+
+    static final int H_STRING_DATA_POS = 28;
+
+    static final int H_NODES_POS = 32;
+
+    static final int H_HASH_POS = 36;
+
+    static final int H_ROWS_POS = 40;
+
+    static final int H_TARGETS_POS = 44;
+
+    static final int H_ATTRS_POS = 48;
+
+    static final int NODE_SIZE = 12;
+
+    static final int EDGE_ATTR_SIZE = 32;
+
+    /** byte: {@link org.commonjava.atlas.maven.graph.rel.RelationshipType} ordinal */
+    static final int EDGE_TYPE = 0;
+
+    /** byte: FLAG_* bits */
+    static final int EDGE_FLAGS = 1;
+
+    /** byte: {@link org.commonjava.atlas.maven.ident.DependencyScope} ordinal + 1, 0 if none */
+    static final int EDGE_SCOPE = 2;
+
+    static final int EDGE_INDEX = 4;
+
+    static final int EDGE_ARTIFACT_TYPE = 8;
+
+    static final int EDGE_CLASSIFIER = 12;
+
+    static final int EDGE_POM_LOCATION = 16;
+
+    /** sources, joined with {@link #LIST_SEPARATOR} */
+    static final int EDGE_SOURCES = 20;
+
+    /** plugin groupId:artifactId of plugin-level dependencies */
+    static final int EDGE_PLUGIN = 24;
+
+    /** dependency exclusions as groupId:artifactId, joined with {@link #LIST_SEPARATOR} */
+    static final int EDGE_EXCLUDES = 28;
+
+    static final int FLAG_MANAGED = 1;
+
+    static final int FLAG_INHERITED = 2;
+
+    static final int FLAG_MIXIN = 4;
+
+    static final int FLAG_OPTIONAL = 8;
+
+    static final int FLAG_REPORTING = 16;
+
+    /** string id meaning "no value" */
+    static final int NONE = -1;
+
+    static final char LIST_SEPARATOR = ' ';
+
+    static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    private GraphSnapshotFormat()
+    {
+    }
+
+    /**
+     * Same value as <code>( groupId + ":" + artifactId + ":" + version ).hashCode()</code>, without building the string.
+     */
+    static int refHash( final String groupId, final String artifactId, final String version )
+    {
+        int h = hash( 0, groupId );
+        h = 31 * h + ':';
+        h = hash( h, artifactId );
+        h = 31 * h + ':';
+        return hash( h, version );
+    }
+
+    private static int hash( int h, final String value )
+    {
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            h = 31 * h + value.charAt( i );
+        }
+
+        return h;
+    }
+
+    static int hashSize( final int nodeCount )
+    {
+        int size = 2;
+        while ( size < nodeCount * 2 )
+        {
+            size <<= 1;
+        }
+
+        return size;
+    }
+
+}
@@ -0,0 +1,394 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.snapshot;
+
+import static org.commonjava.atlas.maven.graph.snapshot.GraphSnapshotFormat.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipComparator;
+import org.commonjava.atlas.maven.graph.rel.RelationshipConstants;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+
+/**
+ * Collects relationships and writes them as a binary snapshot readable by {@link GraphSnapshot}. See
+ * {@link GraphSnapshotFormat} for the layout.
+ */
+public final class GraphSnapshotWriter
+{
+
+    private final Set<ProjectRelationship<?, ?>> relationships = new LinkedHashSet<ProjectRelationship<?, ?>>();
+
+    private final Map<ProjectVersionRef, Integer> nodes = new HashMap<ProjectVersionRef, Integer>();
+
+    private final List<ProjectVersionRef> nodeList = new ArrayList<ProjectVersionRef>();
+
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+
+    private final List<byte[]> stringList = new ArrayList<byte[]>();
+
+    public GraphSnapshotWriter add( final ProjectRelationship<?, ?> relationship )
+    {
+        relationships.add( relationship );
+        return this;
+    }
+
+    public GraphSnapshotWriter addAll( final Collection<? extends ProjectRelationship<?, ?>> relationships )
+    {
+        this.relationships.addAll( relationships );
+        return this;
+    }
+
+    /**
+     * Add the project as a node, even if it has no relationships, along with its relationships. Terminal parent
+     * markers are left out, so they don't show up as self-loops.
+     */
+    public GraphSnapshotWriter add( final EProjectDirectRelationships relationships )
+    {
+        node( relationships.getProjectRef() );
+        this.relationships.addAll( relationships.getAllRelationships() );
+        return this;
+    }
+
+    public void write( final File file )
+        throws IOException
+    {
+        final OutputStream out = new FileOutputStream( file );
+        try
+        {
+            write( out );
+        }
+        finally
+        {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes the snapshot to the stream. The format addresses everything with int offsets, so a graph whose snapshot
+     * would exceed {@link Integer#MAX_VALUE} bytes is rejected with an {@link IOException} before anything is written.
+     */
+    public void write( final OutputStream stream )
+        throws IOException
+    {
+        final List<ProjectRelationship<?, ?>> edges = new ArrayList<ProjectRelationship<?, ?>>( relationships );
+        for ( final ProjectRelationship<?, ?> rel : edges )
+        {
+            node( rel.getDeclaring() );
+            node( rel.getTarget() );
+        }
+
+        // CSR layout needs edges grouped by declaring node.
+        Collections.sort( edges, new Comparator<ProjectRelationship<?, ?>>()
+        {
+            @Override
+            public int compare( final ProjectRelationship<?, ?> one, final ProjectRelationship<?, ?> two )
+            {
+                final int res = node( one.getDeclaring() ) - node( two.getDeclaring() );
+                return res == 0 ? RelationshipComparator.INSTANCE.compare( one, two ) : res;
+            }
+        } );
+
+        final int nodeCount = nodeList.size();
+        final int edgeCount = edges.size();
+
+        final int[] rows = new int[nodeCount + 1];
+        final int[] targets = new int[edgeCount];
+        final int[][] attrs = new int[edgeCount][];
+        for ( int e = 0; e < edgeCount; e++ )
+        {
+            final ProjectRelationship<?, ?> rel = edges.get( e );
+            rows[node( rel.getDeclaring() ) + 1]++;
+            targets[e] = node( rel.getTarget() );
+            attrs[e] = attributes( rel );
+        }
+
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            rows[i + 1] += rows[i];
+        }
+
+        final int[] nodeStrings = new int[nodeCount * 3];
+        final int hashSize = hashSize( nodeCount );
+        final int[] hash = new int[hashSize];
+        for ( int i = 0; i < nodeCount; i++ )
+        {
+            final ProjectVersionRef ref = nodeList.get( i );
+            nodeStrings[i * 3] = string( ref.getGroupId() );
+            nodeStrings[i * 3 + 1] = string( ref.getArtifactId() );
+            nodeStrings[i * 3 + 2] = string( ref.getVersionString() );
+
+            int slot = refHash( ref.getGroupId(), ref.getArtifactId(), ref.getVersionString() ) & ( hashSize - 1 );
+            while ( hash[slot] != 0 )
+            {
+                slot = ( slot + 1 ) & ( hashSize - 1 );
+            }
+            hash[slot] = i + 1;
+        }
+
+        final int stringCount = stringList.size();
+        long stringBytes = 0;
+        for ( final byte[] bytes : stringList )
+        {
+            stringBytes += bytes.length;
+        }
+
+        // every position is a signed int in the header, so lay the file out in long and refuse anything past 2GB
+        final long stringOffsetsPos = HEADER_SIZE;
+        final long stringDataPos = stringOffsetsPos + 4L * ( stringCount + 1 );
+        final long nodesPos = align( stringDataPos + stringBytes );
+        final long hashPos = nodesPos + (long) NODE_SIZE * nodeCount;
+        final long rowsPos = hashPos + 4L * hashSize;
+        final long targetsPos = rowsPos + 4L * ( nodeCount + 1 );
+        final long attrsPos = targetsPos + 4L * edgeCount;
+        final long end = attrsPos + (long) EDGE_ATTR_SIZE * edgeCount;
+        if ( end > Integer.MAX_VALUE )
+        {
+            throw new IOException( String.format( "Graph snapshot of %d nodes and %d edges would take %d bytes; "
+                + "the format is limited to %d bytes.", nodeCount, edgeCount, end, Integer.MAX_VALUE ) );
+        }
+
+        final int[] stringOffsets = new int[stringCount + 1];
+        for ( int i = 0; i < stringCount; i++ )
+        {
+            stringOffsets[i + 1] = stringOffsets[i] + stringList.get( i ).length;
+        }
+
+        final DataOutputStream out = new DataOutputStream( new BufferedOutputStream( stream, 65536 ) );
+
+        out.writeInt( MAGIC );
+        out.writeInt( VERSION );
+        out.writeInt( stringCount );
+        out.writeInt( nodeCount );
+        out.writeInt( edgeCount );
+        out.writeInt( hashSize );
+        out.writeInt( (int) stringOffsetsPos );
+        out.writeInt( (int) stringDataPos );
+        out.writeInt( (int) nodesPos );
+        out.writeInt( (int) hashPos );
+        out.writeInt( (int) rowsPos );
+        out.writeInt( (int) targetsPos );
+        out.writeInt( (int) attrsPos );
+        pad( out, HEADER_SIZE );
+
+        writeInts( out, stringOffsets );
+        for ( final byte[] bytes : stringList )
+        {
+            out.write( bytes );
+        }
+        pad( out, (int) nodesPos );
+
+        writeInts( out, nodeStrings );
+        writeInts( out, hash );
+        writeInts( out, rows );
+        writeInts( out, targets );
+
+        for ( final int[] attr : attrs )
+        {
+            out.writeByte( attr[0] );
+            out.writeByte( attr[1] );
+            out.writeByte( attr[2] );
+            out.writeByte( 0 );
+            for ( int i = 3; i < attr.length; i++ )
+            {
+                out.writeInt( attr[i] );
+            }
+        }
+
+        out.flush();
+    }
+
+    private int[] attributes( final ProjectRelationship<?, ?> rel )
+    {
+        int flags = 0;
+        int scope = 0;
+        int plugin = NONE;
+        int excludes = NONE;
+        int type = NONE;
+        int classifier = NONE;
+
+        if ( rel.isManaged() )
+        {
+            flags |= FLAG_MANAGED;
+        }
+        if ( rel.isInherited() )
+        {
+            flags |= FLAG_INHERITED;
+        }
+        if ( rel.isMixin() )
+        {
+            flags |= FLAG_MIXIN;
+        }
+
+        switch ( rel.getType() )
+        {
+            case DEPENDENCY:
+            {
+                final DependencyRelationship dep = (DependencyRelationship) rel;
+                if ( dep.isOptional() )
+                {
+                    flags |= FLAG_OPTIONAL;
+                }
+                if ( dep.getScope() != null )
+                {
+                    scope = dep.getScope()
+                               .ordinal() + 1;
+                }
+
+                final Set<ProjectRef> ex = dep.getExcludes();
+                if ( ex != null && !ex.isEmpty() )
+                {
+                    final Set<String> sorted = new TreeSet<String>();
+                    for ( final ProjectRef ref : ex )
+                    {
+                        sorted.add( ref.getGroupId() + ":" + ref.getArtifactId() );
+                    }
+                    excludes = string( join( sorted ) );
+                }
+                break;
+            }
+            case PLUGIN:
+            {
+                if ( ( (PluginRelationship) rel ).isReporting() )
+                {
+                    flags |= FLAG_REPORTING;
+                }
+                break;
+            }
+            case PLUGIN_DEP:
+            {
+                final ProjectRef p = ( (PluginDependencyRelationship) rel ).getPlugin();
+                plugin = string( p.getGroupId() + ":" + p.getArtifactId() );
+                break;
+            }
+            default:
+        }
+
+        if ( rel.getTarget() instanceof ArtifactRef )
+        {
+            final ArtifactRef artifact = (ArtifactRef) rel.getTarget();
+            type = artifact.getType() == null ? NONE : string( artifact.getType() );
+            classifier = artifact.getClassifier() == null ? NONE : string( artifact.getClassifier() );
+        }
+
+        final URI pom = rel.getPomLocation();
+        final int pomLocation =
+            pom == null || RelationshipConstants.POM_ROOT_URI.equals( pom ) ? NONE : string( pom.toString() );
+
+        final Set<String> srcs = new TreeSet<String>();
+        if ( rel.getSources() != null )
+        {
+            for ( final URI src : rel.getSources() )
+            {
+                srcs.add( src.toString() );
+            }
+        }
+        final int sources = srcs.isEmpty() ? NONE : string( join( srcs ) );
+
+        return new int[] { rel.getType()
+                              .ordinal(), flags, scope, rel.getIndex(), type, classifier, pomLocation, sources, plugin,
+            excludes };
+    }
+
+    private int node( final ProjectVersionRef ref )
+    {
+        final ProjectVersionRef key = ref.asProjectVersionRef();
+        Integer id = nodes.get( key );
+        if ( id == null )
+        {
+            id = nodeList.size();
+            nodes.put( key, id );
+            nodeList.add( key );
+        }
+
+        return id;
+    }
+
+    private int string( final String value )
+    {
+        Integer id = strings.get( value );
+        if ( id == null )
+        {
+            id = stringList.size();
+            strings.put( value, id );
+            stringList.add( value.getBytes( UTF_8 ) );
+        }
+
+        return id;
+    }
+
+    private static String join( final Collection<String> values )
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( final String value : values )
+        {
+            if ( sb.length() > 0 )
+            {
+                sb.append( LIST_SEPARATOR );
+            }
+            sb.append( value );
+        }
+
+        return sb.toString();
+    }
+
+    private static long align( final long pos )
+    {
+        return ( pos + 3 ) & ~3L;
+    }
+
+    private static void pad( final DataOutputStream out, final int pos )
+        throws IOException
+    {
+        while ( out.size() < pos )
+        {
+            out.writeByte( 0 );
+        }
+    }
+
+    private static void writeInts( final DataOutputStream out, final int[] values )
+        throws IOException
+    {
+        for ( final int value : values )
+        {
+            out.writeInt( value );
+        }
+    }
+
+}
@@ -27,7 +27,6 @@ import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
-import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
 import org.commonjava.atlas.maven.ident.DependencyScope;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
@@ -137,14 +136,18 @@ public final class RelationshipUtils
     {
         for (final Iterator<? extends ProjectRelationship<?, ?>> it = rels.iterator(); it.hasNext(); )
         {
-            final ProjectRelationship<?, ?> rel = it.next();
-            if ( ( rel instanceof SimpleParentRelationship ) && ( (ParentRelationship) rel ).isTerminus() )
+            if ( isTerminalParent( it.next() ) )
             {
                 it.remove();
             }
         }
     }
 
+    public static boolean isTerminalParent( final ProjectRelationship<?, ?> rel )
+    {
+        return ( rel instanceof ParentRelationship ) && ( (ParentRelationship) rel ).isTerminus();
+    }
+
     public static URI profileLocation( final String profile )
     {
         if ( profile == null || profile.trim()
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.index;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class ReverseDependencyIndexTest
+{
+
+    private final URI source = URI.create( "test:source" );
+
+    private final ProjectRef bar = new SimpleProjectRef( "org.foo", "bar" );
+
+    private static ProjectVersionRef ref( final String artifactId, final String version )
+    {
+        return new SimpleProjectVersionRef( "org.foo", artifactId, version );
+    }
+
+    private EProjectDirectRelationships project( final ProjectVersionRef ref, final ProjectVersionRef... deps )
+    {
+        final EProjectDirectRelationships.Builder builder = new EProjectDirectRelationships.Builder( source, ref );
+        int idx = 0;
+        for ( final ProjectVersionRef dep : deps )
+        {
+            builder.withDependencies( new SimpleDependencyRelationship( source, ref,
+                                                                        new SimpleArtifactRef( dep, null, null ),
+                                                                        DependencyScope.compile, idx++, false, false,
+                                                                        false ) );
+        }
+
+        return builder.build();
+    }
+
+    private ReverseDependencyIndex index()
+    {
+        final ReverseDependencyIndex index = new ReverseDependencyIndex();
+        index.update( project( ref( "a", "1" ), ref( "bar", "1.0" ) ) );
+        index.update( project( ref( "b", "1" ), ref( "bar", "2.0" ) ) );
+        index.update( project( ref( "c", "1" ), ref( "bar", "[1.5,3.0)" ) ) );
+        index.update( project( ref( "d", "1" ), ref( "a", "1" ) ) );
+        index.update( project( ref( "e", "1" ), ref( "d", "1" ) ) );
+        return index;
+    }
+
+    @Test
+    public void rangeQuerySelectsUsersOfVersionsInRange()
+    {
+        final Set<ProjectVersionRef> users =
+            index().getDirectUsers( bar, VersionUtils.createFromSpec( "[1.0,2.0)" ), null );
+
+        assertThat( users.size(), equalTo( 2 ) );
+        assertThat( users.contains( ref( "a", "1" ) ), equalTo( true ) );
+        assertThat( users.contains( ref( "c", "1" ) ), equalTo( true ) );
+    }
+
+    @Test
+    public void partiallyOverlappingRangesMatch()
+    {
+        final ReverseDependencyIndex index = index();
+
+        final Set<ProjectVersionRef> above =
+            index.getDirectUsers( bar, VersionUtils.createFromSpec( "[2.5,4.0)" ), null );
+        assertThat( above.size(), equalTo( 1 ) );
+        assertThat( above.contains( ref( "c", "1" ) ), equalTo( true ) );
+
+        final Set<ProjectVersionRef> below = index.getDirectUsers( bar, VersionUtils.createFromSpec( "(,1.6]" ), null );
+        assertThat( below.size(), equalTo( 2 ) );
+        assertThat( below.contains( ref( "c", "1" ) ), equalTo( true ) );
+
+        assertThat( index.getDirectUsers( bar, VersionUtils.createFromSpec( "[1.0,1.5)" ), null )
+                         .contains( ref( "c", "1" ) ), equalTo( false ) );
+        assertThat( index.getDirectUsers( bar, VersionUtils.createFromSpec( "[3.0,4.0)" ), null ).isEmpty(),
+                    equalTo( true ) );
+    }
+
+    @Test
+    public void compoundQueryUnionsComponents()
+    {
+        final Set<ProjectVersionRef> users =
+            index().getDirectUsers( bar, VersionUtils.createFromSpec( "[0.5,1.0],[2.0,2.5]" ), null );
+
+        // c declares [1.5,3.0), which overlaps the second component
+        assertThat( users.size(), equalTo( 3 ) );
+        assertThat( users.contains( ref( "b", "1" ) ), equalTo( true ) );
+        assertThat( users.contains( ref( "c", "1" ) ), equalTo( true ) );
+    }
+
+    @Test
+    public void transitiveUsersFollowFilter()
+    {
+        final ReverseDependencyIndex index = index();
+
+        final Map<ProjectVersionRef, Integer> users =
+            index.getTransitiveUsers( bar, VersionUtils.createFromSpec( "[1.0]" ), null );
+        assertThat( users.get( ref( "e", "1" ) ), equalTo( 3 ) );
+
+        final Map<ProjectVersionRef, Integer> pluginUsers =
+            index.getTransitiveUsers( bar, null, new RelationshipTypeFilter( true, RelationshipType.PLUGIN ) );
+        assertThat( pluginUsers.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void updateReplacesPreviousPostings()
+    {
+        final ReverseDependencyIndex index = index();
+        index.update( project( ref( "a", "1" ), ref( "other", "1" ) ) );
+
+        assertThat( index.getDirectUsers( bar, VersionUtils.createFromSpec( "1.0" ), null ).isEmpty(),
+                    equalTo( true ) );
+
+        index.remove( ref( "b", "1" ) );
+        assertThat( index.getDirectUsers( bar, null, null ).size(), equalTo( 1 ) );
+        assertThat( index.size(), equalTo( 4 ) );
+    }
+
+}
@@ -0,0 +1,180 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * The relationship and ref modules only use the generic generator/parser API, so they work unchanged with Jackson's
+ * binary formats.
+ */
+public class BinaryFormatsTest
+{
+
+    private static final TypeReference<List<ProjectRelationship<?, ?>>> REL_LIST =
+            new TypeReference<List<ProjectRelationship<?, ?>>>()
+            {
+            };
+
+    private final URI source = URI.create( "test:source" );
+
+    private static ObjectMapper mapper( final JsonFactory factory )
+    {
+        final ObjectMapper mapper = new ObjectMapper( factory );
+        mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+        return mapper;
+    }
+
+    private static SmileFactory sharedStringSmile()
+    {
+        return new SmileFactory().configure( SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true );
+    }
+
+    private EProjectDirectRelationships project( final ProjectVersionRef ref, final int deps )
+    {
+        final EProjectDirectRelationships.Builder builder = new EProjectDirectRelationships.Builder( source, ref );
+        builder.withParent( new SimpleProjectVersionRef( "org.foo", "parent", "1" ) );
+        for ( int i = 0; i < deps; i++ )
+        {
+            builder.withDependencies( new SimpleDependencyRelationship( source, ref, new SimpleArtifactRef(
+                    "org.foo", "lib-" + ( i % 20 ), "1." + ( i % 3 ), null, null ), DependencyScope.compile, i,
+                                                                        false, false, false ) );
+        }
+        builder.withPlugins( new SimplePluginRelationship( source, ref, new SimpleProjectVersionRef(
+                "org.apache.maven.plugins", "maven-compiler-plugin", "3.1" ), 0, false, false ) );
+
+        return builder.build();
+    }
+
+    /**
+     * Realistic dump: many projects depending on an overlapping set of libraries.
+     */
+    private List<ProjectRelationship<?, ?>> dump()
+    {
+        final List<ProjectRelationship<?, ?>> rels = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( int p = 0; p < 200; p++ )
+        {
+            rels.addAll( project( new SimpleProjectVersionRef( "org.foo", "project-" + p, "1.0" ), 15 )
+                                 .getExactAllRelationships() );
+        }
+
+        return rels;
+    }
+
+    private void assertRoundTrip( final JsonFactory factory )
+            throws Exception
+    {
+        final ObjectMapper mapper = mapper( factory );
+        final EProjectDirectRelationships rels = project( new SimpleProjectVersionRef( "org.foo", "bar", "1" ), 5 );
+
+        final EProjectDirectRelationships clone =
+                mapper.readValue( mapper.writeValueAsBytes( rels ), EProjectDirectRelationships.class );
+
+        assertThat( clone.getProjectRef(), equalTo( rels.getProjectRef() ) );
+        assertThat( clone.getParent(), equalTo( rels.getParent() ) );
+        assertThat( clone.getDependencies(), equalTo( rels.getDependencies() ) );
+        assertThat( clone.getPlugins(), equalTo( rels.getPlugins() ) );
+
+        final List<ProjectRelationship<?, ?>> dump = dump();
+        final List<ProjectRelationship<?, ?>> result = mapper.readValue( mapper.writeValueAsBytes( dump ), REL_LIST );
+        assertThat( result, equalTo( dump ) );
+    }
+
+    @Test
+    public void smileRoundTrip()
+            throws Exception
+    {
+        assertRoundTrip( sharedStringSmile() );
+    }
+
+    @Test
+    public void cborRoundTrip()
+            throws Exception
+    {
+        assertRoundTrip( new CBORFactory() );
+    }
+
+    /**
+     * Rough size and throughput comparison; the size assertion is the part that matters.
+     */
+    @Test
+    public void sharedStringSmileIsSmallerThanJson()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> dump = dump();
+
+        final int json = measure( "JSON", mapper( new JsonFactory() ), dump );
+        final int smile = measure( "Smile (shared strings)", mapper( sharedStringSmile() ), dump );
+        measure( "CBOR", mapper( new CBORFactory() ), dump );
+
+        assertThat( smile < json / 2, equalTo( true ) );
+    }
+
+    private int measure( final String name, final ObjectMapper mapper, final List<ProjectRelationship<?, ?>> dump )
+            throws Exception
+    {
+        final int rounds = 5;
+        byte[] bytes = null;
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            bytes = mapper.writeValueAsBytes( dump );
+        }
+        final long encode = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            mapper.readValue( bytes, REL_LIST );
+        }
+        final long decode = System.nanoTime() - start;
+
+        System.out.printf( "%s: %d bytes for %d relationships; encode %.1f rels/ms, decode %.1f rels/ms%n", name,
+                           bytes.length, dump.size(), rate( dump.size() * rounds, encode ),
+                           rate( dump.size() * rounds, decode ) );
+
+        return bytes.length;
+    }
+
+    private static double rate( final int count, final long nanos )
+    {
+        return count / ( nanos / 1000000.0 );
+    }
+
+}
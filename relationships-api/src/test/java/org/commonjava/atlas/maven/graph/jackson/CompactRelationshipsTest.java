@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+import java.net.URI;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class CompactRelationshipsTest
+{
+
+    private final URI source = URI.create( "test:source" );
+
+    private EProjectDirectRelationships project()
+    {
+        final ProjectVersionRef ref = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+        final ProjectVersionRef plugin = new SimpleProjectVersionRef( "org.apache.maven.plugins", "maven-foo-plugin",
+                                                                      "2" );
+
+        final EProjectDirectRelationships.Builder builder = new EProjectDirectRelationships.Builder( source, ref );
+        builder.withParent( new SimpleProjectVersionRef( "org.foo", "parent", "1" ) );
+        builder.withBoms( new SimpleBomRelationship( source, ref, new SimpleProjectVersionRef( "org.foo", "bom", "1" ),
+                                                     0, false, false ) );
+        for ( int i = 0; i < 10; i++ )
+        {
+            final ArtifactRef dep = new SimpleArtifactRef( "org.foo", "dep-" + i, "1." + i, null, null );
+            builder.withDependencies(
+                    new SimpleDependencyRelationship( source, ref, dep, DependencyScope.compile, i, false, false,
+                                                      false ),
+                    new SimpleDependencyRelationship( source, ref, dep, DependencyScope.compile, i, true, false,
+                                                      false ) );
+        }
+        builder.withPlugins( new SimplePluginRelationship( source, ref, plugin, 0, false, false ) );
+        builder.withPluginDependencies(
+                new SimplePluginDependencyRelationship( source, ref, plugin.asProjectRef(),
+                                                        new SimpleArtifactRef( "org.foo", "tool", "3", null, null ), 0,
+                                                        false, false ) );
+
+        return builder.build();
+    }
+
+    private static ObjectMapper mapper( final boolean compact )
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+        if ( compact )
+        {
+            mapper.registerModule( new CompactRelationshipsModule() );
+        }
+
+        return mapper;
+    }
+
+    @Test
+    public void roundTripSharesRefInstances()
+            throws Exception
+    {
+        final EProjectDirectRelationships rels = project();
+        final ObjectMapper mapper = mapper( true );
+
+        final String json = mapper.writeValueAsString( rels );
+        System.out.println( json );
+
+        final EProjectDirectRelationships result = mapper.readValue( json, EProjectDirectRelationships.class );
+
+        assertThat( result.getSource(), equalTo( source ) );
+        assertThat( result.getRelationshipList(), equalTo( rels.getRelationshipList() ) );
+        assertThat( result.getPluginDependencies(), equalTo( rels.getPluginDependencies() ) );
+
+        final ProjectVersionRef projectRef = result.getProjectRef();
+        for ( final ProjectRelationship<?, ?> rel : result.getRelationshipList() )
+        {
+            assertThat( rel.getDeclaring(), sameInstance( projectRef ) );
+        }
+
+        final DependencyRelationship dep = result.getDependencies().get( 3 );
+        final DependencyRelationship managed = result.getManagedDependencies().get( 3 );
+        assertThat( dep.getTarget(), sameInstance( managed.getTarget() ) );
+        assertThat( result, equalTo( rels ) );
+    }
+
+    @Test
+    public void compactFormIsSmaller()
+            throws Exception
+    {
+        final EProjectDirectRelationships rels = project();
+
+        final int plain = mapper( false ).writeValueAsBytes( rels ).length;
+        final int compact = mapper( true ).writeValueAsBytes( rels ).length;
+
+        System.out.printf( "plain: %d bytes, compact: %d bytes%n", plain, compact );
+        assertThat( compact < plain, equalTo( true ) );
+    }
+
+}
@@ -16,16 +16,20 @@
 package org.commonjava.atlas.maven.graph.jackson;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.commonjava.atlas.maven.graph.jackson.ProjectRelationshipSerializerModule;
 import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.AbstractLazyProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.ExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.graph.util.RelationshipUtils;
 import org.commonjava.atlas.maven.ident.DependencyScope;
 import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
@@ -36,6 +40,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
@@ -119,4 +126,81 @@ public class EProjectRelationshipsSerializerTest
         assertThat( clone.getManagedDependencies(), equalTo( rels.getManagedDependencies() ) );
         assertThat( clone.getManagedPlugins(), equalTo( rels.getManagedPlugins() ) );
     }
+
+    @Test
+    public void roundTrip_LazyTerminalParentIsFiltered()
+            throws Exception
+    {
+        final URI sourceUri = new URI( "test:source" );
+        final ProjectVersionRef p = new SimpleProjectVersionRef( "org.foo", "root", "1" );
+
+        final EProjectDirectRelationships rels = new EProjectDirectRelationships.Builder( sourceUri, p ).withDependencies(
+                new SimpleDependencyRelationship( sourceUri, p, new SimpleArtifactRef( "org.foo", "dep", "1", null,
+                                                                                       null ), DependencyScope.compile,
+                                                  0, false, false, false ) ).build();
+
+        final ObjectMapper lazyMapper = new ObjectMapper();
+        lazyMapper.registerModules( new ProjectVersionRefSerializerModule(),
+                                    new ProjectRelationshipSerializerModule( true ) );
+
+        final EProjectDirectRelationships clone =
+                lazyMapper.readValue( mapper.writeValueAsString( rels ), EProjectDirectRelationships.class );
+
+        assertThat( clone.getParent() instanceof AbstractLazyProjectRelationship, equalTo( true ) );
+        assertThat( clone.getParent().isTerminus(), equalTo( true ) );
+        assertThat( RelationshipUtils.isTerminalParent( clone.getParent() ), equalTo( true ) );
+        assertThat( clone.getAllRelationships(), equalTo( rels.getAllRelationships() ) );
+        assertThat( clone.getAllRelationships().size(), equalTo( 1 ) );
+
+        final List<ProjectRelationship<?, ?>> filtered = new ArrayList<ProjectRelationship<?, ?>>();
+        filtered.add( clone.getParent() );
+        RelationshipUtils.filterTerminalParents( filtered );
+        assertThat( filtered.isEmpty(), equalTo( true ) );
+    }
+
+    @Test
+    public void equalsIgnoresPluginDependencyMapOrder()
+            throws Exception
+    {
+        final URI sourceUri = new URI( "test:source" );
+        final ProjectVersionRef p = new SimpleProjectVersionRef( "org.foo", "root", "1" );
+
+        final EProjectDirectRelationships.Builder builder = new EProjectDirectRelationships.Builder( sourceUri, p );
+        for ( int i = 0; i < 3; i++ )
+        {
+            final SimpleProjectRef plugin = new SimpleProjectRef( "org.foo.plugins", "plugin-" + i );
+            builder.withPlugins( new SimplePluginRelationship( sourceUri, p, new SimpleProjectVersionRef( plugin, "1" ),
+                                                               i, false, false ) );
+            builder.withPluginDependencies(
+                    new SimplePluginDependencyRelationship( sourceUri, p, plugin,
+                                                            new SimpleArtifactRef( "org.foo", "tool-" + i, "1", null,
+                                                                                   null ), 0, false, false ) );
+        }
+
+        final ObjectNode json = mapper.valueToTree( builder.build() );
+        final ObjectNode groups = (ObjectNode) json.get( "pluginDependencies" );
+
+        final List<String> names = new ArrayList<String>();
+        final Iterator<String> it = groups.fieldNames();
+        while ( it.hasNext() )
+        {
+            names.add( it.next() );
+        }
+
+        final ObjectNode reversedGroups = mapper.createObjectNode();
+        for ( int i = names.size() - 1; i >= 0; i-- )
+        {
+            reversedGroups.set( names.get( i ), groups.get( names.get( i ) ) );
+        }
+
+        final ObjectNode reversed = json.deepCopy();
+        reversed.set( "pluginDependencies", reversedGroups );
+
+        final EProjectDirectRelationships first = mapper.treeToValue( json, EProjectDirectRelationships.class );
+        final EProjectDirectRelationships second = mapper.treeToValue( reversed, EProjectDirectRelationships.class );
+
+        assertThat( second.hashCode(), equalTo( first.hashCode() ) );
+        assertThat( second, equalTo( first ) );
+        assertThat( first, equalTo( second ) );
+    }
 }
@@ -17,22 +17,33 @@ package org.commonjava.atlas.maven.graph.jackson;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.commonjava.atlas.maven.graph.jackson.ProjectRelationshipSerializerModule;
+import org.commonjava.atlas.maven.graph.rel.AbstractLazyProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
 import org.commonjava.atlas.maven.graph.rel.RelationshipConstants;
 import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
 import org.commonjava.atlas.maven.ident.DependencyScope;
 import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.net.URI;
+import java.util.Arrays;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 /**
  * Created by jdcasey on 8/21/15.
@@ -96,4 +107,126 @@ public class ProjectRelationshipSerializerModuleTest
 
         assertThat( (DependencyRelationship) result, equalTo( rel ) );
     }
+
+    private static ProjectRelationship<?, ?>[] allTypes()
+    {
+        final URI source = URI.create( "some:test:location" );
+        final URI pom = URI.create( "some:pom:location" );
+        final ProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+        final ProjectVersionRef target = new SimpleProjectVersionRef( "org.foo", "target", "2" );
+
+        final ProjectRelationship<?, ?>[] rels = {
+            new SimpleParentRelationship( source, declaring, target ),
+            new SimpleBomRelationship( source, pom, declaring, target, 1, true, true ),
+            new SimpleDependencyRelationship( source, pom, declaring, new SimpleArtifactRef( target, "zip", "dist" ),
+                                              DependencyScope.test, 2, true, false, true ),
+            new SimplePluginRelationship( source, pom, declaring, target, 3, true, true, false ),
+            new SimplePluginDependencyRelationship( source, pom, declaring, new SimpleProjectRef( "org.foo", "plugin" ),
+                                                    target.asJarArtifact(), 4, false, true ),
+            new SimpleExtensionRelationship( source, pom, declaring, target, 5, false ) };
+
+        return rels;
+    }
+
+    @Test
+    public void roundTrip_AllTypesAreByteIdentical()
+            throws Exception
+    {
+        for ( final ProjectRelationship<?, ?> rel : allTypes() )
+        {
+            final String json = mapper.writeValueAsString( rel );
+            final ProjectRelationship<?, ?> result = mapper.readValue( json, ProjectRelationship.class );
+
+            assertThat( json, mapper.writeValueAsString( result ), equalTo( json ) );
+            assertThat( json, (Object) result, equalTo( (Object) rel ) );
+        }
+    }
+
+    @Test
+    public void roundTrip_LazyRelationshipsMatchEager()
+            throws Exception
+    {
+        final ObjectMapper lazyMapper = new ObjectMapper();
+        lazyMapper.registerModules( new ProjectVersionRefSerializerModule(),
+                                    new ProjectRelationshipSerializerModule( true ) );
+
+        for ( final ProjectRelationship<?, ?> rel : allTypes() )
+        {
+            final String json = mapper.writeValueAsString( rel );
+            final ProjectRelationship<?, ?> result = lazyMapper.readValue( json, ProjectRelationship.class );
+
+            assertThat( json, result instanceof AbstractLazyProjectRelationship, equalTo( true ) );
+            assertThat( json, (Object) result, equalTo( (Object) rel ) );
+            assertThat( json, (Object) rel, equalTo( (Object) result ) );
+            assertThat( json, result.hashCode(), equalTo( rel.hashCode() ) );
+            assertThat( json, lazyMapper.writeValueAsString( result ), equalTo( json ) );
+        }
+    }
+
+    @Test
+    public void lazyRelationshipParsesUrisOnFirstAccess()
+            throws Exception
+    {
+        final ObjectMapper lazyMapper = new ObjectMapper();
+        lazyMapper.registerModule( new ProjectRelationshipSerializerModule( true ) );
+
+        final String json = "{\"type\":\"DEPENDENCY\",\"pom-location-uri\":\"not a uri\","
+                + "\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:dep:1.1\",\"idx\":3}";
+
+        final DependencyRelationship result =
+                (DependencyRelationship) lazyMapper.readValue( json, ProjectRelationship.class );
+
+        assertThat( result.getTarget().getArtifactId(), equalTo( "dep" ) );
+        assertThat( result.getDeclaring(), sameInstance( result.getDeclaring() ) );
+
+        try
+        {
+            result.getPomLocation();
+            fail( "Malformed POM location should be reported on access" );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void unknownAndNullFieldsAreSkipped()
+            throws Exception
+    {
+        final String json = "{\"type\":\"DEPENDENCY\",\"pom-location-uri\":null,\"extra\":{\"nested\":[1,2]},"
+                + "\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:dep:1.1\",\"scope\":null,\"idx\":3}";
+
+        final DependencyRelationship result = (DependencyRelationship) mapper.readValue( json, ProjectRelationship.class );
+
+        assertThat( result.getPomLocation(), equalTo( RelationshipConstants.POM_ROOT_URI ) );
+        assertThat( result.getScope(), equalTo( DependencyScope.compile ) );
+        assertThat( result.getIndex(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void serializedFormIsUnchanged()
+            throws Exception
+    {
+        final DependencyRelationship rel =
+                new SimpleDependencyRelationship( Arrays.asList( URI.create( "test:one" ), URI.create( "test:two" ),
+                                                                 URI.create( "test:three" ) ),
+                                                  RelationshipConstants.POM_ROOT_URI,
+                                                  new SimpleProjectVersionRef( "org.foo", "bar", "1" ),
+                                                  new SimpleProjectVersionRef( "org.foo", "dep", "1.1" ).asJarArtifact(),
+                                                  DependencyScope.runtime, 2, true, false, true );
+
+        final StringBuilder sources = new StringBuilder();
+        for ( final URI source : rel.getSources() )
+        {
+            sources.append( sources.length() == 0 ? "" : "," ).append( '"' ).append( source ).append( '"' );
+        }
+
+        final String expected = "{\"type\":\"DEPENDENCY\",\"pom-location-uri\":\"pom:root\",\"inherited\":false,"
+                + "\"source-uris\":[" + sources + "],\"declaring\":\"org.foo:bar:1\","
+                + "\"target\":\"org.foo:dep:jar:1.1\",\"scope\":\"runtime\",\"managed\":true,\"optional\":true,"
+                + "\"idx\":2}";
+
+        assertThat( mapper.writeValueAsString( rel ), equalTo( expected ) );
+    }
 }
@@ -0,0 +1,142 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RelationshipNdjsonTest
+{
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private ObjectMapper mapper;
+
+    @Before
+    public void before()
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+    }
+
+    private List<ProjectRelationship<?, ?>> relationships( final int count )
+    {
+        final URI source = URI.create( "test:source" );
+        final ProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+
+        final List<ProjectRelationship<?, ?>> rels = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( int i = 0; i < count; i++ )
+        {
+            rels.add( new SimpleDependencyRelationship( source, declaring,
+                                                        new SimpleArtifactRef( "org.foo", "dep-" + i, "1." + i, null,
+                                                                               null ), DependencyScope.compile, i,
+                                                        false, false, false ) );
+        }
+
+        return rels;
+    }
+
+    @Test
+    public void roundTripOneRelationshipPerLine()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> rels = relationships( 5 );
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final RelationshipNdjsonWriter writer = new RelationshipNdjsonWriter( mapper, out );
+        writer.writeAll( rels );
+        writer.close();
+
+        final String ndjson = out.toString( "UTF-8" );
+        assertThat( ndjson.split( "\n" ).length, equalTo( 5 ) );
+        assertThat( ndjson.endsWith( "\n" ), equalTo( true ) );
+
+        final long[] reported = new long[2];
+        final RelationshipNdjsonReader reader =
+                new RelationshipNdjsonReader( mapper, new ByteArrayInputStream( out.toByteArray() ),
+                                              new NdjsonProgressListener()
+                                              {
+                                                  @Override
+                                                  public void progress( final long records, final long bytes,
+                                                                        final long elapsedMillis )
+                                                  {
+                                                      reported[0] = records;
+                                                      reported[1] = bytes;
+                                                  }
+                                              }, 2 );
+
+        final List<ProjectRelationship<?, ?>> result = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( final ProjectRelationship<?, ?> rel : reader )
+        {
+            result.add( rel );
+        }
+        reader.close();
+
+        assertThat( result, equalTo( rels ) );
+        assertThat( reported[0], equalTo( 5L ) );
+        assertThat( reported[1], equalTo( (long) out.size() ) );
+    }
+
+    @Test
+    public void splitReadersCoverEveryLineOnce()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> rels = relationships( 50 );
+
+        final File file = temp.newFile( "rels.ndjson" );
+        final RelationshipNdjsonWriter writer = new RelationshipNdjsonWriter( mapper, new FileOutputStream( file ) );
+        writer.writeAll( rels );
+        writer.close();
+
+        final List<RelationshipNdjsonReader> readers = RelationshipNdjsonReader.split( mapper, file, 4 );
+        assertThat( readers.size(), equalTo( 4 ) );
+
+        final List<ProjectRelationship<?, ?>> result = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( final RelationshipNdjsonReader reader : readers )
+        {
+            for ( final ProjectRelationship<?, ?> rel : reader )
+            {
+                result.add( rel );
+            }
+            reader.close();
+        }
+
+        assertThat( result, equalTo( rels ) );
+    }
+
+}
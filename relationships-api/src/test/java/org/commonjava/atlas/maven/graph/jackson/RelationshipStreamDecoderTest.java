@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.jackson;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RelationshipStreamDecoderTest
+{
+
+    private ObjectMapper mapper;
+
+    private final List<ProjectRelationship<?, ?>> received = new ArrayList<ProjectRelationship<?, ?>>();
+
+    private boolean complete;
+
+    private final RelationshipStreamListener listener = new RelationshipStreamListener()
+    {
+        @Override
+        public void relationship( final ProjectRelationship<?, ?> relationship )
+        {
+            received.add( relationship );
+        }
+
+        @Override
+        public void complete()
+        {
+            complete = true;
+        }
+    };
+
+    @Before
+    public void before()
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+    }
+
+    private List<ProjectRelationship<?, ?>> relationships( final int count )
+    {
+        final URI source = URI.create( "test:source" );
+        final ProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+
+        final List<ProjectRelationship<?, ?>> rels = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( int i = 0; i < count; i++ )
+        {
+            rels.add( new SimpleDependencyRelationship( source, declaring,
+                                                        new SimpleArtifactRef( "org.foo", "dep-" + i, "1." + i, null,
+                                                                               null ), DependencyScope.compile, i,
+                                                        false, false, false ) );
+        }
+
+        return rels;
+    }
+
+    private static List<ByteBuffer> chunks( final byte[] bytes, final int size )
+    {
+        final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+        for ( int i = 0; i < bytes.length; i += size )
+        {
+            chunks.add( ByteBuffer.wrap( bytes, i, Math.min( size, bytes.length - i ) ) );
+        }
+
+        return chunks;
+    }
+
+    @Test
+    public void decodesNdjsonFedInSmallChunks()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> rels = relationships( 20 );
+        final StringBuilder ndjson = new StringBuilder();
+        for ( final ProjectRelationship<?, ?> rel : rels )
+        {
+            ndjson.append( mapper.writeValueAsString( rel ) ).append( '\n' );
+        }
+
+        final RelationshipStreamDecoder decoder = new RelationshipStreamDecoder( mapper, listener );
+        decoder.request( Long.MAX_VALUE );
+        for ( final ByteBuffer chunk : chunks( ndjson.toString().getBytes( "UTF-8" ), 7 ) )
+        {
+            decoder.feed( chunk );
+        }
+        decoder.endOfInput();
+
+        assertThat( received, equalTo( rels ) );
+        assertThat( complete, equalTo( true ) );
+    }
+
+    @Test
+    public void deliversArrayElementsOnlyAgainstDemand()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> rels = relationships( 10 );
+        final List<ByteBuffer> chunks = chunks( mapper.writeValueAsBytes( rels ), 64 );
+
+        final RelationshipStreamDecoder decoder = new RelationshipStreamDecoder( mapper, listener );
+        decoder.request( 3 );
+
+        int fed = 0;
+        while ( decoder.needsInput() )
+        {
+            decoder.feed( chunks.get( fed++ ) );
+        }
+
+        assertThat( received.size(), equalTo( 3 ) );
+        assertThat( fed < chunks.size(), equalTo( true ) );
+
+        decoder.request( Long.MAX_VALUE );
+        while ( fed < chunks.size() )
+        {
+            if ( decoder.needsInput() )
+            {
+                decoder.feed( chunks.get( fed++ ) );
+            }
+        }
+        decoder.endOfInput();
+
+        assertThat( received, equalTo( rels ) );
+        assertThat( decoder.getRelationshipCount(), equalTo( 10L ) );
+        assertThat( complete, equalTo( true ) );
+    }
+
+    @Test
+    public void listenerRequestingFromCallbackDoesNotRecurse()
+            throws Exception
+    {
+        final List<ProjectRelationship<?, ?>> rels = relationships( 2000 );
+        final StringBuilder ndjson = new StringBuilder();
+        for ( final ProjectRelationship<?, ?> rel : rels )
+        {
+            ndjson.append( mapper.writeValueAsString( rel ) ).append( '\n' );
+        }
+
+        final List<ProjectRelationship<?, ?>> delivered = new ArrayList<ProjectRelationship<?, ?>>();
+        final int[] completions = new int[1];
+        final int[] maxDepth = new int[1];
+        final RelationshipStreamDecoder[] decoder = new RelationshipStreamDecoder[1];
+
+        decoder[0] = new RelationshipStreamDecoder( mapper, new RelationshipStreamListener()
+        {
+            private int depth;
+
+            @Override
+            public void relationship( final ProjectRelationship<?, ?> relationship )
+            {
+                delivered.add( relationship );
+                depth++;
+                maxDepth[0] = Math.max( maxDepth[0], depth );
+                try
+                {
+                    decoder[0].request( 1 );
+                    if ( delivered.size() == rels.size() )
+                    {
+                        decoder[0].endOfInput();
+                    }
+                }
+                catch ( final Exception e )
+                {
+                    throw new IllegalStateException( e );
+                }
+                depth--;
+            }
+
+            @Override
+            public void complete()
+            {
+                completions[0]++;
+            }
+        } );
+
+        decoder[0].request( 1 );
+        decoder[0].feed( ByteBuffer.wrap( ndjson.toString().getBytes( "UTF-8" ) ) );
+        decoder[0].endOfInput();
+
+        assertThat( delivered, equalTo( rels ) );
+        assertThat( maxDepth[0], equalTo( 1 ) );
+        assertThat( completions[0], equalTo( 1 ) );
+    }
+
+    @Test( expected = JsonParseException.class )
+    public void truncatedInputFails()
+            throws Exception
+    {
+        final byte[] json = mapper.writeValueAsBytes( relationships( 2 ) );
+
+        final RelationshipStreamDecoder decoder = new RelationshipStreamDecoder( mapper, listener );
+        decoder.request( Long.MAX_VALUE );
+        decoder.feed( ByteBuffer.wrap( json, 0, json.length - 10 ) );
+        decoder.endOfInput();
+    }
+
+}
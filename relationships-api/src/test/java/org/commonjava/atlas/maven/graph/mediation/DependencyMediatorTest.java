@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.mediation;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleVersionlessArtifactRef;
+import org.junit.Test;
+
+public class DependencyMediatorTest
+{
+
+    private final URI source = URI.create( "test:source" );
+
+    private final ProjectVersionRef root = ref( "root", "1" );
+
+    private static ProjectVersionRef ref( final String artifactId, final String version )
+    {
+        return new SimpleProjectVersionRef( "org.foo", artifactId, version );
+    }
+
+    private DependencyRelationship dep( final ProjectVersionRef declaring, final ProjectVersionRef target,
+                                        final int index, final DependencyScope scope, final ProjectRef... excludes )
+    {
+        return new SimpleDependencyRelationship( source, declaring, new SimpleArtifactRef( target, null, null ), scope,
+                                                 index, false, false, false, excludes );
+    }
+
+    private DependencyRelationship managed( final ProjectVersionRef declaring, final ProjectVersionRef target )
+    {
+        return new SimpleDependencyRelationship( source, declaring, new SimpleArtifactRef( target, null, null ),
+                                                 DependencyScope.compile, 0, true, false, false );
+    }
+
+    private EProjectDirectRelationships project( final ProjectVersionRef ref, final DependencyRelationship... deps )
+    {
+        return new EProjectDirectRelationships.Builder( source, ref ).withDependencies( deps ).build();
+    }
+
+    private static String versionOf( final MediationResult result, final String artifactId )
+    {
+        return result.getSelected( new SimpleVersionlessArtifactRef(
+                        new SimpleArtifactRef( ref( artifactId, "0" ), null, null ) ) ).getTarget().getVersionString();
+    }
+
+    @Test
+    public void nearestDeclarationWins()
+    {
+        final ProjectVersionRef a = ref( "a", "1" );
+        final ProjectVersionRef b = ref( "b", "1" );
+        final ProjectVersionRef c = ref( "c", "1" );
+
+        final MediationResult result = new DependencyMediator( Arrays.asList(
+                        project( root, dep( root, a, 0, DependencyScope.compile ),
+                                 dep( root, b, 1, DependencyScope.compile ) ),
+                        project( a, dep( a, ref( "x", "1" ), 0, DependencyScope.compile ) ),
+                        project( b, dep( b, c, 0, DependencyScope.compile ) ),
+                        project( c, dep( c, ref( "x", "2" ), 0, DependencyScope.compile ) ) ) ).resolve( root );
+
+        assertThat( versionOf( result, "x" ), equalTo( "1" ) );
+        assertThat( result.getDependencies().size(), equalTo( 4 ) );
+        assertThat( result.getMissing().size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void firstDeclarationWinsAtEqualDepth()
+    {
+        final ProjectVersionRef a = ref( "a", "1" );
+        final ProjectVersionRef b = ref( "b", "1" );
+
+        final MediationResult result = new DependencyMediator( Arrays.asList(
+                        project( root, dep( root, b, 1, DependencyScope.compile ),
+                                 dep( root, a, 0, DependencyScope.compile ) ),
+                        project( a, dep( a, ref( "x", "1" ), 0, DependencyScope.compile ) ),
+                        project( b, dep( b, ref( "x", "2" ), 0, DependencyScope.compile ) ) ) ).resolve( root );
+
+        assertThat( versionOf( result, "x" ), equalTo( "1" ) );
+        assertThat( result.getDepth( new SimpleVersionlessArtifactRef(
+                        new SimpleArtifactRef( ref( "x", "1" ), null, null ) ) ), equalTo( 2 ) );
+    }
+
+    @Test
+    public void managedVersionOverridesTransitive()
+    {
+        final ProjectVersionRef a = ref( "a", "1" );
+
+        final EProjectDirectRelationships rootRels =
+            project( root, dep( root, a, 0, DependencyScope.compile ), managed( root, ref( "x", "3" ) ) );
+
+        final MediationResult result = new DependencyMediator( Arrays.asList(
+                        rootRels, project( a, dep( a, ref( "x", "1" ), 0, DependencyScope.compile ) ) ) ).resolve( root );
+
+        assertThat( versionOf( result, "x" ), equalTo( "3" ) );
+    }
+
+    @Test
+    public void exclusionsAndScopesPrunePaths()
+    {
+        final ProjectVersionRef a = ref( "a", "1" );
+        final ProjectVersionRef b = ref( "b", "1" );
+
+        final MediationResult result = new DependencyMediator( Arrays.asList(
+                        project( root, dep( root, a, 0, DependencyScope.compile, new SimpleProjectRef( "org.foo", "x" ) ),
+                                 dep( root, b, 1, DependencyScope.runtime ) ),
+                        project( a, dep( a, ref( "x", "1" ), 0, DependencyScope.compile ),
+                                 dep( a, ref( "t", "1" ), 1, DependencyScope.test ) ),
+                        project( b, dep( b, ref( "y", "1" ), 0, DependencyScope.compile ) ) ) ).resolve( root,
+                                                                                                          DependencyScope.compile );
+
+        assertThat( result.getDependencies().size(), equalTo( 1 ) );
+        assertThat( result.getScope( new SimpleVersionlessArtifactRef(
+                        new SimpleArtifactRef( ref( "y", "1" ), null, null ) ) ), equalTo( DependencyScope.runtime ) );
+    }
+
+    @Test
+    public void selectedDependenciesCarryEffectiveScope()
+    {
+        final ProjectVersionRef a = ref( "a", "1" );
+        final SimpleVersionlessArtifactRef x =
+            new SimpleVersionlessArtifactRef( new SimpleArtifactRef( ref( "x", "1" ), null, null ) );
+
+        final MediationResult result = new DependencyMediator( Arrays.asList(
+                        project( root, dep( root, a, 0, DependencyScope.test ) ),
+                        project( a, dep( a, ref( "x", "1" ), 0, DependencyScope.compile ) ) ) ).resolve( root );
+
+        assertThat( result.getDependencies().get( 1 ).getScope(), equalTo( DependencyScope.test ) );
+        assertThat( result.getSelected( x ).getScope(), equalTo( DependencyScope.test ) );
+        assertThat( result.getSelected( x ).getDeclaring(), equalTo( a ) );
+        assertThat( ( (DependencyRelationship) result.getPath( x ).get( 1 ) ).getScope(),
+                    equalTo( DependencyScope.compile ) );
+    }
+
+}
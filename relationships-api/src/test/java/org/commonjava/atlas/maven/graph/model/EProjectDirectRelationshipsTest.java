@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.model;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+public class EProjectDirectRelationshipsTest
+{
+
+    private final URI source = URI.create( "test:source" );
+
+    private final ProjectVersionRef project = new SimpleProjectVersionRef( "org.foo", "bar", "1.0" );
+
+    private EProjectDirectRelationships build( final boolean withParent )
+    {
+        final EProjectDirectRelationships.Builder builder = new EProjectDirectRelationships.Builder( source, project );
+        if ( withParent )
+        {
+            builder.withParent( new SimpleProjectVersionRef( "org.foo", "parent", "1" ) );
+        }
+
+        final DependencyRelationship dep =
+            new SimpleDependencyRelationship( source, project, new SimpleArtifactRef( "org.foo", "dep", "1.1", null, null ),
+                                              DependencyScope.compile, 0, false, false, false );
+        final DependencyRelationship managed =
+            new SimpleDependencyRelationship( source, project, new SimpleArtifactRef( "org.foo", "dep", "1.2", null, null ),
+                                              DependencyScope.compile, 0, true, false, false );
+        final PluginRelationship plugin =
+            new SimplePluginRelationship( source, project, new SimpleProjectVersionRef( "org.foo", "plugin", "2" ), 0,
+                                          false, false );
+
+        return builder.withDependencies( dep, managed ).withPlugins( plugin ).build();
+    }
+
+    @Test
+    public void typedSlicesMatchTypedAccessors()
+    {
+        final EProjectDirectRelationships rels = build( true );
+
+        assertThat( rels.getRelationshipCount(), equalTo( 4 ) );
+        assertThat( rels.getRelationships( RelationshipType.DEPENDENCY ).size(), equalTo( 2 ) );
+        assertThat( rels.getRelationships( RelationshipType.PLUGIN ).size(), equalTo( 1 ) );
+        assertThat( rels.getRelationships( RelationshipType.BOM ).isEmpty(), equalTo( true ) );
+        assertThat( rels.getRelationships( RelationshipType.PARENT ).get( 0 ),
+                    equalTo( (ProjectRelationship<?, ?>) rels.getParent() ) );
+        assertThat( rels.getRelationshipList().size(), equalTo( rels.getExactAllRelationships().size() ) );
+    }
+
+    @Test
+    public void visitorSkipsTerminalParentUnlessExact()
+    {
+        final EProjectDirectRelationships rels = build( false );
+
+        final List<ProjectRelationship<?, ?>> visited = new ArrayList<ProjectRelationship<?, ?>>();
+        final RelationshipVisitor collector = new RelationshipVisitor()
+        {
+            @Override
+            public boolean visit( final ProjectRelationship<?, ?> rel )
+            {
+                visited.add( rel );
+                return true;
+            }
+        };
+
+        rels.accept( collector );
+        assertThat( visited.size(), equalTo( rels.getAllRelationships().size() ) );
+        assertThat( visited.size(), equalTo( 3 ) );
+
+        visited.clear();
+        rels.acceptExact( collector );
+        assertThat( visited.size(), equalTo( 4 ) );
+    }
+
+    @Test
+    public void visitorCanStopEarly()
+    {
+        final EProjectDirectRelationships rels = build( true );
+
+        final int[] count = { 0 };
+        final boolean completed = rels.accept( RelationshipType.DEPENDENCY, new RelationshipVisitor()
+        {
+            @Override
+            public boolean visit( final ProjectRelationship<?, ?> rel )
+            {
+                count[0]++;
+                return false;
+            }
+        } );
+
+        assertThat( completed, equalTo( false ) );
+        assertThat( count[0], equalTo( 1 ) );
+    }
+
+    @Test
+    public void equalContentsHaveEqualHashes()
+    {
+        final EProjectDirectRelationships one = build( true );
+        final EProjectDirectRelationships two = build( true );
+
+        assertThat( one.hashCode(), equalTo( two.hashCode() ) );
+        assertThat( one, equalTo( two ) );
+        assertThat( one.equals( build( false ) ), equalTo( false ) );
+    }
+
+}
@@ -82,4 +82,42 @@ public class RelationshipPathComparatorTest
         assertThat( ( firstResult instanceof SimpleParentRelationship ), equalTo( true ) );
     }
 
+    @Test
+    public void persistentPathsSortLikeListPaths()
+        throws InvalidVersionSpecificationException, URISyntaxException
+    {
+        final URI source = testURI();
+        final ProjectVersionRef root = projectVersion( "group.id", "my-artifact", "1.0" );
+        final ProjectVersionRef dep = projectVersion( "org.group", "dep-1", "1.0" );
+        final ProjectVersionRef parent = projectVersion( "group.id", "parent", "1" );
+
+        final RelationshipPath viaDep = RelationshipPath.of( dependency( source, root, dep, 0, false, false ) );
+        final RelationshipPath viaParent = RelationshipPath.of( new SimpleParentRelationship( source, root, parent ) );
+
+        final List<RelationshipPath> paths = new ArrayList<RelationshipPath>();
+        paths.add( viaDep.append( dependency( source, dep, projectVersion( "org.foo", "bar", "1.0" ), 0, false, false ) ) );
+        paths.add( viaParent.append( dependency( source, parent, "org.foo", "bar", "1.1.1", 0, false, false ) ) );
+        paths.add( viaDep );
+        paths.add( viaDep.append( dependency( source, dep, projectVersion( "org.foo", "baz", "1.0" ), 1, false, false ) ) );
+
+        final List<List<ProjectRelationship<?, ?>>> lists = new ArrayList<List<ProjectRelationship<?, ?>>>();
+        for ( final RelationshipPath path : paths )
+        {
+            lists.add( path.toList() );
+            assertThat( path.hashCode(), equalTo( path.toList().hashCode() ) );
+            assertThat( RelationshipPath.fromList( path.toList() ), equalTo( path ) );
+        }
+
+        Collections.sort( paths, RelationshipPathNodeComparator.INSTANCE );
+        Collections.sort( lists, RelationshipPathComparator.INSTANCE );
+
+        for ( int i = 0; i < paths.size(); i++ )
+        {
+            assertThat( paths.get( i ).toList(), equalTo( lists.get( i ) ) );
+        }
+
+        assertThat( paths.get( 0 ), equalTo( viaDep ) );
+        assertThat( paths.get( 1 ).getFirst() instanceof SimpleParentRelationship, equalTo( true ) );
+    }
+
 }
@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.rel;
+
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class SerializedRelationshipTest
+{
+
+    /**
+     * Writes relationships in their default serialized form, as they were written before
+     * {@link SerializedRelationship} existed.
+     */
+    private static final class LegacyObjectOutputStream
+        extends ObjectOutputStream
+    {
+        LegacyObjectOutputStream( final OutputStream out )
+                throws IOException
+        {
+            super( out );
+            enableReplaceObject( true );
+        }
+
+        @Override
+        protected Object replaceObject( final Object obj )
+        {
+            return obj instanceof SerializedRelationship ? ( (SerializedRelationship) obj ).getRelationship() : obj;
+        }
+    }
+
+    private static List<ProjectRelationship<?, ?>> allTypes()
+    {
+        final URI source = URI.create( "some:test:location" );
+        final URI pom = URI.create( "some:pom:location" );
+        final ProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+        final ProjectVersionRef target = new SimpleProjectVersionRef( "org.foo", "target", "2.0-SNAPSHOT" );
+
+        return Arrays.<ProjectRelationship<?, ?>> asList(
+                new SimpleParentRelationship( declaring ),
+                new SimpleParentRelationship( Arrays.asList( source, pom ), declaring, target ),
+                new SimpleBomRelationship( source, pom, declaring, target, 1, true, true ),
+                new SimpleDependencyRelationship( source, pom, declaring,
+                                                  new SimpleArtifactRef( target, "zip", "dist" ), DependencyScope.test,
+                                                  2, true, false, true, new SimpleProjectRef( "org.foo", "excluded" ) ),
+                new SimplePluginRelationship( source, pom, declaring, target, 3, true, true, false ),
+                new SimplePluginDependencyRelationship( source, pom, declaring,
+                                                        new SimpleProjectRef( "org.foo", "plugin" ),
+                                                        target.asJarArtifact(), 4, false, true ),
+                new SimpleExtensionRelationship( source, pom, declaring, target, 5, false ) );
+    }
+
+    private static byte[] write( final Object value, final boolean legacy )
+            throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out =
+                legacy ? new LegacyObjectOutputStream( bytes ) : new ObjectOutputStream( bytes );
+        out.writeObject( value );
+        out.close();
+
+        return bytes.toByteArray();
+    }
+
+    private static Object read( final byte[] bytes )
+            throws Exception
+    {
+        final ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( bytes ) );
+        try
+        {
+            return in.readObject();
+        }
+        finally
+        {
+            in.close();
+        }
+    }
+
+    private static void assertSame( final ProjectRelationship<?, ?> result, final ProjectRelationship<?, ?> rel )
+    {
+        final String msg = rel.toString();
+        assertThat( msg, result.getClass().equals( rel.getClass() ), equalTo( true ) );
+        assertThat( msg, (Object) result, equalTo( (Object) rel ) );
+        assertThat( msg, result.getSources(), equalTo( rel.getSources() ) );
+        assertThat( msg, result.getPomLocation(), equalTo( rel.getPomLocation() ) );
+        assertThat( msg, result.getIndex(), equalTo( rel.getIndex() ) );
+        assertThat( msg, result.isInherited(), equalTo( rel.isInherited() ) );
+        assertThat( msg, result.isMixin(), equalTo( rel.isMixin() ) );
+        assertThat( msg, result.getTarget().getClass().equals( rel.getTarget().getClass() ), equalTo( true ) );
+
+        if ( rel instanceof DependencyRelationship )
+        {
+            final DependencyRelationship dep = (DependencyRelationship) rel;
+            final DependencyRelationship other = (DependencyRelationship) result;
+            assertThat( msg, other.getScope(), equalTo( dep.getScope() ) );
+            assertThat( msg, other.isOptional(), equalTo( dep.isOptional() ) );
+            assertThat( msg, other.getExcludes(), equalTo( dep.getExcludes() ) );
+        }
+        else if ( rel instanceof PluginRelationship )
+        {
+            assertThat( msg, ( (PluginRelationship) result ).isReporting(),
+                        equalTo( ( (PluginRelationship) rel ).isReporting() ) );
+        }
+    }
+
+    @Test
+    public void roundTrip_AllTypes()
+            throws Exception
+    {
+        for ( final ProjectRelationship<?, ?> rel : allTypes() )
+        {
+            assertSame( (ProjectRelationship<?, ?>) read( write( rel, false ) ), rel );
+        }
+    }
+
+    @Test
+    public void legacyStreamsStillRead()
+            throws Exception
+    {
+        for ( final ProjectRelationship<?, ?> rel : allTypes() )
+        {
+            assertSame( (ProjectRelationship<?, ?>) read( write( rel, true ) ), rel );
+        }
+    }
+
+    /**
+     * Rough size and speed comparison against the default serialized form, with version specs parsed as they are
+     * once relationships have been compared or hashed.
+     */
+    @Test
+    public void compactFormIsSmallerThanLegacy()
+            throws Exception
+    {
+        final URI source = URI.create( "http://repo.example.com/maven2/" );
+        final ArrayList<ProjectRelationship<?, ?>> rels = new ArrayList<ProjectRelationship<?, ?>>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            final ProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar-" + ( i % 50 ), "1.0" );
+            final SimpleArtifactRef target = new SimpleArtifactRef( "org.foo.lib", "lib-" + i, "2." + i + ".1", null,
+                                                                    null );
+            declaring.getVersionSpec();
+            target.getVersionSpec();
+            rels.add( new SimpleDependencyRelationship( source, declaring, target, DependencyScope.compile, i,
+                                                        false, false, false ) );
+        }
+
+        final int legacy = measure( "legacy", rels, true );
+        final int compact = measure( "compact", rels, false );
+
+        assertThat( compact < legacy, equalTo( true ) );
+    }
+
+    private static int measure( final String name, final ArrayList<ProjectRelationship<?, ?>> rels,
+                                final boolean legacy )
+            throws Exception
+    {
+        final int rounds = 5;
+        byte[] bytes = null;
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            bytes = write( rels, legacy );
+        }
+        final long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for ( int i = 0; i < rounds; i++ )
+        {
+            read( bytes );
+        }
+        final long readNanos = System.nanoTime() - start;
+
+        System.out.printf( "%s: %d bytes for %d relationships; write %.2f ms, read %.2f ms per round%n", name,
+                           bytes.length, rels.size(), writeNanos / 1000000.0 / rounds,
+                           readNanos / 1000000.0 / rounds );
+
+        return bytes.length;
+    }
+
+}
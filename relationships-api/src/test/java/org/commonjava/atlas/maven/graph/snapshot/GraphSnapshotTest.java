@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2012 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph.snapshot;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.net.URI;
+import java.util.List;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class GraphSnapshotTest
+{
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final URI source = URI.create( "test:source" );
+
+    private final ProjectVersionRef root = new SimpleProjectVersionRef( "org.foo", "root", "1.0" );
+
+    private final ProjectVersionRef dep = new SimpleProjectVersionRef( "org.foo", "dep", "2.0" );
+
+    private EProjectDirectRelationships rootRelationships()
+    {
+        return new EProjectDirectRelationships.Builder( source, root )
+                        .withParent( new SimpleProjectVersionRef( "org.foo", "parent", "3" ) )
+                        .withDependencies( new SimpleDependencyRelationship( source, root,
+                                                                             new SimpleArtifactRef( dep, "zip",
+                                                                                                    "dist" ),
+                                                                             DependencyScope.runtime, 0, false, false,
+                                                                             true, new SimpleProjectRef( "org.bar",
+                                                                                                         "excluded" ) ) )
+                        .withPlugins( new SimplePluginRelationship( source, root, dep, 0, true, true, false ) )
+                        .build();
+    }
+
+    private GraphSnapshot snapshot( final EProjectDirectRelationships... projects )
+        throws Exception
+    {
+        final GraphSnapshotWriter writer = new GraphSnapshotWriter();
+        for ( final EProjectDirectRelationships rels : projects )
+        {
+            writer.add( rels );
+        }
+
+        final File file = temp.newFile( "graph.snapshot" );
+        writer.write( file );
+        return GraphSnapshot.open( file );
+    }
+
+    @Test
+    public void adjacencyQueriesReadMappedArrays()
+        throws Exception
+    {
+        final GraphSnapshot snapshot = snapshot( rootRelationships(),
+                                                 new EProjectDirectRelationships.Builder( source, dep ).build() );
+        try
+        {
+            final int node = snapshot.getNode( root );
+            assertThat( snapshot.getNodeCount(), equalTo( 3 ) );
+            assertThat( snapshot.getOutDegree( node ), equalTo( 3 ) );
+            assertThat( snapshot.getRef( node ), equalTo( root ) );
+
+            final int[] deps = snapshot.getTargets( node, RelationshipType.DEPENDENCY );
+            assertThat( deps.length, equalTo( 1 ) );
+            assertThat( snapshot.getRef( deps[0] ), equalTo( dep ) );
+            assertThat( snapshot.getOutDegree( deps[0] ), equalTo( 0 ) );
+
+            assertThat( snapshot.getNode( new SimpleProjectVersionRef( "org.foo", "missing", "1" ) ), equalTo( -1 ) );
+        }
+        finally
+        {
+            snapshot.close();
+        }
+    }
+
+    @Test
+    public void relationshipsRoundTrip()
+        throws Exception
+    {
+        final EProjectDirectRelationships rels = rootRelationships();
+        final GraphSnapshot snapshot = snapshot( rels );
+        try
+        {
+            final List<ProjectRelationship<?, ?>> read = snapshot.getRelationships( root );
+            assertThat( read.size(), equalTo( rels.getExactAllRelationships().size() ) );
+
+            for ( final ProjectRelationship<?, ?> rel : read )
+            {
+                assertThat( rels.getExactAllRelationships().contains( rel ), equalTo( true ) );
+                if ( rel.getType() == RelationshipType.DEPENDENCY )
+                {
+                    final DependencyRelationship d = (DependencyRelationship) rel;
+                    assertThat( d.getScope(), equalTo( DependencyScope.runtime ) );
+                    assertThat( d.isOptional(), equalTo( true ) );
+                    assertThat( d.getTarget().getClassifier(), equalTo( "dist" ) );
+                    assertThat( d.getExcludes().size(), equalTo( 1 ) );
+                    assertThat( d.getSources().contains( source ), equalTo( true ) );
+                }
+            }
+        }
+        finally
+        {
+            snapshot.close();
+        }
+    }
+
+}